@@ -0,0 +1,96 @@
+package com.proyecto.dencanto.benchmarks;
+
+import com.proyecto.dencanto.Modelo.Producto;
+import com.proyecto.dencanto.Service.VentaService;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Prueba de carga del registro de ventas: N hilos registran ventas en paralelo sobre H2
+ * y se informa la latencia (p50/p99/máx) y el throughput.
+ *
+ * Argumentos: [hilos] [ventasPorHilo] [productos] (por defecto 8 200 4)
+ */
+public class CargaVentas {
+
+    public static void main(String[] args) throws Exception {
+        int hilos = argumento(args, 0, 8);
+        int ventasPorHilo = argumento(args, 1, 200);
+        int cantidadProductos = argumento(args, 2, 4);
+
+        try (ConfigurableApplicationContext contexto = ContextoBenchmark.iniciar()) {
+            VentaService ventaService = contexto.getBean(VentaService.class);
+            ContextoBenchmark.Datos datos = ContextoBenchmark.sembrar(contexto, hilos, cantidadProductos);
+            List<Producto> productos = datos.productos();
+
+            // Calentamiento: JIT y pool de conexiones
+            for (int i = 0; i < 200; i++) {
+                ventaService.registrarVenta(ContextoBenchmark.nuevaVenta(
+                    datos.vendedores().get(0), productos.subList(0, 1), 1));
+            }
+
+            ExecutorService pool = Executors.newFixedThreadPool(hilos);
+            CountDownLatch salida = new CountDownLatch(1);
+            AtomicInteger errores = new AtomicInteger();
+            List<Future<long[]>> resultados = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                final int hilo = h;
+                resultados.add(pool.submit(() -> {
+                    long[] latencias = new long[ventasPorHilo];
+                    salida.await();
+                    for (int i = 0; i < ventasPorHilo; i++) {
+                        Producto producto = productos.get(ThreadLocalRandom.current().nextInt(productos.size()));
+                        long inicio = System.nanoTime();
+                        try {
+                            ventaService.registrarVenta(ContextoBenchmark.nuevaVenta(
+                                datos.vendedores().get(hilo), List.of(producto), 1));
+                        } catch (Exception e) {
+                            errores.incrementAndGet();
+                        }
+                        latencias[i] = System.nanoTime() - inicio;
+                    }
+                    return latencias;
+                }));
+            }
+
+            long inicio = System.nanoTime();
+            salida.countDown();
+            long[] todas = new long[hilos * ventasPorHilo];
+            int posicion = 0;
+            for (Future<long[]> resultado : resultados) {
+                long[] latencias = resultado.get();
+                System.arraycopy(latencias, 0, todas, posicion, latencias.length);
+                posicion += latencias.length;
+            }
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            pool.shutdown();
+
+            Arrays.sort(todas);
+            System.out.printf("%nRegistro de ventas: %d hilos x %d ventas, %d productos%n",
+                hilos, ventasPorHilo, cantidadProductos);
+            System.out.printf("  Throughput : %.1f ventas/s (%.2f s)%n", todas.length / segundos, segundos);
+            System.out.printf("  p50        : %.2f ms%n", percentil(todas, 50) / 1e6);
+            System.out.printf("  p99        : %.2f ms%n", percentil(todas, 99) / 1e6);
+            System.out.printf("  máx        : %.2f ms%n", todas[todas.length - 1] / 1e6);
+            System.out.printf("  errores    : %d%n", errores.get());
+        }
+    }
+
+    private static long percentil(long[] ordenadas, double p) {
+        int indice = (int) Math.ceil(p / 100.0 * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, Math.min(indice, ordenadas.length - 1))];
+    }
+
+    private static int argumento(String[] args, int posicion, int porDefecto) {
+        return args.length > posicion ? Integer.parseInt(args[posicion]) : porDefecto;
+    }
+}
@@ -0,0 +1,83 @@
+package com.proyecto.dencanto.benchmarks;
+
+import com.proyecto.dencanto.DencantoApplication;
+import com.proyecto.dencanto.Modelo.*;
+import com.proyecto.dencanto.Repository.ProductoRepository;
+import com.proyecto.dencanto.Repository.RolRepository;
+import com.proyecto.dencanto.Repository.UsuarioRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Arranca la aplicación sobre H2 en memoria (perfil "test", puerto aleatorio)
+ * y crea los datos mínimos para registrar ventas.
+ */
+public final class ContextoBenchmark {
+
+    // Máximo permitido por la validación de Producto
+    public static final int STOCK_MAXIMO = 999999;
+
+    private ContextoBenchmark() {}
+
+    public static ConfigurableApplicationContext iniciar() {
+        // DevTools reiniciaría el contexto en otro hilo
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(DencantoApplication.class)
+            .profiles("test")
+            .properties("server.port=0", "logging.level.root=WARN", "spring.main.banner-mode=off")
+            .run();
+    }
+
+    /**
+     * Un rol, los vendedores indicados y productos con stock máximo
+     */
+    public static Datos sembrar(ConfigurableApplicationContext contexto, int vendedores, int productos) {
+        RolRepository rolRepository = contexto.getBean(RolRepository.class);
+        UsuarioRepository usuarioRepository = contexto.getBean(UsuarioRepository.class);
+        ProductoRepository productoRepository = contexto.getBean(ProductoRepository.class);
+
+        Rol rol = new Rol();
+        rol.setNombre("VENDEDOR");
+        rol = rolRepository.save(rol);
+
+        List<Usuario> listaVendedores = new ArrayList<>();
+        for (int i = 0; i < vendedores; i++) {
+            listaVendedores.add(usuarioRepository.save(
+                new Usuario("vendedor_bench_" + i, "hash", "Vendedor " + i, null, null, rol)));
+        }
+
+        String[] categorias = {"Colchones", "Almohadas", "Camas", "Accesorios"};
+        List<Producto> listaProductos = new ArrayList<>();
+        for (int i = 0; i < productos; i++) {
+            Producto producto = new Producto("Producto " + i, categorias[i % categorias.length],
+                100.0 + i * 10, STOCK_MAXIMO, null, "Disponible");
+            producto.setCodigo("BENCH-" + i);
+            listaProductos.add(productoRepository.save(producto));
+        }
+        return new Datos(listaVendedores, listaProductos);
+    }
+
+    /**
+     * Venta de recojo con una línea por producto indicado
+     */
+    public static Venta nuevaVenta(Usuario vendedor, List<Producto> productos, int cantidad) {
+        Venta venta = new Venta("Cliente Benchmark", "987654321", "cliente@benchmark.com");
+        venta.setTipoEntrega(TipoEntrega.RECOJO);
+        venta.setMetodoPago(MetodoPago.EFECTIVO);
+        venta.setVendedor(vendedor);
+
+        List<DetalleVenta> detalles = new ArrayList<>();
+        for (Producto producto : productos) {
+            Producto referencia = new Producto();
+            referencia.setId(producto.getId());
+            detalles.add(new DetalleVenta(venta, referencia, cantidad, producto.getPrecio()));
+        }
+        venta.setDetalles(detalles);
+        return venta;
+    }
+
+    public record Datos(List<Usuario> vendedores, List<Producto> productos) {}
+}
@@ -0,0 +1,161 @@
+package com.proyecto.dencanto.benchmarks;
+
+import com.proyecto.dencanto.Modelo.*;
+import com.proyecto.dencanto.Service.CotizacionPdfService;
+import com.proyecto.dencanto.Service.ReportePdfService;
+import com.proyecto.dencanto.Service.VentaPdfService;
+import com.proyecto.dencanto.dto.CotizacionResumen;
+import com.proyecto.dencanto.dto.VentaLineaHistorial;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PDFs por segundo de los tres servicios: comprobante de venta, cotización, historial de ventas,
+ * listado de cotizaciones y reporte de ventas. Los datos se arman en memoria (sin BD) y los
+ * documentos largos se escriben a una salida nula, como cuando van directo a la respuesta
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PdfBenchmark {
+
+    // Filas de los listados (historial, cotizaciones y productos vendidos del reporte)
+    @Param({"500"})
+    private int filas;
+
+    private ConfigurableApplicationContext contexto;
+    private VentaPdfService ventaPdfService;
+    private CotizacionPdfService cotizacionPdfService;
+    private ReportePdfService reportePdfService;
+
+    private Venta venta;
+    private Cotizacion cotizacion;
+    private List<Map<String, Object>> productosCotizacion;
+    private List<VentaLineaHistorial> lineasHistorial;
+    private List<CotizacionResumen> cotizaciones;
+    private Map<String, Object> estadisticasVentas;
+    private Map<String, Object> estadisticasCotizaciones;
+    private Map<String, Object> resumenReporte;
+    private List<Map<String, Object>> topProductos;
+    private List<Map<String, Object>> productosVendidos;
+    private List<Map<String, Object>> cotizacionesCerradas;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        contexto = ContextoBenchmark.iniciar();
+        ventaPdfService = contexto.getBean(VentaPdfService.class);
+        cotizacionPdfService = contexto.getBean(CotizacionPdfService.class);
+        reportePdfService = contexto.getBean(ReportePdfService.class);
+
+        EstadoVenta[] estados = EstadoVenta.values();
+        MetodoPago[] metodos = MetodoPago.values();
+        String[] estadosCotizacion = {"Pendiente", "En Proceso", "Contactado", "Cerrada", "Cancelada"};
+        LocalDateTime ahora = LocalDateTime.now();
+
+        venta = new Venta("Cliente Benchmark", "987654321", "cliente@benchmark.com");
+        venta.setId(1L);
+        venta.setTipoEntrega(TipoEntrega.DOMICILIO);
+        venta.setDireccionEntrega("Av. Benchmark 123");
+        venta.setMetodoPago(MetodoPago.YAPE);
+        venta.setFechaCreacion(ahora);
+        List<DetalleVenta> detalles = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Producto producto = new Producto("Producto " + i, "Colchones", 499.9 + i, 10, null, "Disponible");
+            detalles.add(new DetalleVenta(venta, producto, 1 + i % 3, producto.getPrecio()));
+        }
+        venta.setDetalles(detalles);
+        venta.setSubtotal(2500.0);
+        venta.setIgv(450.0);
+        venta.setCostoDelivery(30.0);
+        venta.setTotal(2980.0);
+
+        cotizacion = new Cotizacion();
+        cotizacion.setId(1);
+        cotizacion.setNombreCliente("Cliente Benchmark");
+        cotizacion.setEmail("cliente@benchmark.com");
+        cotizacion.setTelefono("987654321");
+        cotizacion.setDireccion("Av. Benchmark 123");
+        cotizacion.setFechaDeseada(LocalDate.now().plusDays(7));
+        cotizacion.setFechaCreacion(ahora);
+        cotizacion.setTotal(2500.0);
+        productosCotizacion = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            productosCotizacion.add(Map.of("nombre", "Producto " + i, "cantidad", 1 + i % 3, "precio", 499.9 + i));
+        }
+
+        lineasHistorial = new ArrayList<>();
+        cotizaciones = new ArrayList<>();
+        productosVendidos = new ArrayList<>();
+        cotizacionesCerradas = new ArrayList<>();
+        for (long i = 0; i < filas; i++) {
+            // Dos líneas por venta, como llegan del JOIN con los detalles
+            for (int j = 0; j < 2; j++) {
+                lineasHistorial.add(new VentaLineaHistorial(i, "Cliente " + i, 999.9, metodos[(int) (i % metodos.length)],
+                    estados[(int) (i % estados.length)], ahora, "Producto " + j, 1 + j));
+            }
+            cotizaciones.add(new CotizacionResumen((int) i, "Cliente " + i, "cliente" + i + "@benchmark.com",
+                "987654321", 1500.0, estadosCotizacion[(int) (i % estadosCotizacion.length)],
+                LocalDate.now(), ahora, ahora, null));
+            productosVendidos.add(Map.of("nombre", "Producto " + i, "categoria", "Colchones", "origen", "venta",
+                "cantidadVendida", 3, "precioUnitario", 499.9, "totalVentas", 1499.7));
+            if (i < filas / 10) {
+                cotizacionesCerradas.add(Map.of("id", i, "nombreCliente", "Cliente " + i,
+                    "email", "cliente" + i + "@benchmark.com", "total", 1500.0,
+                    "fechaCreacion", "01/01/2026", "fechaCierre", "05/01/2026"));
+            }
+        }
+        topProductos = productosVendidos.subList(0, Math.min(5, productosVendidos.size()));
+
+        estadisticasVentas = new HashMap<>(Map.of("totalVentas", 499950.0, "cantidadVentas", filas,
+            "promedioVenta", 999.9, "comisiones", 24997.5));
+        estadisticasCotizaciones = new HashMap<>(Map.of("total", filas, "pendientes", filas / 5,
+            "enProceso", filas / 5, "contactadas", filas / 5, "cerradas", filas / 5));
+        resumenReporte = new HashMap<>(Map.of("ventasTotales", 499950.0, "totalCotizaciones", filas,
+            "tasaConversion", 20.0, "diasPromedioCierre", 4.5));
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public byte[] comprobanteVenta() throws Exception {
+        return ventaPdfService.generarPdfVenta(venta);
+    }
+
+    @Benchmark
+    public byte[] cotizacion() throws Exception {
+        return cotizacionPdfService.generarPdfCotizacion(cotizacion, productosCotizacion);
+    }
+
+    @Benchmark
+    public void historialVentas() throws Exception {
+        ventaPdfService.escribirPdfHistorialVentas(lineasHistorial.iterator(), estadisticasVentas,
+            "Vendedor Benchmark", "2026-01-01", "2026-12-31", OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void listadoCotizaciones() throws Exception {
+        cotizacionPdfService.escribirPdfListadoCotizaciones(cotizaciones.iterator(), estadisticasCotizaciones,
+            OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void reporteVentas() {
+        reportePdfService.escribirReporteVentas(resumenReporte, topProductos, productosVendidos,
+            cotizacionesCerradas, "2026-01-01", "2026-12-31", null, OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,67 @@
+package com.proyecto.dencanto.benchmarks;
+
+import com.proyecto.dencanto.Modelo.Producto;
+import com.proyecto.dencanto.Modelo.Usuario;
+import com.proyecto.dencanto.Modelo.Venta;
+import com.proyecto.dencanto.Service.VentaService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * VentaService.registrarVenta completo (validación, stock, venta y resumen diario) sobre H2.
+ * La variante concurrente reparte las ventas entre pocos productos para medir la contención
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegistrarVentaBenchmark {
+
+    private static final int PRODUCTOS = 8;
+
+    @Param({"1", "3"})
+    private int lineas;
+
+    private ConfigurableApplicationContext contexto;
+    private VentaService ventaService;
+    private List<Usuario> vendedores;
+    private List<Producto> productos;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoBenchmark.iniciar();
+        ventaService = contexto.getBean(VentaService.class);
+        ContextoBenchmark.Datos datos = ContextoBenchmark.sembrar(contexto, 8, PRODUCTOS);
+        vendedores = datos.vendedores();
+        productos = datos.productos();
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Venta registrarVenta() throws Exception {
+        return ventaService.registrarVenta(ventaAleatoria());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Venta registrarVentaConcurrente() throws Exception {
+        return ventaService.registrarVenta(ventaAleatoria());
+    }
+
+    private Venta ventaAleatoria() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int inicio = random.nextInt(PRODUCTOS - lineas + 1);
+        return ContextoBenchmark.nuevaVenta(vendedores.get(random.nextInt(vendedores.size())),
+            productos.subList(inicio, inicio + lineas), 1);
+    }
+}
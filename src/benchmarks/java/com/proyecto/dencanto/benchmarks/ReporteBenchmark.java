@@ -0,0 +1,117 @@
+package com.proyecto.dencanto.benchmarks;
+
+import com.proyecto.dencanto.Modelo.Cotizacion;
+import com.proyecto.dencanto.Modelo.Producto;
+import com.proyecto.dencanto.Service.CotizacionService;
+import com.proyecto.dencanto.Service.ReporteService;
+import com.proyecto.dencanto.Service.VentaService;
+import com.proyecto.dencanto.controller.ReportesApiController;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agregaciones de ReportesApiController/ReporteService sobre un histórico sembrado en H2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReporteBenchmark {
+
+    @Param({"2000"})
+    private int ventas;
+
+    @Param({"200"})
+    private int cotizaciones;
+
+    private ConfigurableApplicationContext contexto;
+    private ReportesApiController reportesApiController;
+    private ReporteService reporteService;
+
+    @Setup(Level.Trial)
+    public void iniciar() throws Exception {
+        contexto = ContextoBenchmark.iniciar();
+        reportesApiController = contexto.getBean(ReportesApiController.class);
+        reporteService = contexto.getBean(ReporteService.class);
+
+        // El controlador exige ROLE_ADMIN; el contexto se comparte entre los hilos de JMH
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+            "admin", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+
+        ContextoBenchmark.Datos datos = ContextoBenchmark.sembrar(contexto, 5, 20);
+        VentaService ventaService = contexto.getBean(VentaService.class);
+        CotizacionService cotizacionService = contexto.getBean(CotizacionService.class);
+        Random random = new Random(42);
+
+        List<Producto> productos = datos.productos();
+        for (int i = 0; i < ventas; i++) {
+            int inicio = random.nextInt(productos.size() - 3);
+            ventaService.registrarVenta(ContextoBenchmark.nuevaVenta(
+                datos.vendedores().get(random.nextInt(datos.vendedores().size())),
+                productos.subList(inicio, inicio + 1 + random.nextInt(3)), 1 + random.nextInt(2)));
+        }
+
+        for (int i = 0; i < cotizaciones; i++) {
+            Producto producto = productos.get(random.nextInt(productos.size()));
+            Cotizacion cotizacion = new Cotizacion();
+            cotizacion.setNombreCliente("Cliente " + i);
+            cotizacion.setEmail("cliente" + i + "@benchmark.com");
+            cotizacion.setTelefono("987654321");
+            cotizacion.setDireccion("Av. Benchmark 123");
+            cotizacion.setFechaDeseada(LocalDate.now().plusDays(7));
+            cotizacion.setEstado(i % 2 == 0 ? "Cerrada" : "Pendiente");
+            cotizacion.setTotal(producto.getPrecio() * 2);
+            cotizacion.setProductosJson("[{\"id\":" + producto.getId() + ",\"nombre\":\"" + producto.getNombre() +
+                "\",\"precio\":" + producto.getPrecio() + ",\"cantidad\":2}]");
+            cotizacionService.guardar(cotizacion);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        SecurityContextHolder.clearContext();
+        contexto.close();
+    }
+
+    @Benchmark
+    public ReporteService.DatosReporte reporteCompleto() {
+        return reporteService.generar(null, null, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> resumen() {
+        return reportesApiController.obtenerResumen(null, null, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> topProductos() {
+        return reportesApiController.obtenerTopProductos(null, null, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> productosVendidos() {
+        return reportesApiController.obtenerProductosVendidos(null, null, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> ventasMensuales() {
+        return reportesApiController.obtenerVentasMensuales();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> vendedores() {
+        return reportesApiController.obtenerReporteVendedores();
+    }
+}
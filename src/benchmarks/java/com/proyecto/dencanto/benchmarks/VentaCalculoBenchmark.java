@@ -0,0 +1,62 @@
+package com.proyecto.dencanto.benchmarks;
+
+import com.proyecto.dencanto.Modelo.DetalleVenta;
+import com.proyecto.dencanto.Modelo.Producto;
+import com.proyecto.dencanto.Modelo.Venta;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cálculos de la venta en memoria: subtotal de las líneas, IGV y total
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VentaCalculoBenchmark {
+
+    @Param({"1", "10"})
+    private int lineas;
+
+    private Venta venta;
+
+    @Setup
+    public void preparar() {
+        venta = new Venta("Cliente", "987654321", "cliente@benchmark.com");
+        venta.setDescuento(15.0);
+        venta.setCostoDelivery(30.0);
+        List<DetalleVenta> detalles = new ArrayList<>();
+        for (int i = 0; i < lineas; i++) {
+            detalles.add(new DetalleVenta(venta, new Producto(), 1 + i % 3, 199.9 + i));
+        }
+        venta.setDetalles(detalles);
+        venta.setSubtotal(1000.0);
+    }
+
+    @Benchmark
+    public double subtotalDetalles() {
+        double subtotal = 0.0;
+        for (DetalleVenta detalle : venta.getDetalles()) {
+            subtotal += detalle.calcularSubtotal();
+        }
+        return subtotal;
+    }
+
+    @Benchmark
+    public Double calcularIGV() {
+        venta.calcularIGV();
+        return venta.getIgv();
+    }
+
+    @Benchmark
+    public Double calcularTotal() {
+        venta.calcularIGV();
+        venta.calcularTotal();
+        return venta.getTotal();
+    }
+}
@@ -1,5 +1,7 @@
 package com.proyecto.dencanto.Modelo;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.proyecto.dencanto.Service.TextoNormalizado;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.time.LocalDateTime;
@@ -18,6 +20,11 @@ public class Cotizacion {
     @Column(name = "nombre_cliente", nullable = false, length = 100)
     private String nombreCliente;
     
+    // Nombre en minúsculas y sin tildes, para buscar por prefijo con índice
+    @JsonIgnore
+    @Column(name = "nombre_normalizado", length = 100)
+    private String nombreNormalizado;
+    
     @NotBlank(message = "El email es obligatorio")
     @Email(message = "El email debe ser válido")
     @Column(name = "email", nullable = false, length = 100)
@@ -74,6 +81,10 @@ public class Cotizacion {
         this.nombreCliente = nombreCliente;
     }
     
+    public String getNombreNormalizado() {
+        return nombreNormalizado;
+    }
+    
     public String getEmail() {
         return email;
     }
@@ -161,8 +172,14 @@ public class Cotizacion {
         this.estado = "Pendiente";
     }
     
+    @PrePersist
+    public void prePersist() {
+        this.nombreNormalizado = TextoNormalizado.normalizar(nombreCliente);
+    }
+    
     @PreUpdate
     public void preUpdate() {
         this.fechaActualizacion = LocalDateTime.now();
+        this.nombreNormalizado = TextoNormalizado.normalizar(nombreCliente);
     }
 }
@@ -0,0 +1,63 @@
+package com.proyecto.dencanto.Modelo;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+
+/**
+ * Línea de una cotización. Se genera una sola vez a partir de Cotizacion.productosJson
+ * al guardar, para que los reportes agreguen con SQL en lugar de parsear el JSON.
+ */
+@Entity
+@Table(name = "cotizacion_items")
+public class CotizacionItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "cotizacion_id", nullable = false)
+    @JsonIgnore
+    private Cotizacion cotizacion;
+
+    // Puede ser null si el producto del carrito no traía id
+    @Column(name = "producto_id")
+    private Integer productoId;
+
+    @Column(name = "nombre", length = 200)
+    private String nombre;
+
+    @Column(name = "categoria", length = 100, nullable = false)
+    private String categoria;
+
+    @Column(name = "cantidad", nullable = false)
+    private Integer cantidad;
+
+    @Column(name = "precio", nullable = false, columnDefinition = "DECIMAL(10,2)")
+    private Double precio;
+
+    // Constructores
+    public CotizacionItem() {}
+
+    // Getters y Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Cotizacion getCotizacion() { return cotizacion; }
+    public void setCotizacion(Cotizacion cotizacion) { this.cotizacion = cotizacion; }
+
+    public Integer getProductoId() { return productoId; }
+    public void setProductoId(Integer productoId) { this.productoId = productoId; }
+
+    public String getNombre() { return nombre; }
+    public void setNombre(String nombre) { this.nombre = nombre; }
+
+    public String getCategoria() { return categoria; }
+    public void setCategoria(String categoria) { this.categoria = categoria; }
+
+    public Integer getCantidad() { return cantidad; }
+    public void setCantidad(Integer cantidad) { this.cantidad = cantidad; }
+
+    public Double getPrecio() { return precio; }
+    public void setPrecio(Double precio) { this.precio = precio; }
+}
@@ -0,0 +1,61 @@
+package com.proyecto.dencanto.Modelo;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Imagen binaria direccionada por contenido (SHA-256 de los bytes).
+ * Los productos solo guardan el hash; una misma imagen se almacena una sola vez.
+ */
+@Entity
+@Table(name = "imagenes")
+public class Imagen {
+
+    @Id
+    @Column(name = "hash", length = 64, nullable = false, updatable = false)
+    private String hash;
+
+    @Lob
+    @Column(name = "datos", nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] datos;
+
+    @Column(name = "tipo_contenido", length = 100)
+    private String tipoContenido;
+
+    @Column(name = "tamano")
+    private Long tamano;
+
+    @Column(name = "fecha_creacion")
+    private LocalDateTime fechaCreacion;
+
+    // Constructores
+    public Imagen() {}
+
+    public Imagen(String hash, byte[] datos, String tipoContenido) {
+        this.hash = hash;
+        this.datos = datos;
+        this.tipoContenido = tipoContenido;
+        this.tamano = (long) datos.length;
+    }
+
+    // Getters y Setters
+    public String getHash() { return hash; }
+    public void setHash(String hash) { this.hash = hash; }
+
+    public byte[] getDatos() { return datos; }
+    public void setDatos(byte[] datos) { this.datos = datos; }
+
+    public String getTipoContenido() { return tipoContenido; }
+    public void setTipoContenido(String tipoContenido) { this.tipoContenido = tipoContenido; }
+
+    public Long getTamano() { return tamano; }
+    public void setTamano(Long tamano) { this.tamano = tamano; }
+
+    public LocalDateTime getFechaCreacion() { return fechaCreacion; }
+    public void setFechaCreacion(LocalDateTime fechaCreacion) { this.fechaCreacion = fechaCreacion; }
+
+    @PrePersist
+    protected void onCreate() {
+        fechaCreacion = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,49 @@
+package com.proyecto.dencanto.Modelo;
+
+import jakarta.persistence.*;
+
+/**
+ * Relaciona una imagen original con su versión redimensionada.
+ * Ambas viven en la tabla "imagenes"; aquí solo se guardan los hashes.
+ */
+@Entity
+@Table(name = "imagen_variantes",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"hash_original", "variante"}))
+public class ImagenVariante {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "hash_original", length = 64, nullable = false)
+    private String hashOriginal;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "variante", length = 20, nullable = false)
+    private VarianteImagen variante;
+
+    @Column(name = "hash_variante", length = 64, nullable = false)
+    private String hashVariante;
+
+    // Constructores
+    public ImagenVariante() {}
+
+    public ImagenVariante(String hashOriginal, VarianteImagen variante, String hashVariante) {
+        this.hashOriginal = hashOriginal;
+        this.variante = variante;
+        this.hashVariante = hashVariante;
+    }
+
+    // Getters y Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getHashOriginal() { return hashOriginal; }
+    public void setHashOriginal(String hashOriginal) { this.hashOriginal = hashOriginal; }
+
+    public VarianteImagen getVariante() { return variante; }
+    public void setVariante(VarianteImagen variante) { this.variante = variante; }
+
+    public String getHashVariante() { return hashVariante; }
+    public void setHashVariante(String hashVariante) { this.hashVariante = hashVariante; }
+}
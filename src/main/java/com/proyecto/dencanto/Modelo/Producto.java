@@ -1,5 +1,6 @@
 package com.proyecto.dencanto.Modelo;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.time.LocalDateTime;
@@ -48,7 +49,14 @@ public class Producto {
     private String estado = "Disponible";
     
     // ===== IMAGEN PRINCIPAL =====
-    @Column(name = "imagen_principal", columnDefinition = "LONGTEXT")
+    // Solo se guarda el hash; los bytes viven en la tabla "imagenes"
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "imagen_principal_hash", length = 64)
+    private String imagenPrincipalHash;
+    
+    // Base64 recibido del formulario (no se persiste, lo convierte ProductoService)
+    @Transient
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String imagenPrincipal;
     
     // ===== FICHA TÉCNICA =====
@@ -78,10 +86,20 @@ public class Producto {
     @Column(name = "caracteristicas", columnDefinition = "TEXT")
     private String caracteristicas;
     
-    @Column(name = "imagen_tecnica_1", columnDefinition = "LONGTEXT")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "imagen_tecnica_1_hash", length = 64)
+    private String imagenTecnica1Hash;
+    
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "imagen_tecnica_2_hash", length = 64)
+    private String imagenTecnica2Hash;
+    
+    @Transient
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String imagenTecnica1;
     
-    @Column(name = "imagen_tecnica_2", columnDefinition = "LONGTEXT")
+    @Transient
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String imagenTecnica2;
     
     @Column(name = "fecha_creacion")
@@ -90,6 +108,11 @@ public class Producto {
     @Column(name = "fecha_actualizacion")
     private LocalDateTime fechaActualizacion;
     
+    // Bloqueo optimista: evita que dos escrituras concurrentes pisen el stock
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
     // Constructores
     public Producto() {}
     
@@ -133,10 +156,16 @@ public class Producto {
     public LocalDateTime getFechaActualizacion() { return fechaActualizacion; }
     public void setFechaActualizacion(LocalDateTime fechaActualizacion) { this.fechaActualizacion = fechaActualizacion; }
     
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    
     // ===== GETTERS Y SETTERS IMAGEN PRINCIPAL =====
     public String getImagenPrincipal() { return imagenPrincipal; }
     public void setImagenPrincipal(String imagenPrincipal) { this.imagenPrincipal = imagenPrincipal; }
     
+    public String getImagenPrincipalHash() { return imagenPrincipalHash; }
+    public void setImagenPrincipalHash(String imagenPrincipalHash) { this.imagenPrincipalHash = imagenPrincipalHash; }
+    
     // ===== GETTERS Y SETTERS FICHA TÉCNICA =====
     public String getMaterial() { return material; }
     public void setMaterial(String material) { this.material = material; }
@@ -162,6 +191,12 @@ public class Producto {
     public String getImagenTecnica2() { return imagenTecnica2; }
     public void setImagenTecnica2(String imagenTecnica2) { this.imagenTecnica2 = imagenTecnica2; }
     
+    public String getImagenTecnica1Hash() { return imagenTecnica1Hash; }
+    public void setImagenTecnica1Hash(String imagenTecnica1Hash) { this.imagenTecnica1Hash = imagenTecnica1Hash; }
+    
+    public String getImagenTecnica2Hash() { return imagenTecnica2Hash; }
+    public void setImagenTecnica2Hash(String imagenTecnica2Hash) { this.imagenTecnica2Hash = imagenTecnica2Hash; }
+    
     // Métodos para las fechas automáticas
     @PrePersist
     protected void onCreate() {
@@ -0,0 +1,34 @@
+package com.proyecto.dencanto.Modelo;
+
+/**
+ * Tamaños redimensionados que se generan para cada imagen de producto
+ */
+public enum VarianteImagen {
+    THUMBNAIL(150),
+    CARD(400),
+    DETAIL(1024);
+
+    private final int anchoMaximo;
+
+    VarianteImagen(int anchoMaximo) {
+        this.anchoMaximo = anchoMaximo;
+    }
+
+    public int getAnchoMaximo() {
+        return anchoMaximo;
+    }
+
+    /**
+     * Convierte el parámetro ?size= (thumbnail, card, detail); null si no aplica
+     */
+    public static VarianteImagen desde(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        try {
+            return VarianteImagen.valueOf(valor.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.proyecto.dencanto.Modelo;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Resumen diario de ventas que mantiene VentaService al registrar o cambiar de estado una venta.
+ * Los reportes leen de aquí en lugar de recorrer ventas y detalle_venta.
+ *
+ * Hay tres tipos de fila según producto/categoría:
+ *  - producto > 0: unidades y subtotal de ese producto; pedidos = ventas que lo incluyen
+ *  - producto = 0 y una categoría: ventas que incluyen esa categoría (monto = total de la venta)
+ *  - producto = 0 y categoría "*": todas las ventas (monto = total de la venta)
+ */
+@Entity
+@Table(name = "ventas_diarias",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"fecha", "producto_id", "categoria", "vendedor_id", "estado"}))
+public class VentaDiaria {
+
+    /** producto_id de las filas por venta (no por producto) */
+    public static final int SIN_PRODUCTO = 0;
+
+    /** categoria de las filas que agrupan todas las ventas */
+    public static final String TODAS = "*";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "fecha", nullable = false)
+    private LocalDate fecha;
+
+    @Column(name = "producto_id", nullable = false)
+    private Integer productoId;
+
+    @Column(name = "categoria", length = 100, nullable = false)
+    private String categoria;
+
+    @Column(name = "vendedor_id", nullable = false)
+    private Integer vendedorId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", length = 20, nullable = false)
+    private EstadoVenta estado;
+
+    @Column(name = "unidades", nullable = false)
+    private Long unidades;
+
+    @Column(name = "monto", nullable = false, columnDefinition = "DECIMAL(14,2)")
+    private Double monto;
+
+    @Column(name = "pedidos", nullable = false)
+    private Long pedidos;
+
+    // Constructores
+    public VentaDiaria() {}
+
+    // Getters y Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public LocalDate getFecha() { return fecha; }
+    public void setFecha(LocalDate fecha) { this.fecha = fecha; }
+
+    public Integer getProductoId() { return productoId; }
+    public void setProductoId(Integer productoId) { this.productoId = productoId; }
+
+    public String getCategoria() { return categoria; }
+    public void setCategoria(String categoria) { this.categoria = categoria; }
+
+    public Integer getVendedorId() { return vendedorId; }
+    public void setVendedorId(Integer vendedorId) { this.vendedorId = vendedorId; }
+
+    public EstadoVenta getEstado() { return estado; }
+    public void setEstado(EstadoVenta estado) { this.estado = estado; }
+
+    public Long getUnidades() { return unidades; }
+    public void setUnidades(Long unidades) { this.unidades = unidades; }
+
+    public Double getMonto() { return monto; }
+    public void setMonto(Double monto) { this.monto = monto; }
+
+    public Long getPedidos() { return pedidos; }
+    public void setPedidos(Long pedidos) { this.pedidos = pedidos; }
+}
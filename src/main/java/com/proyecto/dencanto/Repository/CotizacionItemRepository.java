@@ -0,0 +1,69 @@
+package com.proyecto.dencanto.Repository;
+
+import com.proyecto.dencanto.Modelo.Cotizacion;
+import com.proyecto.dencanto.Modelo.CotizacionItem;
+import com.proyecto.dencanto.dto.CotizacionItemTotal;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio de las líneas de cotización (tabla cotizacion_items)
+ */
+@Repository
+public interface CotizacionItemRepository extends JpaRepository<CotizacionItem, Long> {
+
+    // Cotización con productos en el JSON (ni nulo, ni vacío, ni "[]")
+    String CON_PRODUCTOS_JSON = "c.productosJson IS NOT NULL AND TRIM(c.productosJson) <> '' " +
+           "AND TRIM(c.productosJson) <> '[]' ";
+
+    /**
+     * Indica si la cotización ya tiene sus líneas generadas
+     */
+    boolean existsByCotizacionId(Integer cotizacionId);
+
+    /**
+     * Borra las líneas de una cotización (antes de regenerarlas)
+     */
+    @Modifying
+    @Query("DELETE FROM CotizacionItem i WHERE i.cotizacion.id = :cotizacionId")
+    void eliminarPorCotizacion(@Param("cotizacionId") Integer cotizacionId);
+
+    /**
+     * Cantidad y monto por producto y cotización de las cotizaciones en un estado,
+     * creadas en el rango de fechas. categoria vacía = todas
+     */
+    @Query("SELECT new com.proyecto.dencanto.dto.CotizacionItemTotal(c.id, i.productoId, i.nombre, i.categoria, " +
+           "MAX(i.precio), SUM(i.cantidad), SUM(i.cantidad * i.precio)) " +
+           "FROM CotizacionItem i JOIN i.cotizacion c " +
+           "WHERE c.estado = :estado AND c.fechaCreacion BETWEEN :fechaInicio AND :fechaFin " +
+           "AND (:categoria = '' OR i.categoria = :categoria) " +
+           "GROUP BY c.id, i.productoId, i.nombre, i.categoria")
+    List<CotizacionItemTotal> totalesPorProducto(@Param("estado") String estado,
+                                                 @Param("fechaInicio") LocalDateTime fechaInicio,
+                                                 @Param("fechaFin") LocalDateTime fechaFin,
+                                                 @Param("categoria") String categoria);
+
+    /**
+     * Cotizaciones en un estado con productos en el JSON pero sin líneas (JSON que no se pudo leer)
+     */
+    @Query("SELECT c FROM Cotizacion c WHERE c.estado = :estado " +
+           "AND c.fechaCreacion BETWEEN :fechaInicio AND :fechaFin AND " + CON_PRODUCTOS_JSON +
+           "AND NOT EXISTS (SELECT 1 FROM CotizacionItem i WHERE i.cotizacion = c)")
+    List<Cotizacion> sinItems(@Param("estado") String estado,
+                              @Param("fechaInicio") LocalDateTime fechaInicio,
+                              @Param("fechaFin") LocalDateTime fechaFin);
+
+    /**
+     * Ids de cotizaciones con JSON de productos que aún no tienen líneas (para la migración)
+     */
+    @Query("SELECT c.id FROM Cotizacion c WHERE c.id > :desdeId AND " + CON_PRODUCTOS_JSON +
+           "AND NOT EXISTS (SELECT 1 FROM CotizacionItem i WHERE i.cotizacion = c) ORDER BY c.id")
+    List<Integer> idsPendientesDeMigrar(@Param("desdeId") Integer desdeId, Pageable pagina);
+}
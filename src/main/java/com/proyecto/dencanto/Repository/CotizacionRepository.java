@@ -1,14 +1,34 @@
 package com.proyecto.dencanto.Repository;
 
 import com.proyecto.dencanto.Modelo.Cotizacion;
+import com.proyecto.dencanto.dto.CotizacionResumen;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.time.LocalDateTime;
+import java.util.stream.Stream;
 
 @Repository
 public interface CotizacionRepository extends JpaRepository<Cotizacion, Integer> {
     
+    /**
+     * Filtros opcionales del listado (null = sin filtro). prefijo busca por el inicio del
+     * nombre normalizado o del email (LIKE 'texto%', usa los índices de ambas columnas)
+     */
+    String FILTROS_LISTADO = "WHERE (:estado IS NULL OR c.estado = :estado) " +
+            "AND (:desde IS NULL OR c.fechaCreacion >= :desde) " +
+            "AND (:hasta IS NULL OR c.fechaCreacion < :hasta) " +
+            "AND (:prefijo IS NULL OR c.nombreNormalizado LIKE :prefijo ESCAPE '!' " +
+            "OR c.email LIKE :prefijo ESCAPE '!') ";
+    
     // Obtener cotizaciones por estado
     List<Cotizacion> findByEstado(String estado);
     
@@ -21,6 +41,41 @@ public interface CotizacionRepository extends JpaRepository<Cotizacion, Integer>
     // Contar cotizaciones por estado
     long countByEstado(String estado);
     
-    // Buscar por nombre o email (case-insensitive)
-    List<Cotizacion> findByNombreClienteContainingIgnoreCaseOrEmailContainingIgnoreCase(String nombreCliente, String email);
+    // Listado paginado (sin dirección ni JSON de productos), más recientes primero
+    @Query(value = "SELECT new com.proyecto.dencanto.dto.CotizacionResumen(c.id, c.nombreCliente, c.email, " +
+            "c.telefono, c.total, c.estado, c.fechaDeseada, c.fechaCreacion, c.fechaActualizacion, c.fechaCierre) " +
+            "FROM Cotizacion c " + FILTROS_LISTADO + "ORDER BY c.fechaCreacion DESC, c.id DESC",
+            countQuery = "SELECT COUNT(c) FROM Cotizacion c " + FILTROS_LISTADO)
+    Page<CotizacionResumen> listarResumen(@Param("estado") String estado,
+                                          @Param("desde") LocalDateTime desde,
+                                          @Param("hasta") LocalDateTime hasta,
+                                          @Param("prefijo") String prefijo,
+                                          Pageable pagina);
+    
+    // Cotizaciones para exportar (sin dirección ni JSON de productos), en orden de id, leídas por
+    // bloques del cursor de la BD. Debe consumirse dentro de una transacción y cerrarse al terminar
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.proyecto.dencanto.dto.CotizacionResumen(c.id, c.nombreCliente, c.email, " +
+            "c.telefono, c.total, c.estado, c.fechaDeseada, c.fechaCreacion, c.fechaActualizacion, c.fechaCierre) " +
+            "FROM Cotizacion c WHERE (:estado IS NULL OR c.estado = :estado) ORDER BY c.id")
+    Stream<CotizacionResumen> exportarResumen(@Param("estado") String estado);
+    
+    // Cotizaciones cerradas con fecha de cierre (o de creación si no tiene) entre inicio y fin, más
+    // recientes primero, leídas por bloques del cursor. Debe consumirse dentro de una transacción
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.proyecto.dencanto.dto.CotizacionResumen(c.id, c.nombreCliente, c.email, " +
+            "c.telefono, c.total, c.estado, c.fechaDeseada, c.fechaCreacion, c.fechaActualizacion, c.fechaCierre) " +
+            "FROM Cotizacion c WHERE c.estado = 'Cerrada' " +
+            "AND COALESCE(c.fechaCierre, c.fechaCreacion) BETWEEN :inicio AND :fin " +
+            "ORDER BY COALESCE(c.fechaCierre, c.fechaCreacion) DESC, c.id DESC")
+    Stream<CotizacionResumen> exportarCerradas(@Param("inicio") LocalDateTime inicio,
+                                               @Param("fin") LocalDateTime fin);
+    
+    // Número de cotizaciones por estado (filas: [estado, Long])
+    @Query("SELECT c.estado, COUNT(c) FROM Cotizacion c GROUP BY c.estado")
+    List<Object[]> contarPorEstado();
+    
+    // JSON de productos de varias cotizaciones (filas: [id, productosJson])
+    @Query("SELECT c.id, c.productosJson FROM Cotizacion c WHERE c.id IN :ids")
+    List<Object[]> productosJsonDe(@Param("ids") Collection<Integer> ids);
 }
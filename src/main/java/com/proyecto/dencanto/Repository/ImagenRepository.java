@@ -0,0 +1,12 @@
+package com.proyecto.dencanto.Repository;
+
+import com.proyecto.dencanto.Modelo.Imagen;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio del almacén de imágenes (clave = hash SHA-256 del contenido)
+ */
+@Repository
+public interface ImagenRepository extends JpaRepository<Imagen, String> {
+}
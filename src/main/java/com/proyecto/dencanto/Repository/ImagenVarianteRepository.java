@@ -0,0 +1,17 @@
+package com.proyecto.dencanto.Repository;
+
+import com.proyecto.dencanto.Modelo.ImagenVariante;
+import com.proyecto.dencanto.Modelo.VarianteImagen;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ImagenVarianteRepository extends JpaRepository<ImagenVariante, Long> {
+
+    // Variante ya generada para una imagen original
+    Optional<ImagenVariante> findByHashOriginalAndVariante(String hashOriginal, VarianteImagen variante);
+
+    boolean existsByHashOriginalAndVariante(String hashOriginal, VarianteImagen variante);
+}
@@ -1,7 +1,10 @@
 package com.proyecto.dencanto.Repository;
 
 import com.proyecto.dencanto.Modelo.Producto;
+import com.proyecto.dencanto.dto.ProductoCatalogo;
+import com.proyecto.dencanto.dto.ProductoResumen;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import java.util.List;
@@ -9,48 +12,62 @@ import java.util.List;
 public interface ProductoRepository extends JpaRepository<Producto, Integer> {
 
     /**
-     * Buscar productos por nombre (case-insensitive)
+     * Proyecciones para listados: solo las columnas necesarias, sin entidades gestionadas
      */
-    List<Producto> findByNombreContainingIgnoreCase(String nombre);
+    String SELECT_RESUMEN = "SELECT new com.proyecto.dencanto.dto.ProductoResumen(" +
+            "p.id, p.codigo, p.nombre, p.categoria, p.precio, p.stock, p.estado, " +
+            "p.imagenPrincipalHash, p.imagenTecnica1Hash, p.imagenTecnica2Hash) FROM Producto p ";
+
+    String SELECT_CATALOGO = "SELECT new com.proyecto.dencanto.dto.ProductoCatalogo(" +
+            "p.id, p.codigo, p.nombre, p.categoria, p.precio, p.stock, p.estado, " +
+            "p.imagenPrincipalHash, p.imagenTecnica1Hash, p.imagenTecnica2Hash, " +
+            "p.descripcion, p.material, p.dimensiones, p.peso, p.firmeza, p.garantia, p.caracteristicas) FROM Producto p ";
 
     /**
-     * Buscar productos por categoría
+     * Listar todos los productos (resumen)
      */
-    List<Producto> findByCategoria(String categoria);
+    @Query(SELECT_RESUMEN + "ORDER BY p.id")
+    List<ProductoResumen> listarResumen();
 
     /**
-     * Buscar productos por estado
+     * Productos para la página pública de catálogo
      */
-    List<Producto> findByEstado(String estado);
+    @Query(SELECT_CATALOGO + "ORDER BY p.id")
+    List<ProductoCatalogo> listarCatalogo();
 
     /**
-     * Búsqueda avanzada: nombre O categoría (case-insensitive)
+     * Categorías distintas, ordenadas
      */
-    @Query("SELECT p FROM Producto p WHERE " +
-            "LOWER(p.nombre) LIKE LOWER(CONCAT('%', :termino, '%')) OR " +
-            "LOWER(p.categoria) LIKE LOWER(CONCAT('%', :termino, '%'))")
-    List<Producto> buscarPorTermino(@Param("termino") String termino);
+    @Query("SELECT DISTINCT p.categoria FROM Producto p WHERE p.categoria IS NOT NULL ORDER BY p.categoria")
+    List<String> listarCategorias();
 
     /**
-     * Filtrar por precio mínimo y máximo
+     * Productos con stock por debajo del límite
      */
-    @Query("SELECT p FROM Producto p WHERE p.precio BETWEEN :precioMin AND :precioMax")
-    List<Producto> filtrarPorPrecio(@Param("precioMin") Double precioMin, @Param("precioMax") Double precioMax);
+    @Query(SELECT_RESUMEN + "WHERE p.stock < :limite ORDER BY p.stock")
+    List<ProductoResumen> productosStockBajo(@Param("limite") Integer limite);
 
     /**
-     * Filtrar por stock disponible
+     * Descuenta stock solo si alcanza (una sola sentencia, sin leer antes).
+     * El estado se calcula con el stock anterior, por eso va antes que stock en el SET.
+     * Devuelve 0 si el stock no era suficiente
      */
-    @Query("SELECT p FROM Producto p WHERE p.stock > 0 ORDER BY p.stock DESC")
-    List<Producto> productosDisponibles();
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Producto p SET " +
+            "p.estado = CASE WHEN p.stock - :cantidad = 0 THEN 'Agotado' " +
+            "WHEN p.stock - :cantidad < 5 THEN 'Stock Bajo' ELSE p.estado END, " +
+            "p.stock = p.stock - :cantidad, p.version = p.version + 1, p.fechaActualizacion = CURRENT_TIMESTAMP " +
+            "WHERE p.id = :id AND p.stock >= :cantidad")
+    int descontarStock(@Param("id") Integer id, @Param("cantidad") int cantidad);
 
     /**
-     * Filtro completo: búsqueda + categoría + estado
+     * Devuelve stock (venta cancelada). Un producto Agotado o con Stock Bajo recupera su estado
      */
-    @Query("SELECT p FROM Producto p WHERE " +
-            "(LOWER(p.nombre) LIKE LOWER(CONCAT('%', :termino, '%')) OR :termino = '') AND " +
-            "(:categoria = '' OR p.categoria = :categoria) AND " +
-            "(:estado = '' OR p.estado = :estado)")
-    List<Producto> filtroCompleto(@Param("termino") String termino,
-            @Param("categoria") String categoria,
-            @Param("estado") String estado);
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Producto p SET " +
+            "p.estado = CASE WHEN p.estado IN ('Agotado', 'Stock Bajo') AND p.stock + :cantidad > 0 " +
+            "THEN (CASE WHEN p.stock + :cantidad >= 5 THEN 'Disponible' ELSE 'Stock Bajo' END) ELSE p.estado END, " +
+            "p.stock = p.stock + :cantidad, p.version = p.version + 1, p.fechaActualizacion = CURRENT_TIMESTAMP " +
+            "WHERE p.id = :id")
+    int reponerStock(@Param("id") Integer id, @Param("cantidad") int cantidad);
 }
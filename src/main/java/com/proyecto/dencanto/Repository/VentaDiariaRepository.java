@@ -0,0 +1,100 @@
+package com.proyecto.dencanto.Repository;
+
+import com.proyecto.dencanto.Modelo.EstadoVenta;
+import com.proyecto.dencanto.Modelo.VentaDiaria;
+import com.proyecto.dencanto.dto.VentaPeriodoTotal;
+import com.proyecto.dencanto.dto.VentaProductoTotal;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repositorio del resumen diario de ventas (tabla ventas_diarias)
+ */
+@Repository
+public interface VentaDiariaRepository extends JpaRepository<VentaDiaria, Long> {
+
+    /**
+     * Suma (o resta, con valores negativos) a la fila del día; la crea si no existe
+     */
+    @Modifying
+    @Query(value = "INSERT INTO ventas_diarias (fecha, producto_id, categoria, vendedor_id, estado, unidades, monto, pedidos) " +
+            "VALUES (:fecha, :productoId, :categoria, :vendedorId, :estado, :unidades, :monto, :pedidos) " +
+            "ON DUPLICATE KEY UPDATE unidades = unidades + VALUES(unidades), " +
+            "monto = monto + VALUES(monto), pedidos = pedidos + VALUES(pedidos)",
+            nativeQuery = true)
+    void acumular(@Param("fecha") LocalDate fecha,
+                  @Param("productoId") Integer productoId,
+                  @Param("categoria") String categoria,
+                  @Param("vendedorId") Integer vendedorId,
+                  @Param("estado") String estado,
+                  @Param("unidades") long unidades,
+                  @Param("monto") double monto,
+                  @Param("pedidos") long pedidos);
+
+    /**
+     * Monto y número de ventas por estado en el periodo.
+     * categoria = "*" para todas las ventas, o una categoría para las ventas que la incluyen
+     */
+    @Query("SELECT new com.proyecto.dencanto.dto.VentaPeriodoTotal(vd.estado, SUM(vd.monto), SUM(vd.pedidos)) " +
+            "FROM VentaDiaria vd WHERE vd.productoId = 0 AND vd.categoria = :categoria " +
+            "AND vd.fecha BETWEEN :inicio AND :fin GROUP BY vd.estado")
+    List<VentaPeriodoTotal> totalesPorEstado(@Param("inicio") LocalDate inicio,
+                                             @Param("fin") LocalDate fin,
+                                             @Param("categoria") String categoria);
+
+    /**
+     * Monto y número de ventas por mes (desde = primer día con ventas del mes).
+     * vendedorId y estado son opcionales: null = todos
+     */
+    @Query("SELECT new com.proyecto.dencanto.dto.VentaPeriodoTotal(MIN(vd.fecha), SUM(vd.monto), SUM(vd.pedidos)) " +
+            "FROM VentaDiaria vd WHERE vd.productoId = 0 AND vd.categoria = '*' " +
+            "AND vd.fecha BETWEEN :inicio AND :fin " +
+            "AND (:vendedorId IS NULL OR vd.vendedorId = :vendedorId) " +
+            "AND (:estado IS NULL OR vd.estado = :estado) " +
+            "GROUP BY YEAR(vd.fecha), MONTH(vd.fecha)")
+    List<VentaPeriodoTotal> totalesPorMes(@Param("inicio") LocalDate inicio,
+                                          @Param("fin") LocalDate fin,
+                                          @Param("vendedorId") Integer vendedorId,
+                                          @Param("estado") EstadoVenta estado);
+
+    /**
+     * Monto y número de ventas por semana ISO (lunes a domingo). Se agrupa por número de semana,
+     * así que el rango no debe superar un año. vendedorId y estado son opcionales: null = todos
+     */
+    @Query("SELECT new com.proyecto.dencanto.dto.VentaPeriodoTotal(MIN(vd.fecha), SUM(vd.monto), SUM(vd.pedidos)) " +
+            "FROM VentaDiaria vd WHERE vd.productoId = 0 AND vd.categoria = '*' " +
+            "AND vd.fecha BETWEEN :inicio AND :fin " +
+            "AND (:vendedorId IS NULL OR vd.vendedorId = :vendedorId) " +
+            "AND (:estado IS NULL OR vd.estado = :estado) " +
+            "GROUP BY EXTRACT(WEEK FROM vd.fecha)")
+    List<VentaPeriodoTotal> totalesPorSemana(@Param("inicio") LocalDate inicio,
+                                             @Param("fin") LocalDate fin,
+                                             @Param("vendedorId") Integer vendedorId,
+                                             @Param("estado") EstadoVenta estado);
+
+    /**
+     * Unidades y monto por producto en el periodo, excluyendo un estado (normalmente CANCELADA).
+     * categoria vacía = todas. Ordenado por unidades vendidas
+     */
+    @Query("SELECT new com.proyecto.dencanto.dto.VentaProductoTotal(p.id, p.nombre, p.categoria, p.precio, p.stock, " +
+            "SUM(vd.unidades), SUM(vd.monto)) " +
+            "FROM VentaDiaria vd JOIN Producto p ON p.id = vd.productoId " +
+            "WHERE vd.productoId > 0 AND vd.estado <> :excluido " +
+            "AND vd.fecha BETWEEN :inicio AND :fin " +
+            "AND (:categoria = '' OR vd.categoria = :categoria) " +
+            "GROUP BY p.id, p.nombre, p.categoria, p.precio, p.stock " +
+            "HAVING SUM(vd.unidades) > 0 " +
+            "ORDER BY SUM(vd.unidades) DESC")
+    List<VentaProductoTotal> totalesPorProducto(@Param("inicio") LocalDate inicio,
+                                                @Param("fin") LocalDate fin,
+                                                @Param("categoria") String categoria,
+                                                @Param("excluido") EstadoVenta excluido,
+                                                Pageable pagina);
+}
@@ -2,20 +2,38 @@ package com.proyecto.dencanto.Repository;
 
 import com.proyecto.dencanto.Modelo.Venta;
 import com.proyecto.dencanto.Modelo.EstadoVenta;
+import com.proyecto.dencanto.Modelo.MetodoPago;
 import com.proyecto.dencanto.Modelo.Usuario;
+import com.proyecto.dencanto.dto.VentaLineaHistorial;
+import com.proyecto.dencanto.dto.VentaPeriodoTotal;
+import com.proyecto.dencanto.dto.VentaVendedorTotal;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para acceso a datos de Venta
  */
 @Repository
 public interface VentaRepository extends JpaRepository<Venta, Long> {
+
+    /** Filtros opcionales del listado de ventas (null = sin filtro) */
+    String FILTROS_LISTADO = "(:estado IS NULL OR v.estado = :estado) " +
+           "AND (:metodoPago IS NULL OR v.metodoPago = :metodoPago) " +
+           "AND (:vendedorId IS NULL OR v.vendedor.id = :vendedorId) " +
+           "AND (:desde IS NULL OR v.fechaCreacion >= :desde) " +
+           "AND (:hasta IS NULL OR v.fechaCreacion < :hasta) ";
     
     /**
      * Obtiene todas las ventas de un vendedor
@@ -54,6 +72,136 @@ public interface VentaRepository extends JpaRepository<Venta, Long> {
     @Query("SELECT COALESCE(SUM(v.total), 0) FROM Venta v WHERE v.estado = 'COMPLETADA'")
     Double sumIngresosCompletadas();
     
+    /**
+     * Monto y número de ventas por estado en un rango de fechas
+     */
+    @Query("SELECT new com.proyecto.dencanto.dto.VentaPeriodoTotal(v.estado, SUM(v.total), COUNT(v)) " +
+           "FROM Venta v WHERE v.fechaCreacion BETWEEN :fechaInicio AND :fechaFin GROUP BY v.estado")
+    List<VentaPeriodoTotal> totalesPorEstado(
+        @Param("fechaInicio") LocalDateTime fechaInicio,
+        @Param("fechaFin") LocalDateTime fechaFin
+    );
+
+    /**
+     * Monto y número de ventas por estado de un vendedor en un rango de fechas
+     */
+    @Query("SELECT new com.proyecto.dencanto.dto.VentaPeriodoTotal(v.estado, SUM(v.total), COUNT(v)) " +
+           "FROM Venta v WHERE v.vendedor = :vendedor AND v.fechaCreacion BETWEEN :fechaInicio AND :fechaFin " +
+           "GROUP BY v.estado")
+    List<VentaPeriodoTotal> totalesPorEstadoDeVendedor(
+        @Param("vendedor") Usuario vendedor,
+        @Param("fechaInicio") LocalDateTime fechaInicio,
+        @Param("fechaFin") LocalDateTime fechaFin
+    );
+
+    /**
+     * Número de ventas por método de pago en un rango de fechas (filas: [MetodoPago, Long])
+     */
+    @Query("SELECT v.metodoPago, COUNT(v) FROM Venta v " +
+           "WHERE v.metodoPago IS NOT NULL AND v.fechaCreacion BETWEEN :fechaInicio AND :fechaFin " +
+           "GROUP BY v.metodoPago")
+    List<Object[]> contarPorMetodoPago(
+        @Param("fechaInicio") LocalDateTime fechaInicio,
+        @Param("fechaFin") LocalDateTime fechaFin
+    );
+
+    /**
+     * Vendedores ordenados por monto vendido en un estado y rango de fechas
+     */
+    @Query("SELECT new com.proyecto.dencanto.dto.VentaVendedorTotal(u.id, u.nombreCompleto, u.nombreUsuario, SUM(v.total), COUNT(v)) " +
+           "FROM Venta v JOIN v.vendedor u " +
+           "WHERE v.estado = :estado AND v.fechaCreacion BETWEEN :fechaInicio AND :fechaFin " +
+           "GROUP BY u.id, u.nombreCompleto, u.nombreUsuario ORDER BY SUM(v.total) DESC")
+    List<VentaVendedorTotal> rankingVendedores(
+        @Param("estado") EstadoVenta estado,
+        @Param("fechaInicio") LocalDateTime fechaInicio,
+        @Param("fechaFin") LocalDateTime fechaFin,
+        Pageable pagina
+    );
+
+    /**
+     * Todos los usuarios con rol VENDEDOR con el monto y número de sus ventas en los estados dados
+     * (los que no tienen ventas aparecen con 0)
+     */
+    @Query("SELECT new com.proyecto.dencanto.dto.VentaVendedorTotal(u.id, u.nombreCompleto, u.nombreUsuario, SUM(v.total), COUNT(v)) " +
+           "FROM Usuario u JOIN u.rol r LEFT JOIN Venta v ON v.vendedor = u AND v.estado IN :estados " +
+           "WHERE UPPER(r.nombre) = 'VENDEDOR' " +
+           "GROUP BY u.id, u.nombreCompleto, u.nombreUsuario")
+    List<VentaVendedorTotal> totalesPorVendedor(@Param("estados") Collection<EstadoVenta> estados);
+
+    /**
+     * Ids del listado, más recientes primero, después del cursor (fecha, id) si se indica
+     */
+    @Query("SELECT v.id FROM Venta v WHERE " + FILTROS_LISTADO +
+           "AND (:cursorFecha IS NULL OR v.fechaCreacion < :cursorFecha " +
+           "OR (v.fechaCreacion = :cursorFecha AND v.id < :cursorId)) " +
+           "ORDER BY v.fechaCreacion DESC, v.id DESC")
+    List<Long> idsListadoRecientes(
+        @Param("estado") EstadoVenta estado,
+        @Param("metodoPago") MetodoPago metodoPago,
+        @Param("vendedorId") Integer vendedorId,
+        @Param("desde") LocalDateTime desde,
+        @Param("hasta") LocalDateTime hasta,
+        @Param("cursorFecha") LocalDateTime cursorFecha,
+        @Param("cursorId") Long cursorId,
+        Pageable pagina
+    );
+
+    /**
+     * Ids del listado, más antiguas primero, después del cursor (fecha, id) si se indica
+     */
+    @Query("SELECT v.id FROM Venta v WHERE " + FILTROS_LISTADO +
+           "AND (:cursorFecha IS NULL OR v.fechaCreacion > :cursorFecha " +
+           "OR (v.fechaCreacion = :cursorFecha AND v.id > :cursorId)) " +
+           "ORDER BY v.fechaCreacion ASC, v.id ASC")
+    List<Long> idsListadoAntiguas(
+        @Param("estado") EstadoVenta estado,
+        @Param("metodoPago") MetodoPago metodoPago,
+        @Param("vendedorId") Integer vendedorId,
+        @Param("desde") LocalDateTime desde,
+        @Param("hasta") LocalDateTime hasta,
+        @Param("cursorFecha") LocalDateTime cursorFecha,
+        @Param("cursorId") Long cursorId,
+        Pageable pagina
+    );
+
+    /**
+     * Ventas con vendedor, detalles y productos cargados en una sola consulta (sin orden)
+     */
+    @EntityGraph(attributePaths = {"vendedor", "detalles", "detalles.producto"})
+    @Query("SELECT DISTINCT v FROM Venta v WHERE v.id IN :ids")
+    List<Venta> conDetalles(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Monto y número de ventas por estado con los filtros del listado
+     */
+    @Query("SELECT new com.proyecto.dencanto.dto.VentaPeriodoTotal(v.estado, SUM(v.total), COUNT(v)) " +
+           "FROM Venta v WHERE " + FILTROS_LISTADO + "GROUP BY v.estado")
+    List<VentaPeriodoTotal> totalesListado(
+        @Param("estado") EstadoVenta estado,
+        @Param("metodoPago") MetodoPago metodoPago,
+        @Param("vendedorId") Integer vendedorId,
+        @Param("desde") LocalDateTime desde,
+        @Param("hasta") LocalDateTime hasta
+    );
+
+    /**
+     * Líneas del historial (una por detalle), más recientes primero, leídas por bloques del
+     * cursor de la BD. Debe consumirse dentro de una transacción y cerrarse al terminar
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.proyecto.dencanto.dto.VentaLineaHistorial(v.id, v.clienteNombre, v.total, " +
+           "v.metodoPago, v.estado, v.fechaCreacion, p.nombre, d.cantidad) " +
+           "FROM Venta v LEFT JOIN v.detalles d LEFT JOIN d.producto p WHERE " + FILTROS_LISTADO +
+           "ORDER BY v.fechaCreacion DESC, v.id DESC, d.id")
+    Stream<VentaLineaHistorial> lineasHistorial(
+        @Param("estado") EstadoVenta estado,
+        @Param("metodoPago") MetodoPago metodoPago,
+        @Param("vendedorId") Integer vendedorId,
+        @Param("desde") LocalDateTime desde,
+        @Param("hasta") LocalDateTime hasta
+    );
+
     /**
      * Obtiene ventas por nombre de cliente
      */
@@ -0,0 +1,150 @@
+package com.proyecto.dencanto.Service;
+
+import com.proyecto.dencanto.Modelo.Producto;
+import com.proyecto.dencanto.Repository.ProductoRepository;
+import com.proyecto.dencanto.dto.ProductoCatalogo;
+import com.proyecto.dencanto.dto.ProductoResumen;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Catálogo de productos en memoria: una instantánea inmutable que leen la página pública
+ * /productos y las APIs de productos sin consultar la BD. Cuando cambia un producto (o una
+ * venta mueve su stock) se arma una instantánea nueva en segundo plano y se reemplaza de una
+ * sola vez; mientras tanto se sigue sirviendo la anterior completa.
+ */
+@Component
+public class CatalogoProductos {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogoProductos.class);
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    @Qualifier("catalogoExecutor")
+    private Executor catalogoExecutor;
+
+    /**
+     * Productos ordenados por id: con ficha técnica (catálogo público) y en resumen (APIs)
+     */
+    public record Instantanea(List<ProductoCatalogo> productos, List<ProductoResumen> resumen,
+                              Map<Integer, ProductoResumen> resumenPorId, List<String> categorias,
+                              LocalDateTime generadaEn) {}
+
+    private final AtomicReference<Instantanea> actual = new AtomicReference<>();
+
+    // Evita encolar varias reconstrucciones seguidas por una ráfaga de cambios
+    private final AtomicBoolean reconstruccionPendiente = new AtomicBoolean(false);
+
+    /**
+     * Instantánea vigente. Solo la primera llamada (si aún no se construyó) consulta la BD
+     */
+    public Instantanea obtener() {
+        Instantanea instantanea = actual.get();
+        if (instantanea != null) {
+            return instantanea;
+        }
+        synchronized (this) {
+            instantanea = actual.get();
+            return instantanea != null ? instantanea : reconstruir();
+        }
+    }
+
+    /**
+     * Arma el catálogo al arrancar, para que la primera visita tampoco espere a la BD
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        programarReconstruccion();
+    }
+
+    /**
+     * Tras confirmar un cambio de productos o de ventas (stock y estado), reconstruye en segundo plano
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarDatos(DatosNegocioCambiadosEvent evento) {
+        if ("producto".equals(evento.origen()) || "venta".equals(evento.origen())) {
+            programarReconstruccion();
+        }
+    }
+
+    /**
+     * Reemplaza al instante un producto recién guardado, sin esperar la reconstrucción completa,
+     * para que quien lo editó lo vea en el siguiente listado
+     */
+    public void actualizar(Producto producto) {
+        ProductoCatalogo nuevo = new ProductoCatalogo(producto.getId(), producto.getCodigo(),
+            producto.getNombre(), producto.getCategoria(), producto.getPrecio(), producto.getStock(),
+            producto.getEstado(), producto.getImagenPrincipalHash(), producto.getImagenTecnica1Hash(),
+            producto.getImagenTecnica2Hash(), producto.getDescripcion(), producto.getMaterial(),
+            producto.getDimensiones(), producto.getPeso(), producto.getFirmeza(), producto.getGarantia(),
+            producto.getCaracteristicas());
+        actual.updateAndGet(instantanea -> {
+            if (instantanea == null) {
+                return null;
+            }
+            List<ProductoCatalogo> productos = new ArrayList<>(instantanea.productos());
+            productos.removeIf(p -> p.getId().equals(nuevo.getId()));
+            productos.add(nuevo);
+            productos.sort(Comparator.comparing(ProductoCatalogo::getId));
+            return armar(productos);
+        });
+    }
+
+    private void programarReconstruccion() {
+        if (!reconstruccionPendiente.compareAndSet(false, true)) {
+            return;
+        }
+        catalogoExecutor.execute(() -> {
+            reconstruccionPendiente.set(false);
+            try {
+                reconstruir();
+            } catch (Exception e) {
+                log.warn("No se pudo reconstruir el catálogo: {}", e.getMessage());
+            }
+        });
+    }
+
+    private Instantanea reconstruir() {
+        Instantanea nueva = armar(productoRepository.listarCatalogo());
+        actual.set(nueva);
+        return nueva;
+    }
+
+    private static Instantanea armar(List<ProductoCatalogo> productos) {
+        List<ProductoResumen> resumen = new ArrayList<>(productos.size());
+        Map<Integer, ProductoResumen> resumenPorId = new HashMap<>();
+        TreeSet<String> categorias = new TreeSet<>();
+        for (ProductoCatalogo p : productos) {
+            // Copia sin ficha técnica, para que las APIs devuelvan el mismo JSON que antes
+            ProductoResumen r = new ProductoResumen(p.getId(), p.getCodigo(), p.getNombre(),
+                p.getCategoria(), p.getPrecio(), p.getStock(), p.getEstado(), p.getImagenPrincipalHash(),
+                p.getImagenTecnica1Hash(), p.getImagenTecnica2Hash());
+            resumen.add(r);
+            resumenPorId.put(r.getId(), r);
+            if (p.getCategoria() != null) {
+                categorias.add(p.getCategoria());
+            }
+        }
+        return new Instantanea(List.copyOf(productos), List.copyOf(resumen), Map.copyOf(resumenPorId),
+            List.copyOf(categorias), LocalDateTime.now());
+    }
+}
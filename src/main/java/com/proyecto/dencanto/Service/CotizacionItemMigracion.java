@@ -0,0 +1,64 @@
+package com.proyecto.dencanto.Service;
+
+import com.proyecto.dencanto.Repository.CotizacionItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Al arrancar, genera las líneas (cotizacion_items) de las cotizaciones antiguas que solo
+ * tienen el JSON de productos. Avanza por id en lotes, así que las cotizaciones con JSON
+ * inválido se saltan en lugar de reintentarse en bucle. Corre en su propio hilo
+ * (migracionesExecutor), sin competir con el redimensionado de imágenes.
+ */
+@Component
+public class CotizacionItemMigracion {
+
+    private static final Logger log = LoggerFactory.getLogger(CotizacionItemMigracion.class);
+
+    @Autowired
+    private CotizacionItemRepository cotizacionItemRepository;
+
+    @Autowired
+    private CotizacionService cotizacionService;
+
+    @Value("${cotizaciones.items.migrar-al-iniciar:true}")
+    private boolean habilitada;
+
+    @Value("${cotizaciones.items.tamano-lote:200}")
+    private int tamanoLote;
+
+    @Async("migracionesExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrar() {
+        if (!habilitada) return;
+
+        int ultimoId = 0;
+        int migradas = 0;
+        List<Integer> lote;
+        do {
+            lote = cotizacionItemRepository.idsPendientesDeMigrar(ultimoId, PageRequest.of(0, tamanoLote));
+            for (Integer id : lote) {
+                try {
+                    cotizacionService.generarItems(id);
+                    migradas++;
+                } catch (Exception e) {
+                    log.warn("No se pudieron generar las líneas de la cotización #{}: {}", id, e.getMessage());
+                }
+                ultimoId = id;
+            }
+        } while (lote.size() == tamanoLote);
+
+        if (migradas > 0) {
+            log.info("Líneas generadas para {} cotizaciones antiguas", migradas);
+        }
+    }
+}
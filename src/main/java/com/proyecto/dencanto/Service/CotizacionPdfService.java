@@ -3,25 +3,39 @@ package com.proyecto.dencanto.Service;
 import com.lowagie.text.*;
 import com.lowagie.text.pdf.*;
 import com.proyecto.dencanto.Modelo.Cotizacion;
+import com.proyecto.dencanto.dto.CotizacionResumen;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.awt.Color;
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 @Service
 public class CotizacionPdfService {
-    private static final Color COLOR_PRIMARIO = new Color(212, 165, 40);    // Dorado principal #D4A528
-    private static final Color COLOR_DORADO_OSCURO = new Color(184, 148, 31); // Dorado hover #B8941F
-    private static final Color COLOR_NEGRO = new Color(26, 26, 26);         // Negro principal #1a1a1a
-    private static final Color COLOR_NEGRO_SECUNDARIO = new Color(45, 45, 45); // Negro secundario #2d2d2d
-    private static final Color COLOR_HEADER = new Color(245, 245, 245);     // Gris muy claro para filas
-    private static final Color COLOR_EXITO = new Color(40, 167, 69);        // Verde (para estados)
-    private static final Color COLOR_ADVERTENCIA = new Color(255, 193, 7);  // Amarillo (para estados)
-    private static final Color COLOR_INFO = new Color(23, 162, 184);        // Cyan (para estados)
+
+    // Filas que se acumulan antes de pasar la tabla al documento y liberarlas
+    private static final int FILAS_POR_BLOQUE = 100;
+
+    private static final DateTimeFormatter FORMATO_FECHA_HORA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter FORMATO_FECHA_CORTA = DateTimeFormatter.ofPattern("dd/MM/yy HH:mm");
+
+    private static final List<String> CONDICIONES = List.of(
+        "• Esta cotización tiene una validez de 15 días a partir de la fecha de emisión.",
+        "• Los precios incluyen IGV.",
+        "• El tiempo de entrega se coordinará después de confirmar el pedido.",
+        "• Para confirmar su pedido, comuníquese con nosotros por los canales indicados.",
+        "• Garantía de fábrica de 2 años en todos nuestros productos."
+    );
+
+    @Autowired
+    private PdfTema tema;
 
     
     public byte[] generarPdfCotizacion(Cotizacion cotizacion, List<Map<String, Object>> productos) throws Exception {
@@ -43,10 +57,15 @@ public class CotizacionPdfService {
     }
 
     
-    public byte[] generarPdfListadoCotizaciones(List<Cotizacion> cotizaciones, Map<String, Object> estadisticas) throws Exception {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    /**
+     * Escribe el listado directamente en la salida (la respuesta HTTP) a medida que llegan las
+     * cotizaciones: ni el listado ni el PDF completo se guardan en memoria
+     */
+    public void escribirPdfListadoCotizaciones(Iterator<CotizacionResumen> cotizaciones, Map<String, Object> estadisticas,
+                                               OutputStream salida) throws Exception {
         Document document = new Document(PageSize.A4.rotate(), 40, 40, 50, 50);
-        PdfWriter writer = PdfWriter.getInstance(document, baos);
+        PdfWriter writer = PdfWriter.getInstance(document, salida);
+        writer.setCloseStream(false);
         
         document.open();
         agregarEncabezadoListado(document);
@@ -55,66 +74,42 @@ public class CotizacionPdfService {
         agregarPiePagina(document);
         
         document.close();
-        
-        return baos.toByteArray();
     }
 
     
     private void agregarEncabezado(Document document, Cotizacion cotizacion) throws DocumentException {
-        Font fontEmpresa = new Font(Font.HELVETICA, 24, Font.BOLD, COLOR_NEGRO);
-        Paragraph empresa = new Paragraph("COLCHONES D'ENCANTO", fontEmpresa);
-        empresa.setAlignment(Element.ALIGN_CENTER);
-        document.add(empresa);
-        Font fontSub = new Font(Font.HELVETICA, 10, Font.ITALIC, COLOR_PRIMARIO);
-        Paragraph subtitulo = new Paragraph("Tu descanso, nuestro compromiso", fontSub);
-        subtitulo.setAlignment(Element.ALIGN_CENTER);
-        document.add(subtitulo);
+        document.add(tema.parrafo("COLCHONES D'ENCANTO", tema.fuente(24, Font.BOLD, PdfTema.NEGRO), Element.ALIGN_CENTER));
+        document.add(tema.parrafo("Tu descanso, nuestro compromiso", tema.fuente(10, Font.ITALIC, PdfTema.PRIMARIO),
+            Element.ALIGN_CENTER));
         
         document.add(new Paragraph(" "));
-        PdfPTable lineaTop = new PdfPTable(1);
-        lineaTop.setWidthPercentage(100);
-        PdfPCell celdaLinea = new PdfPCell();
-        celdaLinea.setBorderWidth(0);
-        celdaLinea.setBorderWidthBottom(2);
-        celdaLinea.setBorderColorBottom(COLOR_PRIMARIO); // Línea dorada
-        celdaLinea.setFixedHeight(5);
-        lineaTop.addCell(celdaLinea);
-        document.add(lineaTop);
+        document.add(tema.lineaDecorativa(Rectangle.BOTTOM, 2)); // Línea dorada
         
         document.add(new Paragraph(" "));
-        Font fontTitulo = new Font(Font.HELVETICA, 18, Font.BOLD, COLOR_PRIMARIO);
-        Paragraph titulo = new Paragraph("COTIZACIÓN #" + cotizacion.getId(), fontTitulo);
-        titulo.setAlignment(Element.ALIGN_CENTER);
-        document.add(titulo);
-        Font fontFecha = new Font(Font.HELVETICA, 10, Font.NORMAL, Color.GRAY);
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+        document.add(tema.parrafo("COTIZACIÓN #" + cotizacion.getId(), tema.fuente(18, Font.BOLD, PdfTema.PRIMARIO),
+            Element.ALIGN_CENTER));
         String fechaEmision = cotizacion.getFechaCreacion() != null 
-            ? cotizacion.getFechaCreacion().format(formatter) 
-            : LocalDateTime.now().format(formatter);
-        Paragraph fecha = new Paragraph("Fecha de emisión: " + fechaEmision, fontFecha);
-        fecha.setAlignment(Element.ALIGN_CENTER);
-        document.add(fecha);
+            ? cotizacion.getFechaCreacion().format(FORMATO_FECHA_HORA) 
+            : LocalDateTime.now().format(FORMATO_FECHA_HORA);
+        document.add(tema.parrafo("Fecha de emisión: " + fechaEmision, tema.fuente(10, Font.NORMAL, Color.GRAY),
+            Element.ALIGN_CENTER));
         
         document.add(new Paragraph(" "));
     }
 
     
     private void agregarInfoCliente(Document document, Cotizacion cotizacion) throws DocumentException {
-        Font fontSeccion = new Font(Font.HELVETICA, 12, Font.BOLD, COLOR_NEGRO);
-        Font fontLabel = new Font(Font.HELVETICA, 10, Font.BOLD, COLOR_PRIMARIO);
-        Font fontValor = new Font(Font.HELVETICA, 10, Font.NORMAL, Color.BLACK);
-        
-        Paragraph tituloCliente = new Paragraph("DATOS DEL CLIENTE", fontSeccion);
+        Paragraph tituloCliente = new Paragraph("DATOS DEL CLIENTE", tema.fuente(12, Font.BOLD, PdfTema.NEGRO));
         document.add(tituloCliente);
         
         document.add(new Paragraph(" "));
         PdfPTable tablaCliente = new PdfPTable(2);
         tablaCliente.setWidthPercentage(100);
         tablaCliente.setWidths(new float[]{1, 1});
-        agregarCampoInfo(tablaCliente, "Nombre:", cotizacion.getNombreCliente(), fontLabel, fontValor);
-        agregarCampoInfo(tablaCliente, "Email:", cotizacion.getEmail(), fontLabel, fontValor);
-        agregarCampoInfo(tablaCliente, "Teléfono:", cotizacion.getTelefono(), fontLabel, fontValor);
-        agregarCampoInfo(tablaCliente, "Dirección:", cotizacion.getDireccion(), fontLabel, fontValor);
+        agregarCampoInfo(tablaCliente, "Nombre:", cotizacion.getNombreCliente());
+        agregarCampoInfo(tablaCliente, "Email:", cotizacion.getEmail());
+        agregarCampoInfo(tablaCliente, "Teléfono:", cotizacion.getTelefono());
+        agregarCampoInfo(tablaCliente, "Dirección:", cotizacion.getDireccion());
         
         document.add(tablaCliente);
         document.add(new Paragraph(" "));
@@ -122,11 +117,7 @@ public class CotizacionPdfService {
 
     
     private void agregarInfoCotizacion(Document document, Cotizacion cotizacion) throws DocumentException {
-        Font fontSeccion = new Font(Font.HELVETICA, 12, Font.BOLD, COLOR_NEGRO);
-        Font fontLabel = new Font(Font.HELVETICA, 10, Font.BOLD, COLOR_PRIMARIO);
-        Font fontValor = new Font(Font.HELVETICA, 10, Font.NORMAL, Color.BLACK);
-        
-        Paragraph tituloCot = new Paragraph("INFORMACIÓN DE LA COTIZACIÓN", fontSeccion);
+        Paragraph tituloCot = new Paragraph("INFORMACIÓN DE LA COTIZACIÓN", tema.fuente(12, Font.BOLD, PdfTema.NEGRO));
         document.add(tituloCot);
         
         document.add(new Paragraph(" "));
@@ -135,11 +126,11 @@ public class CotizacionPdfService {
         tablaCot.setWidthPercentage(100);
         tablaCot.setWidths(new float[]{1, 1});
         String estado = cotizacion.getEstado() != null ? cotizacion.getEstado() : "Pendiente";
-        agregarCampoInfo(tablaCot, "Estado:", estado, fontLabel, fontValor);
+        agregarCampoInfo(tablaCot, "Estado:", estado);
         String fechaDeseada = cotizacion.getFechaDeseada() != null 
-            ? cotizacion.getFechaDeseada().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")) 
+            ? cotizacion.getFechaDeseada().format(FORMATO_FECHA) 
             : "Por definir";
-        agregarCampoInfo(tablaCot, "Fecha deseada:", fechaDeseada, fontLabel, fontValor);
+        agregarCampoInfo(tablaCot, "Fecha deseada:", fechaDeseada);
         
         document.add(tablaCot);
         document.add(new Paragraph(" "));
@@ -147,12 +138,10 @@ public class CotizacionPdfService {
 
     
     private void agregarTablaProductos(Document document, List<Map<String, Object>> productos, Double total) throws DocumentException {
-        Font fontSeccion = new Font(Font.HELVETICA, 12, Font.BOLD, COLOR_NEGRO);
-        Font fontHeader = new Font(Font.HELVETICA, 10, Font.BOLD, Color.WHITE);
-        Font fontCelda = new Font(Font.HELVETICA, 10, Font.NORMAL, Color.BLACK);
-        Font fontTotal = new Font(Font.HELVETICA, 12, Font.BOLD, COLOR_PRIMARIO); // Total en dorado
+        Font fontCelda = tema.fuente(10, Font.NORMAL, Color.BLACK);
+        Font fontTotal = tema.fuente(12, Font.BOLD, PdfTema.PRIMARIO); // Total en dorado
         
-        Paragraph tituloProductos = new Paragraph("PRODUCTOS COTIZADOS", fontSeccion);
+        Paragraph tituloProductos = new Paragraph("PRODUCTOS COTIZADOS", tema.fuente(12, Font.BOLD, PdfTema.NEGRO));
         document.add(tituloProductos);
         
         document.add(new Paragraph(" "));
@@ -161,12 +150,7 @@ public class CotizacionPdfService {
         tabla.setWidths(new float[]{0.5f, 2.5f, 1f, 1f, 1f});
         String[] headers = {"#", "Producto", "Cantidad", "P. Unitario", "Subtotal"};
         for (String header : headers) {
-            PdfPCell cell = new PdfPCell(new Phrase(header, fontHeader));
-            cell.setBackgroundColor(COLOR_NEGRO); // Header negro
-            cell.setHorizontalAlignment(Element.ALIGN_CENTER);
-            cell.setVerticalAlignment(Element.ALIGN_MIDDLE);
-            cell.setPadding(8);
-            tabla.addCell(cell);
+            tabla.addCell(tema.celdaEncabezado(header, 10, 8));
         }
         int numero = 1;
         double totalCalculado = 0.0;
@@ -178,37 +162,15 @@ public class CotizacionPdfService {
                 double precio = producto.get("precio") != null ? ((Number) producto.get("precio")).doubleValue() : 0.0;
                 double subtotal = precio * cantidad;
                 totalCalculado += subtotal;
-                PdfPCell cellNum = new PdfPCell(new Phrase(String.valueOf(numero++), fontCelda));
-                cellNum.setHorizontalAlignment(Element.ALIGN_CENTER);
-                cellNum.setPadding(6);
-                cellNum.setBackgroundColor(numero % 2 == 0 ? COLOR_HEADER : Color.WHITE);
-                tabla.addCell(cellNum);
-                PdfPCell cellNombre = new PdfPCell(new Phrase(nombre, fontCelda));
-                cellNombre.setPadding(6);
-                cellNombre.setBackgroundColor(numero % 2 == 0 ? COLOR_HEADER : Color.WHITE);
-                tabla.addCell(cellNombre);
-                PdfPCell cellCant = new PdfPCell(new Phrase(String.valueOf(cantidad), fontCelda));
-                cellCant.setHorizontalAlignment(Element.ALIGN_CENTER);
-                cellCant.setPadding(6);
-                cellCant.setBackgroundColor(numero % 2 == 0 ? COLOR_HEADER : Color.WHITE);
-                tabla.addCell(cellCant);
-                PdfPCell cellPrecio = new PdfPCell(new Phrase(String.format("S/ %.2f", precio), fontCelda));
-                cellPrecio.setHorizontalAlignment(Element.ALIGN_RIGHT);
-                cellPrecio.setPadding(6);
-                cellPrecio.setBackgroundColor(numero % 2 == 0 ? COLOR_HEADER : Color.WHITE);
-                tabla.addCell(cellPrecio);
-                PdfPCell cellSubtotal = new PdfPCell(new Phrase(String.format("S/ %.2f", subtotal), fontCelda));
-                cellSubtotal.setHorizontalAlignment(Element.ALIGN_RIGHT);
-                cellSubtotal.setPadding(6);
-                cellSubtotal.setBackgroundColor(numero % 2 == 0 ? COLOR_HEADER : Color.WHITE);
-                tabla.addCell(cellSubtotal);
+                Color bgColor = (numero + 1) % 2 == 0 ? PdfTema.FONDO : Color.WHITE;
+                agregarCeldaProducto(tabla, String.valueOf(numero++), fontCelda, bgColor, Element.ALIGN_CENTER);
+                agregarCeldaProducto(tabla, nombre, fontCelda, bgColor, Element.ALIGN_LEFT);
+                agregarCeldaProducto(tabla, String.valueOf(cantidad), fontCelda, bgColor, Element.ALIGN_CENTER);
+                agregarCeldaProducto(tabla, String.format("S/ %.2f", precio), fontCelda, bgColor, Element.ALIGN_RIGHT);
+                agregarCeldaProducto(tabla, String.format("S/ %.2f", subtotal), fontCelda, bgColor, Element.ALIGN_RIGHT);
             }
         } else {
-            PdfPCell cellVacio = new PdfPCell(new Phrase("No hay productos en esta cotización", fontCelda));
-            cellVacio.setColspan(5);
-            cellVacio.setHorizontalAlignment(Element.ALIGN_CENTER);
-            cellVacio.setPadding(15);
-            tabla.addCell(cellVacio);
+            tabla.addCell(tema.celdaVacia("No hay productos en esta cotización", fontCelda, 5, 15));
         }
         
         document.add(tabla);
@@ -219,18 +181,14 @@ public class CotizacionPdfService {
         tablaTotal.setHorizontalAlignment(Element.ALIGN_RIGHT);
         tablaTotal.setWidths(new float[]{1, 1});
         
-        PdfPCell cellLabelTotal = new PdfPCell(new Phrase("TOTAL:", fontTotal));
-        cellLabelTotal.setHorizontalAlignment(Element.ALIGN_RIGHT);
+        PdfPCell cellLabelTotal = tema.celdaCampo("TOTAL:", fontTotal, Element.ALIGN_RIGHT);
         cellLabelTotal.setPadding(10);
-        cellLabelTotal.setBorderWidth(0);
-        cellLabelTotal.setBackgroundColor(COLOR_HEADER);
+        cellLabelTotal.setBackgroundColor(PdfTema.FONDO);
         tablaTotal.addCell(cellLabelTotal);
         
-        PdfPCell cellValorTotal = new PdfPCell(new Phrase(String.format("S/ %.2f", totalFinal), fontTotal));
-        cellValorTotal.setHorizontalAlignment(Element.ALIGN_RIGHT);
+        PdfPCell cellValorTotal = tema.celdaCampo(String.format("S/ %.2f", totalFinal), fontTotal, Element.ALIGN_RIGHT);
         cellValorTotal.setPadding(10);
-        cellValorTotal.setBorderWidth(0);
-        cellValorTotal.setBackgroundColor(COLOR_HEADER);
+        cellValorTotal.setBackgroundColor(PdfTema.FONDO);
         tablaTotal.addCell(cellValorTotal);
         
         document.add(new Paragraph(" "));
@@ -240,23 +198,14 @@ public class CotizacionPdfService {
 
     
     private void agregarNotasCondiciones(Document document) throws DocumentException {
-        Font fontSeccion = new Font(Font.HELVETICA, 11, Font.BOLD, COLOR_NEGRO);
-        Font fontNota = new Font(Font.HELVETICA, 9, Font.NORMAL, Color.DARK_GRAY);
+        Font fontNota = tema.fuente(9, Font.NORMAL, Color.DARK_GRAY);
         
-        Paragraph tituloNotas = new Paragraph("TÉRMINOS Y CONDICIONES", fontSeccion);
+        Paragraph tituloNotas = new Paragraph("TÉRMINOS Y CONDICIONES", tema.fuente(11, Font.BOLD, PdfTema.NEGRO));
         document.add(tituloNotas);
         
         document.add(new Paragraph(" "));
         
-        List<String> condiciones = List.of(
-            "• Esta cotización tiene una validez de 15 días a partir de la fecha de emisión.",
-            "• Los precios incluyen IGV.",
-            "• El tiempo de entrega se coordinará después de confirmar el pedido.",
-            "• Para confirmar su pedido, comuníquese con nosotros por los canales indicados.",
-            "• Garantía de fábrica de 2 años en todos nuestros productos."
-        );
-        
-        for (String condicion : condiciones) {
+        for (String condicion : CONDICIONES) {
             Paragraph p = new Paragraph(condicion, fontNota);
             p.setSpacingAfter(3);
             document.add(p);
@@ -267,193 +216,129 @@ public class CotizacionPdfService {
 
     
     private void agregarEncabezadoListado(Document document) throws DocumentException {
-        Font fontEmpresa = new Font(Font.HELVETICA, 22, Font.BOLD, COLOR_NEGRO);
-        Paragraph empresa = new Paragraph("COLCHONES D'ENCANTO", fontEmpresa);
-        empresa.setAlignment(Element.ALIGN_CENTER);
-        document.add(empresa);
-        
-        Font fontTitulo = new Font(Font.HELVETICA, 16, Font.BOLD, COLOR_PRIMARIO);
-        Paragraph titulo = new Paragraph("Listado de Cotizaciones", fontTitulo);
-        titulo.setAlignment(Element.ALIGN_CENTER);
-        document.add(titulo);
-        
-        Font fontFecha = new Font(Font.HELVETICA, 10, Font.NORMAL, Color.GRAY);
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
-        Paragraph fecha = new Paragraph("Generado el: " + LocalDateTime.now().format(formatter), fontFecha);
-        fecha.setAlignment(Element.ALIGN_CENTER);
-        document.add(fecha);
+        document.add(tema.parrafo("COLCHONES D'ENCANTO", tema.fuente(22, Font.BOLD, PdfTema.NEGRO), Element.ALIGN_CENTER));
+        document.add(tema.parrafo("Listado de Cotizaciones", tema.fuente(16, Font.BOLD, PdfTema.PRIMARIO),
+            Element.ALIGN_CENTER));
+        document.add(tema.parrafo("Generado el: " + LocalDateTime.now().format(FORMATO_FECHA_HORA),
+            tema.fuente(10, Font.NORMAL, Color.GRAY), Element.ALIGN_CENTER));
         
         document.add(new Paragraph(" "));
     }
 
     
     private void agregarEstadisticas(Document document, Map<String, Object> estadisticas) throws DocumentException {
-        Font fontHeader = new Font(Font.HELVETICA, 10, Font.BOLD, Color.WHITE);
-        Font fontValor = new Font(Font.HELVETICA, 14, Font.BOLD);
-        Font fontLabel = new Font(Font.HELVETICA, 8, Font.NORMAL, Color.DARK_GRAY);
-        
         PdfPTable tablaStats = new PdfPTable(5);
         tablaStats.setWidthPercentage(100);
         tablaStats.setWidths(new float[]{1, 1, 1, 1, 1});
         agregarCeldaEstadistica(tablaStats, "TOTAL", 
-            String.valueOf(estadisticas.getOrDefault("total", 0)), 
-            COLOR_PRIMARIO, fontValor, fontLabel);
+            String.valueOf(estadisticas.getOrDefault("total", 0)), PdfTema.PRIMARIO);
         agregarCeldaEstadistica(tablaStats, "PENDIENTES", 
-            String.valueOf(estadisticas.getOrDefault("pendientes", 0)), 
-            COLOR_ADVERTENCIA, fontValor, fontLabel);
+            String.valueOf(estadisticas.getOrDefault("pendientes", 0)), PdfTema.ADVERTENCIA);
         agregarCeldaEstadistica(tablaStats, "EN PROCESO", 
-            String.valueOf(estadisticas.getOrDefault("enProceso", 0)), 
-            COLOR_INFO, fontValor, fontLabel);
+            String.valueOf(estadisticas.getOrDefault("enProceso", 0)), PdfTema.INFO);
         agregarCeldaEstadistica(tablaStats, "CONTACTADAS", 
-            String.valueOf(estadisticas.getOrDefault("contactadas", 0)), 
-            new Color(0, 123, 255), fontValor, fontLabel);
+            String.valueOf(estadisticas.getOrDefault("contactadas", 0)), PdfTema.AZUL);
         agregarCeldaEstadistica(tablaStats, "CERRADAS", 
-            String.valueOf(estadisticas.getOrDefault("cerradas", 0)), 
-            COLOR_EXITO, fontValor, fontLabel);
+            String.valueOf(estadisticas.getOrDefault("cerradas", 0)), PdfTema.EXITO);
         
         document.add(tablaStats);
         document.add(new Paragraph(" "));
     }
 
     
-    private void agregarTablaCotizaciones(Document document, List<Cotizacion> cotizaciones) throws DocumentException {
-        Font fontHeader = new Font(Font.HELVETICA, 9, Font.BOLD, Color.WHITE);
-        Font fontCelda = new Font(Font.HELVETICA, 8, Font.NORMAL, Color.BLACK);
+    private void agregarTablaCotizaciones(Document document, Iterator<CotizacionResumen> cotizaciones) throws DocumentException {
+        Font fontCelda = tema.fuente(8, Font.NORMAL, Color.BLACK);
         
         PdfPTable tabla = new PdfPTable(7);
         tabla.setWidthPercentage(100);
         tabla.setWidths(new float[]{0.5f, 1.5f, 1.5f, 1f, 0.8f, 1f, 1f});
+        // Se pasa al documento por bloques: cada bloque se dibuja y sus filas se liberan
+        tabla.setComplete(false);
+        tabla.setHeaderRows(1);
         String[] headers = {"ID", "Cliente", "Email", "Teléfono", "Total", "Estado", "Fecha"};
         for (String header : headers) {
-            PdfPCell cell = new PdfPCell(new Phrase(header, fontHeader));
-            cell.setBackgroundColor(COLOR_NEGRO); // Header negro
-            cell.setHorizontalAlignment(Element.ALIGN_CENTER);
-            cell.setVerticalAlignment(Element.ALIGN_MIDDLE);
-            cell.setPadding(6);
-            tabla.addCell(cell);
+            tabla.addCell(tema.celdaEncabezado(header, 9, 6));
         }
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yy HH:mm");
         int fila = 0;
         
-        for (Cotizacion cot : cotizaciones) {
-            Color bgColor = fila % 2 == 0 ? Color.WHITE : COLOR_HEADER;
-            agregarCeldaTabla(tabla, "#" + cot.getId(), fontCelda, bgColor, Element.ALIGN_CENTER);
+        while (cotizaciones.hasNext()) {
+            CotizacionResumen cot = cotizaciones.next();
+            Color bgColor = fila % 2 == 0 ? Color.WHITE : PdfTema.FONDO;
+            tabla.addCell(tema.celdaTabla("#" + cot.getId(), fontCelda, bgColor, Element.ALIGN_CENTER));
             String cliente = cot.getNombreCliente() != null ? cot.getNombreCliente() : "Sin nombre";
-            agregarCeldaTabla(tabla, cliente, fontCelda, bgColor, Element.ALIGN_LEFT);
+            tabla.addCell(tema.celdaTabla(cliente, fontCelda, bgColor, Element.ALIGN_LEFT));
             String email = cot.getEmail() != null ? cot.getEmail() : "-";
-            agregarCeldaTabla(tabla, email, fontCelda, bgColor, Element.ALIGN_LEFT);
+            tabla.addCell(tema.celdaTabla(email, fontCelda, bgColor, Element.ALIGN_LEFT));
             String telefono = cot.getTelefono() != null ? cot.getTelefono() : "-";
-            agregarCeldaTabla(tabla, telefono, fontCelda, bgColor, Element.ALIGN_CENTER);
+            tabla.addCell(tema.celdaTabla(telefono, fontCelda, bgColor, Element.ALIGN_CENTER));
             String total = cot.getTotal() != null ? String.format("S/ %.2f", cot.getTotal()) : "S/ 0.00";
-            agregarCeldaTabla(tabla, total, fontCelda, bgColor, Element.ALIGN_RIGHT);
+            tabla.addCell(tema.celdaTabla(total, fontCelda, bgColor, Element.ALIGN_RIGHT));
             String estado = cot.getEstado() != null ? cot.getEstado() : "Pendiente";
-            Color colorEstado = obtenerColorEstado(estado);
-            Font fontEstado = new Font(Font.HELVETICA, 8, Font.BOLD, colorEstado);
-            PdfPCell cellEstado = new PdfPCell(new Phrase(estado, fontEstado));
-            cellEstado.setBackgroundColor(bgColor);
-            cellEstado.setHorizontalAlignment(Element.ALIGN_CENTER);
-            cellEstado.setVerticalAlignment(Element.ALIGN_MIDDLE);
-            cellEstado.setPadding(5);
-            tabla.addCell(cellEstado);
-            String fechaStr = cot.getFechaCreacion() != null ? cot.getFechaCreacion().format(formatter) : "-";
-            agregarCeldaTabla(tabla, fechaStr, fontCelda, bgColor, Element.ALIGN_CENTER);
+            Font fontEstado = tema.fuente(8, Font.BOLD, obtenerColorEstado(estado));
+            tabla.addCell(tema.celdaTabla(estado, fontEstado, bgColor, Element.ALIGN_CENTER));
+            String fechaStr = cot.getFechaCreacion() != null ? cot.getFechaCreacion().format(FORMATO_FECHA_CORTA) : "-";
+            tabla.addCell(tema.celdaTabla(fechaStr, fontCelda, bgColor, Element.ALIGN_CENTER));
             
             fila++;
+            if (fila % FILAS_POR_BLOQUE == 0) {
+                document.add(tabla);
+            }
         }
         
+        tabla.setComplete(true);
         document.add(tabla);
     }
 
     
     private void agregarPiePagina(Document document) throws DocumentException {
         document.add(new Paragraph(" "));
-        PdfPTable lineaBottom = new PdfPTable(1);
-        lineaBottom.setWidthPercentage(100);
-        PdfPCell celdaLinea = new PdfPCell();
-        celdaLinea.setBorderWidth(0);
-        celdaLinea.setBorderWidthTop(1);
-        celdaLinea.setBorderColorTop(COLOR_PRIMARIO); // Línea dorada
-        celdaLinea.setFixedHeight(5);
-        lineaBottom.addCell(celdaLinea);
-        document.add(lineaBottom);
+        document.add(tema.lineaDecorativa(Rectangle.TOP, 1)); // Línea dorada
         
         document.add(new Paragraph(" "));
-        Font fontContacto = new Font(Font.HELVETICA, 9, Font.NORMAL, Color.DARK_GRAY);
-        Font fontContactoBold = new Font(Font.HELVETICA, 9, Font.BOLD, COLOR_NEGRO);
-        
         PdfPTable tablaContacto = new PdfPTable(3);
         tablaContacto.setWidthPercentage(100);
-        PdfPCell cellTel = new PdfPCell();
-        cellTel.addElement(new Phrase("📞 Teléfono:", fontContactoBold));
-        cellTel.addElement(new Phrase("(01) 234-5678", fontContacto));
-        cellTel.setBorderWidth(0);
-        cellTel.setHorizontalAlignment(Element.ALIGN_CENTER);
-        tablaContacto.addCell(cellTel);
-        PdfPCell cellEmail = new PdfPCell();
-        cellEmail.addElement(new Phrase("✉ Email:", fontContactoBold));
-        cellEmail.addElement(new Phrase("ventas@dencanto.pe", fontContacto));
-        cellEmail.setBorderWidth(0);
-        cellEmail.setHorizontalAlignment(Element.ALIGN_CENTER);
-        tablaContacto.addCell(cellEmail);
-        PdfPCell cellDir = new PdfPCell();
-        cellDir.addElement(new Phrase("📍 Dirección:", fontContactoBold));
-        cellDir.addElement(new Phrase("Av. Principal 123, Lima", fontContacto));
-        cellDir.setBorderWidth(0);
-        cellDir.setHorizontalAlignment(Element.ALIGN_CENTER);
-        tablaContacto.addCell(cellDir);
+        agregarCeldaContacto(tablaContacto, "📞 Teléfono:", "(01) 234-5678");
+        agregarCeldaContacto(tablaContacto, "✉ Email:", "ventas@dencanto.pe");
+        agregarCeldaContacto(tablaContacto, "📍 Dirección:", "Av. Principal 123, Lima");
         
         document.add(tablaContacto);
     }
 
-    private void agregarCampoInfo(PdfPTable tabla, String label, String valor, Font fontLabel, Font fontValor) {
-        PdfPCell cellLabel = new PdfPCell(new Phrase(label, fontLabel));
-        cellLabel.setBorderWidth(0);
-        cellLabel.setPadding(5);
-        tabla.addCell(cellLabel);
-        
-        String valorFinal = valor != null && !valor.isEmpty() ? valor : "No proporcionado";
-        PdfPCell cellValor = new PdfPCell(new Phrase(valorFinal, fontValor));
-        cellValor.setBorderWidth(0);
-        cellValor.setPadding(5);
-        tabla.addCell(cellValor);
-    }
-
-    private void agregarCeldaEstadistica(PdfPTable tabla, String label, String valor, Color color, Font fontValor, Font fontLabel) {
+    private void agregarCeldaContacto(PdfPTable tabla, String titulo, String valor) {
         PdfPCell cell = new PdfPCell();
-        cell.setBackgroundColor(COLOR_HEADER);
-        cell.setBorderWidth(1);
-        cell.setBorderColor(color);
+        cell.addElement(new Phrase(titulo, tema.fuente(9, Font.BOLD, PdfTema.NEGRO)));
+        cell.addElement(new Phrase(valor, tema.fuente(9, Font.NORMAL, Color.DARK_GRAY)));
+        cell.setBorderWidth(0);
         cell.setHorizontalAlignment(Element.ALIGN_CENTER);
-        cell.setPadding(10);
-        
-        fontValor.setColor(color);
-        Paragraph pValor = new Paragraph(valor, fontValor);
-        pValor.setAlignment(Element.ALIGN_CENTER);
-        cell.addElement(pValor);
-        
-        Paragraph pLabel = new Paragraph(label, fontLabel);
-        pLabel.setAlignment(Element.ALIGN_CENTER);
-        cell.addElement(pLabel);
-        
         tabla.addCell(cell);
     }
 
-    private void agregarCeldaTabla(PdfPTable tabla, String texto, Font font, Color bgColor, int alineacion) {
+    private void agregarCampoInfo(PdfPTable tabla, String label, String valor) {
+        tabla.addCell(tema.celdaCampo(label, tema.fuente(10, Font.BOLD, PdfTema.PRIMARIO), Element.ALIGN_LEFT));
+        String valorFinal = valor != null && !valor.isEmpty() ? valor : "No proporcionado";
+        tabla.addCell(tema.celdaCampo(valorFinal, tema.fuente(10, Font.NORMAL, Color.BLACK), Element.ALIGN_LEFT));
+    }
+
+    private void agregarCeldaEstadistica(PdfPTable tabla, String label, String valor, Color color) {
+        tabla.addCell(tema.celdaIndicador(valor, tema.fuente(14, Font.BOLD, color),
+            label, tema.fuente(8, Font.NORMAL, Color.DARK_GRAY), PdfTema.FONDO, color, 1));
+    }
+
+    private void agregarCeldaProducto(PdfPTable tabla, String texto, Font font, Color bgColor, int alineacion) {
         PdfPCell cell = new PdfPCell(new Phrase(texto, font));
-        cell.setBackgroundColor(bgColor);
         cell.setHorizontalAlignment(alineacion);
-        cell.setVerticalAlignment(Element.ALIGN_MIDDLE);
-        cell.setPadding(5);
+        cell.setPadding(6);
+        cell.setBackgroundColor(bgColor);
         tabla.addCell(cell);
     }
 
     private Color obtenerColorEstado(String estado) {
         switch (estado) {
-            case "Pendiente": return new Color(255, 193, 7);    // Amarillo
-            case "En Proceso": return new Color(23, 162, 184); // Cyan
-            case "Contactado": return new Color(0, 123, 255);  // Azul
-            case "Cerrada": return new Color(40, 167, 69);     // Verde
-            case "Cancelada": return new Color(220, 53, 69);   // Rojo
+            case "Pendiente": return PdfTema.ADVERTENCIA;
+            case "En Proceso": return PdfTema.INFO;
+            case "Contactado": return PdfTema.AZUL;
+            case "Cerrada": return PdfTema.EXITO;
+            case "Cancelada": return PdfTema.PELIGRO;
             default: return Color.GRAY;
         }
     }
@@ -1,20 +1,69 @@
 package com.proyecto.dencanto.Service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.proyecto.dencanto.Modelo.Cotizacion;
+import com.proyecto.dencanto.Modelo.CotizacionItem;
+import com.proyecto.dencanto.Modelo.Producto;
+import com.proyecto.dencanto.Repository.CotizacionItemRepository;
 import com.proyecto.dencanto.Repository.CotizacionRepository;
+import com.proyecto.dencanto.Repository.ProductoRepository;
+import com.proyecto.dencanto.dto.CotizacionResumen;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
 
 @Service
 public class CotizacionService {
     
+    private static final Logger log = LoggerFactory.getLogger(CotizacionService.class);
+    
     @Autowired
     private CotizacionRepository cotizacionRepository;
     
-    // Guardar una nueva cotización
+    @Autowired
+    private CotizacionItemRepository cotizacionItemRepository;
+    
+    @Autowired
+    private ProductoRepository productoRepository;
+    
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    @Autowired
+    private CotizacionPdfService cotizacionPdfService;
+
+    @Autowired
+    private PdfDocumentoCache pdfDocumentoCache;
+    
+    // Lector compartido (thread-safe) para el JSON de productos de la cotización
+    private final ObjectReader lectorProductos;
+    
+    public CotizacionService(ObjectMapper objectMapper) {
+        this.lectorProductos = objectMapper.readerFor(new TypeReference<List<Map<String, Object>>>() {});
+    }
+    
+    // Guardar una nueva cotización (y generar sus líneas la primera vez)
+    @Transactional
     public Cotizacion guardar(Cotizacion cotizacion) {
         if (cotizacion.getFechaCreacion() == null) {
             cotizacion.setFechaCreacion(LocalDateTime.now());
@@ -23,13 +72,135 @@ public class CotizacionService {
         if (cotizacion.getEstado() == null) {
             cotizacion.setEstado("Pendiente");
         }
-        return cotizacionRepository.save(cotizacion);
+        boolean nueva = cotizacion.getId() == null;
+        Cotizacion guardada = cotizacionRepository.save(cotizacion);
+        if (nueva || !cotizacionItemRepository.existsByCotizacionId(guardada.getId())) {
+            crearItems(guardada);
+        }
+        eventos.publishEvent(new DatosNegocioCambiadosEvent("cotizacion"));
+        return guardada;
+    }
+    
+    /**
+     * Productos de la cotización leídos del JSON. Lista vacía si no hay JSON o es inválido
+     */
+    public List<Map<String, Object>> leerProductos(Cotizacion cotizacion) {
+        String json = cotizacion.getProductosJson();
+        if (json == null || json.isBlank()) return Collections.emptyList();
+        try {
+            List<Map<String, Object>> productos = lectorProductos.readValue(json);
+            return productos != null ? productos : Collections.emptyList();
+        } catch (IOException e) {
+            log.warn("JSON de productos inválido en la cotización #{}: {}", cotizacion.getId(), e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+    
+    /**
+     * Regenera las líneas de una cotización a partir de su JSON (usado por la migración)
+     */
+    @Transactional
+    public void generarItems(Integer id) {
+        cotizacionRepository.findById(id).ifPresent(cotizacion -> {
+            cotizacionItemRepository.eliminarPorCotizacion(id);
+            crearItems(cotizacion);
+        });
+    }
+    
+    /**
+     * Convierte el JSON en filas de cotizacion_items. La categoría se toma del JSON o,
+     * si no viene, del producto (una sola consulta para todos los ids)
+     */
+    private void crearItems(Cotizacion cotizacion) {
+        List<Map<String, Object>> productos = leerProductos(cotizacion);
+        if (productos.isEmpty()) return;
+        
+        Set<Integer> idsSinCategoria = new HashSet<>();
+        for (Map<String, Object> p : productos) {
+            Integer productoId = entero(p.get("id"));
+            if (productoId != null && texto(p.get("categoria")) == null) {
+                idsSinCategoria.add(productoId);
+            }
+        }
+        Map<Integer, String> categorias = new HashMap<>();
+        if (!idsSinCategoria.isEmpty()) {
+            for (Producto producto : productoRepository.findAllById(idsSinCategoria)) {
+                categorias.put(producto.getId(), producto.getCategoria());
+            }
+        }
+        
+        List<CotizacionItem> items = new ArrayList<>(productos.size());
+        for (Map<String, Object> p : productos) {
+            Integer productoId = entero(p.get("id"));
+            String categoria = texto(p.get("categoria"));
+            if (categoria == null && productoId != null) categoria = categorias.get(productoId);
+            
+            Integer cantidad = entero(p.get("cantidad"));
+            Double precio = decimal(p.get("precio"));
+            String nombre = texto(p.get("nombre"));
+            
+            CotizacionItem item = new CotizacionItem();
+            item.setCotizacion(cotizacion);
+            item.setProductoId(productoId);
+            item.setNombre(nombre != null ? nombre : "Producto");
+            item.setCategoria(categoria != null ? categoria : "Sin categoría");
+            item.setCantidad(cantidad != null ? cantidad : 1);
+            item.setPrecio(precio != null ? precio : 0.0);
+            items.add(item);
+        }
+        cotizacionItemRepository.saveAll(items);
+    }
+    
+    private static String texto(Object valor) {
+        if (valor == null) return null;
+        String s = valor.toString().trim();
+        return s.isEmpty() ? null : s;
+    }
+    
+    private static Integer entero(Object valor) {
+        if (valor instanceof Number n) return n.intValue();
+        try {
+            String s = texto(valor);
+            return s != null ? (int) Double.parseDouble(s) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    private static Double decimal(Object valor) {
+        if (valor instanceof Number n) return n.doubleValue();
+        try {
+            String s = texto(valor);
+            return s != null ? Double.parseDouble(s) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
     
     // Obtener cotización por ID (retorna Optional)
     public Optional<Cotizacion> obtenerPorId(Integer id) {
         return cotizacionRepository.findById(id);
     }
+
+    /**
+     * ETag del PDF de la cotización en su versión actual
+     */
+    public String etagPdf(Cotizacion cotizacion) {
+        return pdfDocumentoCache.etag("cotizacion", cotizacion.getId(), versionPdf(cotizacion));
+    }
+
+    /**
+     * PDF de la cotización, desde la caché en disco mientras no cambie
+     */
+    public byte[] cotizacionPdf(Cotizacion cotizacion) throws Exception {
+        return pdfDocumentoCache.obtener("cotizacion", cotizacion.getId(), versionPdf(cotizacion),
+            () -> cotizacionPdfService.generarPdfCotizacion(cotizacion, leerProductos(cotizacion)));
+    }
+
+    // fechaActualizacion cambia con cada modificación (@PreUpdate y actualizarEstado)
+    private static String versionPdf(Cotizacion cotizacion) {
+        return cotizacion.getEstado() + "|" + cotizacion.getFechaActualizacion();
+    }
     
     // Obtener todas las cotizaciones
     public List<Cotizacion> obtenerTodas() {
@@ -46,9 +217,78 @@ public class CotizacionService {
         return cotizacionRepository.findByEmail(email);
     }
     
-    // Buscar cotizaciones por nombre o email
-    public List<Cotizacion> buscar(String termino) {
-        return cotizacionRepository.findByNombreClienteContainingIgnoreCaseOrEmailContainingIgnoreCase(termino, termino);
+    /**
+     * Escribe en la salida el PDF del listado (estado null o vacío = todas). Los contadores salen
+     * de una consulta agrupada y las filas se leen del cursor de la BD mientras se escribe el PDF
+     */
+    @Transactional(readOnly = true)
+    public void exportarListadoPdf(String estado, OutputStream salida) throws Exception {
+        exportarListadoPdf(estado, salida, porcentaje -> {});
+    }
+
+    /**
+     * Igual que la anterior, informando el porcentaje de cotizaciones escritas (exportación en segundo plano)
+     */
+    @Transactional(readOnly = true)
+    public void exportarListadoPdf(String estado, OutputStream salida, IntConsumer progreso) throws Exception {
+        String filtro = estado != null && !estado.isEmpty() ? estado : null;
+        Map<String, Long> porEstado = new HashMap<>();
+        long total = 0;
+        for (Object[] fila : cotizacionRepository.contarPorEstado()) {
+            if (filtro == null || filtro.equals(fila[0])) {
+                porEstado.put((String) fila[0], (Long) fila[1]);
+                total += (Long) fila[1];
+            }
+        }
+        
+        Map<String, Object> estadisticas = new HashMap<>();
+        estadisticas.put("total", total);
+        estadisticas.put("pendientes", porEstado.getOrDefault("Pendiente", 0L));
+        estadisticas.put("enProceso", porEstado.getOrDefault("En Proceso", 0L));
+        estadisticas.put("contactadas", porEstado.getOrDefault("Contactado", 0L));
+        estadisticas.put("cerradas", porEstado.getOrDefault("Cerrada", 0L));
+        
+        try (Stream<CotizacionResumen> cotizaciones = cotizacionRepository.exportarResumen(filtro)) {
+            cotizacionPdfService.escribirPdfListadoCotizaciones(
+                new IteradorConProgreso<>(cotizaciones.iterator(), total, CotizacionResumen::getId, progreso),
+                estadisticas, salida);
+        }
+    }
+    
+    /**
+     * Listado de la intranet con filtros opcionales (estado, rango de fechas con hasta exclusivo
+     * y búsqueda por inicio del nombre o email). pagina null = todas. El JSON de productos
+     * solo se carga si incluirProductos es true
+     */
+    public Page<CotizacionResumen> listar(String estado, LocalDateTime desde, LocalDateTime hasta, String termino,
+                                          Pageable pagina, boolean incluirProductos) {
+        Page<CotizacionResumen> resultado = cotizacionRepository.listarResumen(
+            estado != null && !estado.isBlank() ? estado : null, desde, hasta, prefijoBusqueda(termino), pagina);
+
+        if (incluirProductos && resultado.hasContent()) {
+            Map<Integer, CotizacionResumen> porId = new HashMap<>();
+            resultado.forEach(c -> porId.put(c.getId(), c));
+            for (Object[] fila : cotizacionRepository.productosJsonDe(porId.keySet())) {
+                porId.get((Integer) fila[0]).setProductosJson((String) fila[1]);
+            }
+        }
+        return resultado;
+    }
+    
+    // Buscar cotizaciones por inicio del nombre (sin tildes ni mayúsculas) o del email
+    public List<CotizacionResumen> buscar(String termino) {
+        return listar(null, null, null, termino, Pageable.unpaged(), false).getContent();
+    }
+    
+    /**
+     * Patrón LIKE 'texto%' del término normalizado, escapando los comodines. null si está vacío
+     */
+    private static String prefijoBusqueda(String termino) {
+        String normalizado = TextoNormalizado.normalizar(termino);
+        if (normalizado == null || normalizado.isEmpty()) {
+            return null;
+        }
+        return normalizado.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
     }
     
     // Actualizar estado de cotización
@@ -58,7 +298,10 @@ public class CotizacionService {
             Cotizacion cotizacion = opt.get();
             cotizacion.setEstado(nuevoEstado);
             cotizacion.setFechaActualizacion(LocalDateTime.now());
-            return cotizacionRepository.save(cotizacion);
+            Cotizacion guardada = cotizacionRepository.save(cotizacion);
+            pdfDocumentoCache.invalidar("cotizacion", id);
+            eventos.publishEvent(new DatosNegocioCambiadosEvent("cotizacion"));
+            return guardada;
         }
         return null;
     }
@@ -66,6 +309,8 @@ public class CotizacionService {
     // Eliminar cotización
     public void eliminar(Integer id) {
         cotizacionRepository.deleteById(id);
+        pdfDocumentoCache.invalidar("cotizacion", id);
+        eventos.publishEvent(new DatosNegocioCambiadosEvent("cotizacion"));
     }
     
     // Obtener estadísticas
@@ -0,0 +1,374 @@
+package com.proyecto.dencanto.Service;
+
+import com.proyecto.dencanto.Modelo.*;
+import com.proyecto.dencanto.Repository.*;
+import com.proyecto.dencanto.dto.ProductoResumen;
+import com.proyecto.dencanto.dto.VentaPeriodoTotal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Estadísticas del dashboard. Se guarda una instantánea por rol (una para ADMIN y una por
+ * vendedor) que se sirve sin consultar la BD. Cuando un servicio publica
+ * DatosNegocioCambiadosEvent las instantáneas se reconstruyen en segundo plano; mientras tanto
+ * se sigue sirviendo la anterior, salvo que supere la antigüedad máxima.
+ */
+@Service
+public class DashboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardService.class);
+
+    private static final String CLAVE_ADMIN = "ADMIN";
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CotizacionRepository cotizacionRepository;
+
+    @Autowired
+    private ReporteService reporteService;
+
+    @Autowired
+    @Qualifier("dashboardExecutor")
+    private Executor dashboardExecutor;
+
+    // Antigüedad máxima de una instantánea antes de reconstruirla al pedirla
+    @Value("${dashboard.cache.max-antiguedad-segundos:120}")
+    private long maxAntiguedadSegundos;
+
+    /**
+     * Estadísticas ya calculadas. vendedor es null en la del ADMIN
+     */
+    public record Instantanea(Map<String, Object> datos, LocalDateTime generadaEn, Usuario vendedor) {}
+
+    private final ConcurrentHashMap<String, Instantanea> instantaneas = new ConcurrentHashMap<>();
+
+    // Evita encolar varias reconstrucciones seguidas por una ráfaga de cambios
+    private final AtomicBoolean reconstruccionPendiente = new AtomicBoolean(false);
+
+    // Sube con cada cambio: una construcción que empezó antes no guarda su resultado
+    private final AtomicLong generacion = new AtomicLong();
+
+    /**
+     * Estadísticas del ADMIN (desde la caché si no superan la antigüedad máxima)
+     */
+    public Instantanea obtenerAdmin() {
+        return obtener(CLAVE_ADMIN, null);
+    }
+
+    /**
+     * Estadísticas de un vendedor (desde la caché si no superan la antigüedad máxima)
+     */
+    public Instantanea obtenerVendedor(Usuario vendedor) {
+        return obtener(claveVendedor(vendedor), vendedor);
+    }
+
+    /**
+     * Recalcula ahora la instantánea (refresco manual desde el dashboard)
+     */
+    public Instantanea refrescar(Usuario vendedor) {
+        return vendedor == null
+            ? construir(CLAVE_ADMIN, null)
+            : construir(claveVendedor(vendedor), vendedor);
+    }
+
+    /**
+     * Tras confirmar un cambio, reconstruye en segundo plano las instantáneas existentes
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarDatos(DatosNegocioCambiadosEvent evento) {
+        generacion.incrementAndGet();
+        if (instantaneas.isEmpty() || !reconstruccionPendiente.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            dashboardExecutor.execute(() -> {
+                reconstruccionPendiente.set(false);
+                for (Map.Entry<String, Instantanea> entrada : instantaneas.entrySet()) {
+                    try {
+                        construir(entrada.getKey(), entrada.getValue().vendedor());
+                    } catch (Exception e) {
+                        log.warn("No se pudo reconstruir el dashboard {}: {}", entrada.getKey(), e.getMessage());
+                    }
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // La instantánea se reconstruirá al pedirla cuando supere la antigüedad máxima
+            reconstruccionPendiente.set(false);
+            log.debug("Cola del dashboard llena, reconstrucción pospuesta");
+        }
+    }
+
+    private Instantanea obtener(String clave, Usuario vendedor) {
+        Instantanea actual = instantaneas.get(clave);
+        if (actual != null && actual.generadaEn().isAfter(LocalDateTime.now().minusSeconds(maxAntiguedadSegundos))) {
+            return actual;
+        }
+        return construir(clave, vendedor);
+    }
+
+    /**
+     * Calcula la instantánea y la guarda, salvo que los datos hayan cambiado mientras se calculaba
+     * (la reconstrucción lanzada por ese cambio guardará la más reciente)
+     */
+    private Instantanea construir(String clave, Usuario vendedor) {
+        long generacionLeida = generacion.get();
+        Map<String, Object> datos = vendedor == null ? construirAdmin() : construirVendedor(vendedor);
+        Instantanea nueva = new Instantanea(Collections.unmodifiableMap(datos), LocalDateTime.now(), vendedor);
+        // compute bloquea la clave: una reconstrucción posterior al cambio guarda siempre después
+        instantaneas.compute(clave, (k, anterior) -> generacionLeida == generacion.get() ? nueva : anterior);
+        return nueva;
+    }
+
+    private String claveVendedor(Usuario vendedor) {
+        return "VENDEDOR:" + vendedor.getId();
+    }
+
+    /**
+     * Estadísticas para ADMIN
+     */
+    private Map<String, Object> construirAdmin() {
+        Map<String, Object> stats = new HashMap<>();
+
+        // Fechas del mes actual
+        LocalDateTime inicioMes = LocalDate.now().withDayOfMonth(1).atStartOfDay();
+        LocalDateTime finMes = LocalDate.now().with(TemporalAdjusters.lastDayOfMonth()).atTime(23, 59, 59);
+
+        // ========== KPIs PRINCIPALES ==========
+        
+        // 1. Ventas totales del mes (agregadas por estado en la consulta)
+        Map<EstadoVenta, VentaPeriodoTotal> ventasMes = totalesPorEstado(
+            ventaRepository.totalesPorEstado(inicioMes, finMes));
+        VentaPeriodoTotal completadasMes = ventasMes.get(EstadoVenta.COMPLETADA);
+        double ventasTotalesMes = completadasMes != null ? completadasMes.getMonto() : 0;
+        stats.put("ventasTotalesMes", ventasTotalesMes);
+        
+        // 2. Cantidad de ventas del mes
+        long cantidadVentasMes = completadasMes != null ? completadasMes.getPedidos() : 0;
+        stats.put("cantidadVentasMes", cantidadVentasMes);
+
+        // 3. Total de usuarios
+        long totalUsuarios = usuarioRepository.count();
+        stats.put("totalUsuarios", totalUsuarios);
+
+        // 4. Cotizaciones pendientes
+        long cotizacionesPendientes = cotizacionRepository.countByEstado("PENDIENTE");
+        stats.put("cotizacionesPendientes", cotizacionesPendientes);
+
+        // 5. Cotizaciones cerradas (del mes)
+        long cotizacionesCerradas = cotizacionRepository.countByEstado("CERRADA");
+        stats.put("cotizacionesCerradas", cotizacionesCerradas);
+
+        // 6. Total cotizaciones
+        long totalCotizaciones = cotizacionRepository.count();
+        stats.put("totalCotizaciones", totalCotizaciones);
+
+        // 7. Productos con stock bajo (menos de 5)
+        List<ProductoResumen> productosConStockBajo = productoRepository.productosStockBajo(5);
+        stats.put("productosStockBajo", productosConStockBajo.size());
+
+        // 8. Total productos
+        stats.put("totalProductos", productoRepository.count());
+
+        // ========== LISTA DE USUARIOS ==========
+        List<Usuario> usuarios = usuarioRepository.findAll();
+        List<Map<String, Object>> listaUsuarios = new ArrayList<>();
+        for (Usuario u : usuarios) {
+            Map<String, Object> userData = new HashMap<>();
+            userData.put("id", u.getId());
+            // Separar nombre completo en nombres y apellidos
+            String nombreCompleto = u.getNombreCompleto() != null ? u.getNombreCompleto() : "";
+            String[] partes = nombreCompleto.split(" ", 2);
+            userData.put("nombres", partes.length > 0 ? partes[0] : "");
+            userData.put("apellidos", partes.length > 1 ? partes[1] : "");
+            userData.put("rol", u.getRol() != null ? u.getRol().getNombre() : "Sin rol");
+            userData.put("nombreUsuario", u.getNombreUsuario());
+            listaUsuarios.add(userData);
+        }
+        stats.put("usuarios", listaUsuarios);
+
+        // ========== TOP VENDEDORES ==========
+        List<Map<String, Object>> topVendedores = ventaRepository
+            .rankingVendedores(EstadoVenta.COMPLETADA, inicioMes, finMes, PageRequest.of(0, 5)).stream()
+            .map(t -> {
+                Map<String, Object> vendedor = new HashMap<>();
+                vendedor.put("nombre", t.getNombreCompleto());
+                vendedor.put("ventas", t.getMonto());
+                return vendedor;
+            })
+            .collect(Collectors.toList());
+        stats.put("topVendedores", topVendedores);
+
+        // ========== VENTAS POR MES (últimos 6 meses, una consulta) ==========
+        LocalDate hoy = LocalDate.now();
+        List<Map<String, Object>> ventasPorMes = new ArrayList<>();
+        reporteService.totalesPorPeriodo(ReporteService.Periodo.MES, hoy.minusMonths(5), hoy, null, EstadoVenta.COMPLETADA)
+            .forEach((mes, total) -> {
+                Map<String, Object> mesDato = new HashMap<>();
+                mesDato.put("mes", mes.format(DateTimeFormatter.ofPattern("MMM yyyy", new Locale("es", "PE"))));
+                mesDato.put("total", total.getMonto());
+                ventasPorMes.add(mesDato);
+            });
+        stats.put("ventasPorMes", ventasPorMes);
+
+        // ========== DISTRIBUCIÓN POR MÉTODO DE PAGO ==========
+        Map<String, Long> porMetodoPago = new HashMap<>();
+        for (Object[] fila : ventaRepository.contarPorMetodoPago(inicioMes, finMes)) {
+            porMetodoPago.put(((MetodoPago) fila[0]).name(), (Long) fila[1]);
+        }
+        stats.put("distribucionMetodoPago", porMetodoPago);
+
+        // ========== DISTRIBUCIÓN POR ESTADO ==========
+        stats.put("distribucionEstado", distribucionEstado(ventasMes));
+
+        // ========== PRODUCTOS CON STOCK BAJO (lista) ==========
+        List<Map<String, Object>> listaStockBajo = productosConStockBajo.stream()
+            .map(p -> {
+                Map<String, Object> prod = new HashMap<>();
+                prod.put("id", p.getId());
+                prod.put("nombre", p.getNombre());
+                prod.put("stock", p.getStock());
+                prod.put("categoria", p.getCategoria());
+                return prod;
+            })
+            .collect(Collectors.toList());
+        stats.put("productosConStockBajo", listaStockBajo);
+
+        return stats;
+    }
+
+    /**
+     * Estadísticas para VENDEDOR
+     */
+    private Map<String, Object> construirVendedor(Usuario vendedor) {
+        Map<String, Object> stats = new HashMap<>();
+
+        // Fechas del mes actual
+        LocalDateTime inicioMes = LocalDate.now().withDayOfMonth(1).atStartOfDay();
+        LocalDateTime finMes = LocalDate.now().with(TemporalAdjusters.lastDayOfMonth()).atTime(23, 59, 59);
+
+        // ========== KPIs PRINCIPALES ==========
+
+        // 1. Mis ventas del mes (agregadas por estado en la consulta)
+        Map<EstadoVenta, VentaPeriodoTotal> misVentasMes = totalesPorEstado(
+            ventaRepository.totalesPorEstadoDeVendedor(vendedor, inicioMes, finMes));
+        VentaPeriodoTotal misCompletadas = misVentasMes.get(EstadoVenta.COMPLETADA);
+        double misVentasTotales = misCompletadas != null ? misCompletadas.getMonto() : 0;
+        stats.put("misVentasMes", misVentasTotales);
+
+        // 2. Cantidad de mis ventas
+        long cantidadMisVentas = misCompletadas != null ? misCompletadas.getPedidos() : 0;
+        stats.put("cantidadMisVentas", cantidadMisVentas);
+
+        // 3. Mis comisiones (10%)
+        double misComisiones = misVentasTotales * 0.10;
+        stats.put("misComisiones", misComisiones);
+
+        // 4. Ventas pendientes
+        VentaPeriodoTotal misPendientes = misVentasMes.get(EstadoVenta.PENDIENTE);
+        long ventasPendientes = misPendientes != null ? misPendientes.getPedidos() : 0;
+        stats.put("ventasPendientes", ventasPendientes);
+
+        // 5. Cotizaciones asignadas (pendientes)
+        long cotizacionesPendientes = cotizacionRepository.countByEstado("PENDIENTE");
+        stats.put("cotizacionesPendientes", cotizacionesPendientes);
+
+        // 6. Promedio por venta
+        double promedioVenta = cantidadMisVentas > 0 ? misVentasTotales / cantidadMisVentas : 0;
+        stats.put("promedioVenta", promedioVenta);
+
+        // ========== MIS ÚLTIMAS VENTAS ==========
+        List<Venta> ultimasVentas = ventaRepository.findByVendedor(vendedor);
+        ultimasVentas.sort((a, b) -> b.getFechaCreacion().compareTo(a.getFechaCreacion()));
+        
+        List<Map<String, Object>> listaUltimasVentas = ultimasVentas.stream()
+            .limit(10)
+            .map(v -> {
+                Map<String, Object> ventaData = new HashMap<>();
+                ventaData.put("id", v.getId());
+                ventaData.put("cliente", v.getClienteNombre());
+                ventaData.put("total", v.getTotal());
+                ventaData.put("estado", v.getEstado().name());
+                ventaData.put("fecha", v.getFechaCreacion());
+                return ventaData;
+            })
+            .collect(Collectors.toList());
+        stats.put("ultimasVentas", listaUltimasVentas);
+
+        // ========== MI RENDIMIENTO POR SEMANA (últimas 4 semanas, una consulta) ==========
+        LocalDate hoy = LocalDate.now();
+        List<Map<String, Object>> rendimientoSemanal = new ArrayList<>();
+        reporteService.totalesPorPeriodo(ReporteService.Periodo.SEMANA, hoy.minusWeeks(3), hoy,
+                vendedor.getId(), EstadoVenta.COMPLETADA)
+            .forEach((inicioSemana, total) -> {
+                Map<String, Object> semanaDato = new HashMap<>();
+                semanaDato.put("semana", "Sem " + (rendimientoSemanal.size() + 1));
+                semanaDato.put("inicio", inicioSemana.format(DateTimeFormatter.ofPattern("dd/MM")));
+                semanaDato.put("total", total.getMonto());
+                rendimientoSemanal.add(semanaDato);
+            });
+        stats.put("rendimientoSemanal", rendimientoSemanal);
+
+        // ========== DISTRIBUCIÓN POR ESTADO (mis ventas) ==========
+        stats.put("distribucionEstado", distribucionEstado(misVentasMes));
+
+        // ========== MI RENDIMIENTO POR MES (últimos 6 meses, una consulta) ==========
+        List<Map<String, Object>> rendimientoMensual = new ArrayList<>();
+        reporteService.totalesPorPeriodo(ReporteService.Periodo.MES, hoy.minusMonths(5), hoy,
+                vendedor.getId(), EstadoVenta.COMPLETADA)
+            .forEach((mes, total) -> {
+                Map<String, Object> mesDato = new HashMap<>();
+                mesDato.put("mes", mes.format(DateTimeFormatter.ofPattern("MMM", new Locale("es", "PE"))));
+                mesDato.put("total", total.getMonto());
+                rendimientoMensual.add(mesDato);
+            });
+        stats.put("rendimientoMensual", rendimientoMensual);
+
+        return stats;
+    }
+
+    /**
+     * Indexa por estado los totales agregados de la consulta
+     */
+    private Map<EstadoVenta, VentaPeriodoTotal> totalesPorEstado(List<VentaPeriodoTotal> totales) {
+        Map<EstadoVenta, VentaPeriodoTotal> porEstado = new EnumMap<>(EstadoVenta.class);
+        for (VentaPeriodoTotal t : totales) {
+            porEstado.put(t.getEstado(), t);
+        }
+        return porEstado;
+    }
+
+    /**
+     * Número de ventas por nombre de estado (para el gráfico de distribución)
+     */
+    private Map<String, Long> distribucionEstado(Map<EstadoVenta, VentaPeriodoTotal> porEstado) {
+        Map<String, Long> distribucion = new HashMap<>();
+        porEstado.forEach((estado, total) -> distribucion.put(estado.name(), total.getPedidos()));
+        return distribucion;
+    }
+}
@@ -0,0 +1,9 @@
+package com.proyecto.dencanto.Service;
+
+/**
+ * Evento que publican los servicios al modificar ventas, cotizaciones, productos o usuarios.
+ * DashboardService lo escucha para reconstruir sus estadísticas en segundo plano.
+ *
+ * @param origen entidad que cambió (p. ej. "venta"), solo informativo
+ */
+public record DatosNegocioCambiadosEvent(String origen) {}
@@ -0,0 +1,260 @@
+package com.proyecto.dencanto.Service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.IntConsumer;
+
+/**
+ * Exportaciones PDF en segundo plano: cada pedido se encola en trabajosExportacionExecutor
+ * (pocos hilos y cola acotada, fuera de los hilos de Tomcat), informa su avance y deja el archivo
+ * en disco durante un TTL. Un pedido con el mismo tipo y los mismos parámetros dentro del TTL
+ * reutiliza el trabajo existente (en curso o terminado) en vez de generar otro PDF.
+ */
+@Service
+public class ExportacionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportacionService.class);
+
+    public enum EstadoTrabajo { EN_COLA, EN_PROCESO, COMPLETADO, ERROR }
+
+    /**
+     * Escribe el archivo en la salida, informando el porcentaje avanzado (0-99)
+     */
+    @FunctionalInterface
+    public interface Generador {
+        void escribir(OutputStream salida, IntConsumer progreso) throws Exception;
+    }
+
+    public static final class Trabajo {
+        private final String id;
+        private final String tipo;
+        private final String clave;
+        private final String nombreArchivo;
+        private final Path archivo;
+        private final LocalDateTime creadoEn = LocalDateTime.now();
+        // Usuarios que lo pidieron: solo ellos pueden consultar y descargar
+        private final Set<String> usuarios = ConcurrentHashMap.newKeySet();
+
+        private volatile EstadoTrabajo estado = EstadoTrabajo.EN_COLA;
+        private volatile int progreso = 0;
+        private volatile String error;
+        private volatile LocalDateTime terminadoEn;
+        // El TTL corre desde que termina; mientras está en cola o en proceso no vence
+        private volatile long expiraEn = Long.MAX_VALUE;
+
+        private Trabajo(String id, String tipo, String clave, String nombreArchivo, Path archivo) {
+            this.id = id;
+            this.tipo = tipo;
+            this.clave = clave;
+            this.nombreArchivo = nombreArchivo;
+            this.archivo = archivo;
+        }
+
+        public String getId() { return id; }
+        public String getTipo() { return tipo; }
+        public String getNombreArchivo() { return nombreArchivo; }
+        public Path getArchivo() { return archivo; }
+        public EstadoTrabajo getEstado() { return estado; }
+        public int getProgreso() { return progreso; }
+        public String getError() { return error; }
+
+        public boolean permitido(String usuario) {
+            return usuarios.contains(usuario);
+        }
+
+        /**
+         * Estado para las respuestas JSON
+         */
+        public Map<String, Object> resumen() {
+            Map<String, Object> datos = new LinkedHashMap<>();
+            datos.put("id", id);
+            datos.put("tipo", tipo);
+            datos.put("estado", estado.name());
+            datos.put("progreso", progreso);
+            datos.put("nombreArchivo", nombreArchivo);
+            datos.put("creadoEn", creadoEn);
+            if (terminadoEn != null) {
+                datos.put("terminadoEn", terminadoEn);
+            }
+            if (expiraEn != Long.MAX_VALUE) {
+                datos.put("expiraEn", LocalDateTime.ofInstant(Instant.ofEpochMilli(expiraEn), ZoneId.systemDefault()));
+            }
+            if (error != null) {
+                datos.put("error", error);
+            }
+            return datos;
+        }
+    }
+
+    @Autowired
+    @Qualifier("trabajosExportacionExecutor")
+    private Executor trabajosExportacionExecutor;
+
+    @Value("${exportaciones.trabajos.directorio:${java.io.tmpdir}/dencanto-exportaciones}")
+    private String directorio;
+
+    @Value("${exportaciones.trabajos.ttl-minutos:30}")
+    private long ttlMinutos;
+
+    private final Map<String, Trabajo> porId = new ConcurrentHashMap<>();
+    private final Map<String, Trabajo> porClave = new ConcurrentHashMap<>();
+
+    /**
+     * Crea el directorio y borra los archivos de una ejecución anterior (los trabajos solo viven en memoria)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() throws IOException {
+        Path carpeta = Paths.get(directorio);
+        Files.createDirectories(carpeta);
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(carpeta, "*.{pdf,tmp}")) {
+            for (Path archivo : archivos) {
+                Files.deleteIfExists(archivo);
+            }
+        }
+    }
+
+    /**
+     * Encola un trabajo o devuelve el existente con los mismos parámetros si aún no venció.
+     * Lanza IllegalStateException si la cola está llena
+     */
+    public Trabajo encolar(String tipo, Map<String, String> parametros, String usuario, String nombreArchivo,
+                           Generador generador) {
+        purgarVencidos();
+        String clave = hash(tipo + new TreeMap<>(parametros));
+
+        Trabajo trabajo;
+        synchronized (this) {
+            Trabajo existente = porClave.get(clave);
+            if (existente != null && existente.estado != EstadoTrabajo.ERROR && !vencido(existente)) {
+                existente.usuarios.add(usuario);
+                return existente;
+            }
+            String id = UUID.randomUUID().toString();
+            trabajo = new Trabajo(id, tipo, clave, nombreArchivo, Paths.get(directorio, id + ".pdf"));
+            trabajo.usuarios.add(usuario);
+            porId.put(id, trabajo);
+            porClave.put(clave, trabajo);
+        }
+
+        try {
+            trabajosExportacionExecutor.execute(() -> ejecutar(trabajo, generador));
+        } catch (TaskRejectedException e) {
+            descartar(trabajo);
+            throw new IllegalStateException("Hay demasiadas exportaciones en curso. Intente nuevamente en unos minutos");
+        }
+        return trabajo;
+    }
+
+    /**
+     * Trabajo vigente pedido por el usuario, o null si no existe, venció o es de otro usuario
+     */
+    public Trabajo obtener(String id, String usuario) {
+        purgarVencidos();
+        Trabajo trabajo = porId.get(id);
+        if (trabajo == null || !trabajo.permitido(usuario)) {
+            return null;
+        }
+        return trabajo;
+    }
+
+    private void ejecutar(Trabajo trabajo, Generador generador) {
+        trabajo.estado = EstadoTrabajo.EN_PROCESO;
+        Path temporal = trabajo.archivo.resolveSibling(trabajo.id + ".tmp");
+        try {
+            Files.createDirectories(temporal.getParent());
+            try (OutputStream salida = new BufferedOutputStream(Files.newOutputStream(temporal))) {
+                generador.escribir(salida, porcentaje -> trabajo.progreso = porcentaje);
+            }
+            // Se publica completo: nunca se descarga un PDF a medio escribir
+            Files.move(temporal, trabajo.archivo, StandardCopyOption.ATOMIC_MOVE);
+            trabajo.progreso = 100;
+            trabajo.estado = EstadoTrabajo.COMPLETADO;
+        } catch (Exception e) {
+            log.warn("Exportación {} ({}) fallida", trabajo.id, trabajo.tipo, e);
+            borrar(temporal);
+            // El detalle queda en el log; al cliente solo se le informa que falló
+            trabajo.error = "Error al generar el archivo. Intente nuevamente";
+            trabajo.estado = EstadoTrabajo.ERROR;
+            // Un pedido igual vuelve a intentarlo en vez de recibir este error
+            porClave.remove(trabajo.clave, trabajo);
+        } finally {
+            trabajo.terminadoEn = LocalDateTime.now();
+            trabajo.expiraEn = System.currentTimeMillis() + ttlMinutos * 60_000;
+        }
+    }
+
+    private boolean vencido(Trabajo trabajo) {
+        return trabajo.expiraEn <= System.currentTimeMillis()
+            || (trabajo.estado == EstadoTrabajo.COMPLETADO && !Files.exists(trabajo.archivo));
+    }
+
+    /**
+     * Cada minuto borra los trabajos vencidos y sus archivos, aunque nadie consulte la API
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void purgarPeriodicamente() {
+        purgarVencidos();
+    }
+
+    private void purgarVencidos() {
+        for (Trabajo trabajo : porId.values()) {
+            if (vencido(trabajo)) {
+                descartar(trabajo);
+            }
+        }
+    }
+
+    private void descartar(Trabajo trabajo) {
+        porId.remove(trabajo.id, trabajo);
+        porClave.remove(trabajo.clave, trabajo);
+        borrar(trabajo.archivo);
+    }
+
+    private static void borrar(Path archivo) {
+        try {
+            Files.deleteIfExists(archivo);
+        } catch (IOException e) {
+            log.warn("No se pudo borrar {}: {}", archivo, e.getMessage());
+        }
+    }
+
+    private static String hash(String texto) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(texto.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
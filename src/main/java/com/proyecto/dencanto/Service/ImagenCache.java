@@ -0,0 +1,105 @@
+package com.proyecto.dencanto.Service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caché en memoria (LRU, acotada por bytes) de las imágenes ya resueltas por producto y posición.
+ * Permite responder 200/304 sin consultar la base de datos. ProductoService la invalida al guardar.
+ */
+@Component
+public class ImagenCache {
+
+    /**
+     * Imagen resuelta para un producto. hash es el del contenido servido (ETag) y version el de
+     * la imagen original (el ?v= de las URLs). datos == null indica que el producto no tiene imagen.
+     */
+    public record Entrada(String hash, String version, String tipoContenido, byte[] datos, long ultimaModificacion) {
+        public boolean vacia() {
+            return datos == null;
+        }
+
+        public String etag() {
+            return "\"" + hash + "\"";
+        }
+
+        int tamano() {
+            return datos != null ? datos.length : 0;
+        }
+    }
+
+    private final long maxBytes;
+    private long bytesActuales = 0;
+    private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>(64, 0.75f, true);
+    // Generación de cada producto: sube con cada invalidación (una por producto, no por imagen)
+    private final Map<Integer, Long> generaciones = new HashMap<>();
+    private long ultimaGeneracion = 0;
+
+    public ImagenCache(@Value("${imagenes.cache.max-bytes:67108864}") long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * posicion identifica la imagen dentro del producto (p. ej. "principal" o "principal:CARD")
+     */
+    public synchronized Entrada obtener(Integer productoId, String posicion) {
+        return entradas.get(clave(productoId, posicion));
+    }
+
+    /**
+     * Generación actual del producto. Se toma antes de leer la imagen de la BD y se pasa a guardar
+     */
+    public synchronized long generacion(Integer productoId) {
+        return generaciones.getOrDefault(productoId, 0L);
+    }
+
+    /**
+     * Guarda la imagen leída en la generación indicada. Si el producto se invalidó mientras tanto,
+     * la lectura puede ser anterior al cambio y no se guarda (se volverá a leer en la próxima petición)
+     */
+    public synchronized void guardar(Integer productoId, String posicion, Entrada entrada, long generacion) {
+        if (entrada.tamano() > maxBytes || generacion != generacion(productoId)) {
+            return;
+        }
+        Entrada anterior = entradas.put(clave(productoId, posicion), entrada);
+        if (anterior != null) {
+            bytesActuales -= anterior.tamano();
+        }
+        bytesActuales += entrada.tamano();
+
+        // Expulsar las menos usadas hasta volver al límite
+        Iterator<Map.Entry<String, Entrada>> it = entradas.entrySet().iterator();
+        while (bytesActuales > maxBytes && it.hasNext()) {
+            bytesActuales -= it.next().getValue().tamano();
+            it.remove();
+        }
+    }
+
+    /**
+     * Descarta todas las imágenes de un producto (se llama al crearlo o editarlo)
+     */
+    public synchronized void invalidar(Integer productoId) {
+        if (productoId == null) {
+            return;
+        }
+        generaciones.put(productoId, ++ultimaGeneracion);
+        String prefijo = productoId + ":";
+        Iterator<Map.Entry<String, Entrada>> it = entradas.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Entrada> e = it.next();
+            if (e.getKey().startsWith(prefijo)) {
+                bytesActuales -= e.getValue().tamano();
+                it.remove();
+            }
+        }
+    }
+
+    private String clave(Integer productoId, String posicion) {
+        return productoId + ":" + posicion;
+    }
+}
@@ -0,0 +1,98 @@
+package com.proyecto.dencanto.Service;
+
+import com.proyecto.dencanto.Modelo.Imagen;
+import com.proyecto.dencanto.Repository.ImagenRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Almacén de imágenes direccionado por contenido.
+ * Cada imagen se guarda una vez con su hash SHA-256 como clave.
+ */
+@Service
+public class ImagenService {
+
+    @Autowired
+    private ImagenRepository imagenRepository;
+
+    /**
+     * Decodifica una imagen en Base64 (con o sin prefijo data:) y la guarda si aún no existe.
+     * Retorna el hash del contenido, o null si no se envió imagen.
+     */
+    @Transactional
+    public String guardarBase64(String base64) {
+        if (base64 == null || base64.isBlank()) {
+            return null;
+        }
+
+        String contenido = base64.trim();
+        int coma = contenido.indexOf(',');
+        if (contenido.startsWith("data:") && coma > 0) {
+            contenido = contenido.substring(coma + 1);
+        }
+
+        byte[] bytes;
+        try {
+            bytes = Base64.getMimeDecoder().decode(contenido);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("La imagen no tiene un formato Base64 válido");
+        }
+        return guardar(bytes);
+    }
+
+    /**
+     * Guarda los bytes de una imagen si aún no existen y retorna su hash
+     */
+    @Transactional
+    public String guardar(byte[] bytes) {
+        String hash = calcularHash(bytes);
+        if (!imagenRepository.existsById(hash)) {
+            imagenRepository.save(new Imagen(hash, bytes, detectarTipoContenido(bytes)));
+        }
+        return hash;
+    }
+
+    /**
+     * Obtiene una imagen por su hash
+     */
+    public Optional<Imagen> obtener(String hash) {
+        if (hash == null || hash.isEmpty()) {
+            return Optional.empty();
+        }
+        return imagenRepository.findById(hash);
+    }
+
+    private String calcularHash(byte[] bytes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Detecta el tipo MIME a partir de la firma del archivo (JPEG por defecto)
+     */
+    private String detectarTipoContenido(byte[] b) {
+        if (b.length >= 8 && (b[0] & 0xFF) == 0x89 && b[1] == 'P' && b[2] == 'N' && b[3] == 'G') {
+            return MediaType.IMAGE_PNG_VALUE;
+        }
+        if (b.length >= 6 && b[0] == 'G' && b[1] == 'I' && b[2] == 'F') {
+            return MediaType.IMAGE_GIF_VALUE;
+        }
+        if (b.length >= 12 && b[0] == 'R' && b[1] == 'I' && b[2] == 'F' && b[3] == 'F'
+                && b[8] == 'W' && b[9] == 'E' && b[10] == 'B' && b[11] == 'P') {
+            return "image/webp";
+        }
+        return MediaType.IMAGE_JPEG_VALUE;
+    }
+}
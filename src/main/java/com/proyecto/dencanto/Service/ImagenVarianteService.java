@@ -0,0 +1,147 @@
+package com.proyecto.dencanto.Service;
+
+import com.proyecto.dencanto.Modelo.Imagen;
+import com.proyecto.dencanto.Modelo.ImagenVariante;
+import com.proyecto.dencanto.Modelo.VarianteImagen;
+import com.proyecto.dencanto.Repository.ImagenVarianteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Genera y consulta las versiones redimensionadas (thumbnail, card, detail) de las imágenes.
+ * Las variantes se generan una sola vez por imagen original en segundo plano y se guardan
+ * en el mismo almacén de imágenes.
+ */
+@Service
+public class ImagenVarianteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImagenVarianteService.class);
+    private static final float CALIDAD_JPEG = 0.85f;
+
+    @Autowired
+    private ImagenService imagenService;
+
+    @Autowired
+    private ImagenVarianteRepository imagenVarianteRepository;
+
+    @Autowired
+    @Qualifier("imagenesExecutor")
+    private Executor imagenesExecutor;
+
+    // Imágenes encoladas o en proceso ahora mismo (evita encolar trabajo duplicado)
+    private final Set<String> enProceso = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Retorna el hash de la variante si ya fue generada
+     */
+    public Optional<String> obtenerHashVariante(String hashOriginal, VarianteImagen variante) {
+        return imagenVarianteRepository.findByHashOriginalAndVariante(hashOriginal, variante)
+                .map(ImagenVariante::getHashVariante);
+    }
+
+    /**
+     * Genera en segundo plano las variantes que falten para una imagen original. Si la imagen ya
+     * está encolada no se vuelve a encolar, y con la cola llena se descarta: la siguiente
+     * petición de la imagen lo intenta de nuevo
+     */
+    public void generarVariantes(String hashOriginal) {
+        if (hashOriginal == null || !enProceso.add(hashOriginal)) {
+            return;
+        }
+        try {
+            imagenesExecutor.execute(() -> generar(hashOriginal));
+        } catch (TaskRejectedException e) {
+            enProceso.remove(hashOriginal);
+            logger.debug("Cola de imágenes llena, variantes de {} pospuestas", hashOriginal);
+        }
+    }
+
+    private void generar(String hashOriginal) {
+        try {
+            Optional<Imagen> original = imagenService.obtener(hashOriginal);
+            if (original.isEmpty()) {
+                return;
+            }
+
+            BufferedImage imagen = ImageIO.read(new ByteArrayInputStream(original.get().getDatos()));
+            if (imagen == null) {
+                logger.warn("Formato de imagen no soportado para variantes: {}", hashOriginal);
+                return;
+            }
+
+            for (VarianteImagen variante : VarianteImagen.values()) {
+                if (imagenVarianteRepository.existsByHashOriginalAndVariante(hashOriginal, variante)) {
+                    continue;
+                }
+                // Si la original ya es más pequeña, la variante es la misma imagen
+                String hashVariante = imagen.getWidth() <= variante.getAnchoMaximo()
+                        ? hashOriginal
+                        : imagenService.guardar(redimensionar(imagen, variante.getAnchoMaximo()));
+                try {
+                    imagenVarianteRepository.save(new ImagenVariante(hashOriginal, variante, hashVariante));
+                } catch (DataIntegrityViolationException e) {
+                    // Otra instancia ya registró esta variante
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error al generar variantes de la imagen {}: {}", hashOriginal, e.getMessage());
+        } finally {
+            enProceso.remove(hashOriginal);
+        }
+    }
+
+    /**
+     * Escala la imagen a un ancho máximo conservando la proporción y la codifica como JPEG
+     */
+    private byte[] redimensionar(BufferedImage origen, int anchoMaximo) throws IOException {
+        int ancho = anchoMaximo;
+        int alto = Math.max(1, Math.round(origen.getHeight() * (anchoMaximo / (float) origen.getWidth())));
+
+        BufferedImage destino = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = destino.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE); // fondo blanco para PNG con transparencia
+            g.fillRect(0, 0, ancho, alto);
+            g.drawImage(origen, 0, 0, ancho, alto, null);
+        } finally {
+            g.dispose();
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ImageOutputStream salida = ImageIO.createImageOutputStream(baos)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(CALIDAD_JPEG);
+            writer.setOutput(salida);
+            writer.write(null, new IIOImage(destino, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return baos.toByteArray();
+    }
+}
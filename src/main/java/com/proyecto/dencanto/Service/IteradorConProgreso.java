@@ -0,0 +1,51 @@
+package com.proyecto.dencanto.Service;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+/**
+ * Envuelve las filas que se escriben en una exportación e informa el porcentaje avanzado
+ * (0-99; el 100 lo marca quien termina el archivo). Las filas seguidas con la misma clave
+ * cuentan una sola vez, como las líneas de una misma venta en el historial.
+ */
+final class IteradorConProgreso<T> implements Iterator<T> {
+
+    private final Iterator<T> origen;
+    private final long total;
+    private final Function<T, Object> clave;
+    private final IntConsumer progreso;
+
+    private Object claveAnterior;
+    private long contados = 0;
+    private int ultimoPorcentaje = -1;
+
+    IteradorConProgreso(Iterator<T> origen, long total, Function<T, Object> clave, IntConsumer progreso) {
+        this.origen = origen;
+        this.total = total;
+        this.clave = clave;
+        this.progreso = progreso;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return origen.hasNext();
+    }
+
+    @Override
+    public T next() {
+        T elemento = origen.next();
+        Object actual = clave.apply(elemento);
+        if (contados == 0 || !Objects.equals(actual, claveAnterior)) {
+            contados++;
+            claveAnterior = actual;
+            int porcentaje = total > 0 ? (int) Math.min(99, contados * 100 / total) : 0;
+            if (porcentaje != ultimoPorcentaje) {
+                ultimoPorcentaje = porcentaje;
+                progreso.accept(porcentaje);
+            }
+        }
+        return elemento;
+    }
+}
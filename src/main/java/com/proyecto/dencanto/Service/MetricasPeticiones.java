@@ -0,0 +1,148 @@
+package com.proyecto.dencanto.Service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas de peticiones en memoria: contadores por código de estado e histograma de latencia
+ * por método, ruta (patrón del controlador, no la URL) y resultado de autenticación.
+ * Las registra MetricasFilter y se consultan en /intranet/api/metrics.
+ */
+@Component
+public class MetricasPeticiones {
+
+    // Límites superiores de los buckets del histograma, en milisegundos (el último es infinito)
+    private static final long[] LIMITES_MS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000};
+
+    private static final String OTRAS_RUTAS = "(otras)";
+
+    private record Clave(String metodo, String ruta, String autenticacion) {}
+
+    private static final class Serie {
+        final LongAdder peticiones = new LongAdder();
+        // 1xx-2xx, 3xx, 4xx, 5xx
+        final LongAdder[] porEstado = {new LongAdder(), new LongAdder(), new LongAdder(), new LongAdder()};
+        final LongAdder sumaNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+        final LongAdder[] buckets = new LongAdder[LIMITES_MS.length + 1];
+
+        Serie() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+    }
+
+    private final int maxSeries;
+    private final ConcurrentHashMap<Clave, Serie> series = new ConcurrentHashMap<>();
+    private volatile Instant desde = Instant.now();
+
+    public MetricasPeticiones(@Value("${metricas.max-series:500}") int maxSeries) {
+        this.maxSeries = maxSeries;
+    }
+
+    public void registrar(String metodo, String ruta, String autenticacion, int estado, long nanos) {
+        Clave clave = new Clave(metodo, ruta, autenticacion);
+        Serie serie = series.get(clave);
+        if (serie == null) {
+            // Límite de cardinalidad: las rutas nuevas se agrupan cuando ya hay demasiadas series
+            if (series.size() >= maxSeries) {
+                clave = new Clave(metodo, OTRAS_RUTAS, autenticacion);
+            }
+            serie = series.computeIfAbsent(clave, c -> new Serie());
+        }
+
+        serie.peticiones.increment();
+        serie.porEstado[Math.max(0, Math.min(3, estado / 100 - 2))].increment();
+        serie.sumaNanos.add(nanos);
+        serie.maxNanos.accumulateAndGet(nanos, Math::max);
+        serie.buckets[bucket(nanos)].increment();
+    }
+
+    /**
+     * Instantánea de todas las series, las más usadas primero
+     */
+    public Map<String, Object> resumen() {
+        List<Map<String, Object>> lista = new ArrayList<>();
+        series.forEach((clave, serie) -> lista.add(resumenSerie(clave, serie)));
+        lista.sort(Comparator.comparingLong((Map<String, Object> m) -> (Long) m.get("peticiones")).reversed());
+
+        Map<String, Object> resumen = new HashMap<>();
+        resumen.put("desde", desde.toString());
+        resumen.put("limitesMs", LIMITES_MS);
+        resumen.put("series", lista);
+        return resumen;
+    }
+
+    public void reiniciar() {
+        series.clear();
+        desde = Instant.now();
+    }
+
+    private Map<String, Object> resumenSerie(Clave clave, Serie serie) {
+        long peticiones = serie.peticiones.sum();
+        long[] buckets = new long[serie.buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = serie.buckets[i].sum();
+        }
+
+        Map<String, Object> estados = new LinkedHashMap<>();
+        estados.put("2xx", serie.porEstado[0].sum());
+        estados.put("3xx", serie.porEstado[1].sum());
+        estados.put("4xx", serie.porEstado[2].sum());
+        estados.put("5xx", serie.porEstado[3].sum());
+
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("metodo", clave.metodo());
+        datos.put("ruta", clave.ruta());
+        datos.put("autenticacion", clave.autenticacion());
+        datos.put("peticiones", peticiones);
+        datos.put("estados", estados);
+        datos.put("promedioMs", peticiones > 0 ? redondear(serie.sumaNanos.sum() / 1e6 / peticiones) : 0.0);
+        datos.put("p50Ms", percentil(buckets, peticiones, 0.50));
+        datos.put("p90Ms", percentil(buckets, peticiones, 0.90));
+        datos.put("p99Ms", percentil(buckets, peticiones, 0.99));
+        datos.put("maxMs", redondear(serie.maxNanos.get() / 1e6));
+        datos.put("histograma", buckets);
+        return datos;
+    }
+
+    /**
+     * Límite superior del bucket donde cae el percentil (null si cae en el último, sin límite)
+     */
+    private static Long percentil(long[] buckets, long total, double p) {
+        if (total == 0) return 0L;
+        long objetivo = (long) Math.ceil(total * p);
+        long acumulado = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            acumulado += buckets[i];
+            if (acumulado >= objetivo) {
+                return i < LIMITES_MS.length ? LIMITES_MS[i] : null;
+            }
+        }
+        return null;
+    }
+
+    private static int bucket(long nanos) {
+        long ms = nanos / 1_000_000;
+        for (int i = 0; i < LIMITES_MS.length; i++) {
+            if (ms < LIMITES_MS[i]) return i;
+        }
+        return LIMITES_MS.length;
+    }
+
+    private static double redondear(double valor) {
+        return Math.round(valor * 100.0) / 100.0;
+    }
+}
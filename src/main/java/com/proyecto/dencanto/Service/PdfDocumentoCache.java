@@ -0,0 +1,136 @@
+package com.proyecto.dencanto.Service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+/**
+ * Caché en disco de los PDFs por documento (comprobante de venta, cotización). Cada archivo se
+ * nombra con el tipo, el id y el hash de la versión del documento (tipo-id-hash.pdf): si el
+ * documento cambia, su versión cambia y la entrada anterior deja de usarse. El mismo hash es el
+ * ETag de la respuesta. Los servicios llaman a invalidar al cambiar el estado para borrar las
+ * versiones viejas del disco.
+ */
+@Component
+public class PdfDocumentoCache {
+
+    private static final Logger log = LoggerFactory.getLogger(PdfDocumentoCache.class);
+
+    @Value("${pdf.cache.directorio:${java.io.tmpdir}/dencanto-pdf}")
+    private String directorio;
+
+    /**
+     * Genera el contenido del PDF cuando no está en disco
+     */
+    @FunctionalInterface
+    public interface Generador {
+        byte[] generar() throws Exception;
+    }
+
+    /**
+     * ETag del documento en esa versión
+     */
+    public String etag(String tipo, Object id, String version) {
+        return "\"" + nombre(tipo, id, version) + "\"";
+    }
+
+    /**
+     * PDF guardado para esa versión; si no existe se genera, se guarda y se borran las versiones
+     * anteriores del mismo documento
+     */
+    public byte[] obtener(String tipo, Object id, String version, Generador generador) throws Exception {
+        Path archivo = Paths.get(directorio, nombre(tipo, id, version) + ".pdf");
+        try {
+            return Files.readAllBytes(archivo);
+        } catch (NoSuchFileException e) {
+            // Primera descarga de esta versión
+        }
+
+        byte[] pdf = generador.generar();
+        Path temporal = archivo.resolveSibling(UUID.randomUUID() + ".tmp");
+        try {
+            Files.createDirectories(archivo.getParent());
+            Files.write(temporal, pdf);
+            // Se publica completo: dos descargas a la vez escriben el mismo contenido
+            Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            borrarVersiones(tipo, id, archivo);
+        } catch (IOException e) {
+            // Sin caché igual se entrega el PDF
+            log.warn("No se pudo guardar {} en la caché de PDFs: {}", archivo.getFileName(), e.getMessage());
+            borrar(temporal);
+        }
+        return pdf;
+    }
+
+    /**
+     * Borra los PDFs guardados del documento. Dentro de una transacción se hace al confirmarla;
+     * si una descarga en curso guarda después la versión anterior, su hash ya no coincide y se
+     * borra con la siguiente versión
+     */
+    public void invalidar(String tipo, Object id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    borrarVersiones(tipo, id, null);
+                }
+            });
+        } else {
+            borrarVersiones(tipo, id, null);
+        }
+    }
+
+    private void borrarVersiones(String tipo, Object id, Path conservar) {
+        Path carpeta = Paths.get(directorio);
+        if (!Files.isDirectory(carpeta)) {
+            return;
+        }
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(carpeta, tipo + "-" + id + "-*.pdf")) {
+            for (Path archivo : archivos) {
+                if (!archivo.equals(conservar)) {
+                    borrar(archivo);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("No se pudo limpiar la caché de PDFs de {} {}: {}", tipo, id, e.getMessage());
+        }
+    }
+
+    private static void borrar(Path archivo) {
+        try {
+            Files.deleteIfExists(archivo);
+        } catch (IOException e) {
+            log.warn("No se pudo borrar {}: {}", archivo, e.getMessage());
+        }
+    }
+
+    private static String nombre(String tipo, Object id, String version) {
+        return tipo + "-" + id + "-" + hash(version).substring(0, 16);
+    }
+
+    private static String hash(String texto) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(texto.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
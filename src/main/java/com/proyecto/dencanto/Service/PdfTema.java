@@ -0,0 +1,150 @@
+package com.proyecto.dencanto.Service;
+
+import com.lowagie.text.*;
+import com.lowagie.text.pdf.*;
+import org.springframework.stereotype.Component;
+
+import java.awt.Color;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tema compartido de los PDFs (ventas, cotizaciones y reportes): paleta, fuentes, plantillas
+ * de celdas y el pie de página numerado. Las fuentes se crean una sola vez por combinación y se
+ * reutilizan en todos los documentos y sesiones, así que nadie debe modificarlas (setColor,
+ * setSize...): para otro color se pide otra fuente. Las celdas y tablas sí son nuevas en cada
+ * llamada, porque OpenPDF las modifica al maquetar.
+ */
+@Component
+public class PdfTema {
+
+    public static final Color PRIMARIO = new Color(212, 165, 40);      // Dorado principal #D4A528
+    public static final Color NEGRO = new Color(26, 26, 26);           // Negro principal #1a1a1a
+    public static final Color EXITO = new Color(40, 167, 69);          // Verde (para estados)
+    public static final Color ADVERTENCIA = new Color(255, 193, 7);    // Amarillo (para estados)
+    public static final Color PELIGRO = new Color(220, 53, 69);        // Rojo (para estados)
+    public static final Color INFO = new Color(23, 162, 184);          // Cyan (para estados)
+    public static final Color AZUL = new Color(0, 123, 255);           // Azul (cotización contactada)
+    public static final Color MORADO = new Color(111, 66, 193);        // Morado (venta entregada)
+    public static final Color CIAN = new Color(13, 202, 240);          // Cyan claro (KPIs del reporte)
+    public static final Color FONDO = new Color(245, 245, 245);        // Gris muy claro para filas
+    public static final Color FONDO_KPI = new Color(248, 249, 250);    // Fondo de KPIs del reporte
+    public static final Color BORDE = new Color(222, 226, 230);        // Borde gris de celdas
+
+    private record ClaveFuente(float tamano, int estilo, Color color) {}
+
+    private final Map<ClaveFuente, Font> fuentes = new ConcurrentHashMap<>();
+
+    private final PdfPageEventHelper piePaginaNumerado = new PiePaginaNumerado();
+
+    /**
+     * Fuente Helvetica compartida del tamaño, estilo y color indicados
+     */
+    public Font fuente(float tamano, int estilo, Color color) {
+        return fuentes.computeIfAbsent(new ClaveFuente(tamano, estilo, color),
+            c -> new Font(Font.HELVETICA, c.tamano(), c.estilo(), c.color()));
+    }
+
+    /**
+     * Pie "Colchones D'Encanto - Sistema de Gestión | Página N" de cada página. No guarda
+     * estado, así que la misma instancia sirve para todos los documentos
+     */
+    public PdfPageEventHelper piePaginaNumerado() {
+        return piePaginaNumerado;
+    }
+
+    public Paragraph parrafo(String texto, Font font, int alineacion) {
+        Paragraph parrafo = new Paragraph(texto, font);
+        parrafo.setAlignment(alineacion);
+        return parrafo;
+    }
+
+    /**
+     * Línea dorada a todo el ancho, dibujada como el borde superior o inferior de una celda vacía
+     */
+    public PdfPTable lineaDecorativa(int borde, float grosor) {
+        PdfPTable linea = new PdfPTable(1);
+        linea.setWidthPercentage(100);
+        PdfPCell celdaLinea = new PdfPCell();
+        celdaLinea.setBorder(borde);
+        celdaLinea.setBorderWidth(grosor);
+        celdaLinea.setBorderColor(PRIMARIO);
+        celdaLinea.setFixedHeight(5);
+        linea.addCell(celdaLinea);
+        return linea;
+    }
+
+    /**
+     * Encabezado de columna: texto blanco sobre negro, centrado
+     */
+    public PdfPCell celdaEncabezado(String texto, float tamano, float padding) {
+        PdfPCell cell = new PdfPCell(new Phrase(texto, fuente(tamano, Font.BOLD, Color.WHITE)));
+        cell.setBackgroundColor(NEGRO);
+        cell.setHorizontalAlignment(Element.ALIGN_CENTER);
+        cell.setVerticalAlignment(Element.ALIGN_MIDDLE);
+        cell.setPadding(padding);
+        return cell;
+    }
+
+    /**
+     * Celda de datos de los listados, con el fondo alterno de la fila
+     */
+    public PdfPCell celdaTabla(String texto, Font font, Color fondo, int alineacion) {
+        PdfPCell cell = new PdfPCell(new Phrase(texto, font));
+        cell.setBackgroundColor(fondo);
+        cell.setHorizontalAlignment(alineacion);
+        cell.setVerticalAlignment(Element.ALIGN_MIDDLE);
+        cell.setPadding(5);
+        return cell;
+    }
+
+    /**
+     * Celda sin bordes de las fichas etiqueta/valor (datos del cliente, montos...)
+     */
+    public PdfPCell celdaCampo(String texto, Font font, int alineacion) {
+        PdfPCell cell = new PdfPCell(new Phrase(texto, font));
+        cell.setBorderWidth(0);
+        cell.setHorizontalAlignment(alineacion);
+        cell.setPadding(5);
+        return cell;
+    }
+
+    /**
+     * Celda vacía que ocupa toda la fila con un mensaje centrado
+     */
+    public PdfPCell celdaVacia(String mensaje, Font font, int columnas, float padding) {
+        PdfPCell cell = new PdfPCell(new Phrase(mensaje, font));
+        cell.setColspan(columnas);
+        cell.setHorizontalAlignment(Element.ALIGN_CENTER);
+        cell.setPadding(padding);
+        return cell;
+    }
+
+    /**
+     * Tarjeta de indicador: valor grande y etiqueta debajo, centrados
+     */
+    public PdfPCell celdaIndicador(String valor, Font fontValor, String etiqueta, Font fontEtiqueta,
+                                   Color fondo, Color borde, float grosorBorde) {
+        PdfPCell cell = new PdfPCell();
+        cell.setBackgroundColor(fondo);
+        cell.setBorderWidth(grosorBorde);
+        cell.setBorderColor(borde);
+        cell.setPadding(10);
+        cell.addElement(parrafo(valor, fontValor, Element.ALIGN_CENTER));
+        cell.addElement(parrafo(etiqueta, fontEtiqueta, Element.ALIGN_CENTER));
+        return cell;
+    }
+
+    private class PiePaginaNumerado extends PdfPageEventHelper {
+        @Override
+        public void onEndPage(PdfWriter writer, Document document) {
+            PdfContentByte cb = writer.getDirectContent();
+            Phrase pie = new Phrase("Colchones D'Encanto - Sistema de Gestión | Página " +
+                                   writer.getPageNumber(), fuente(8, Font.NORMAL, Color.GRAY));
+
+            ColumnText.showTextAligned(cb, Element.ALIGN_CENTER, pie,
+                    (document.right() - document.left()) / 2 + document.leftMargin(),
+                    document.bottom() - 10, 0);
+        }
+    }
+}
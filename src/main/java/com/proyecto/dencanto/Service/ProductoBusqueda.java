@@ -0,0 +1,208 @@
+package com.proyecto.dencanto.Service;
+
+import com.proyecto.dencanto.Modelo.Producto;
+import com.proyecto.dencanto.dto.ProductoCatalogo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido en memoria para buscar productos por texto: palabra normalizada (sin tildes
+ * ni mayúsculas) → productos que la contienen, con un peso según el campo (el nombre pesa más
+ * que la descripción). Cada palabra buscada se compara como prefijo, así "colc" encuentra
+ * "colchón" mientras se escribe; todas las palabras deben aparecer y el resultado se ordena
+ * por relevancia. Se construye en la primera búsqueda a partir del catálogo en memoria y
+ * ProductoService lo actualiza al guardar.
+ */
+@Component
+public class ProductoBusqueda {
+
+    // Peso de cada campo en la relevancia
+    private static final float PESO_NOMBRE = 4f;
+    private static final float PESO_CATEGORIA = 3f;
+    private static final float PESO_MATERIAL = 2f;
+    private static final float PESO_FIRMEZA = 2f;
+    private static final float PESO_DESCRIPCION = 1f;
+    private static final float PESO_CARACTERISTICAS = 1f;
+
+    // Una coincidencia solo por prefijo vale menos que la palabra completa
+    private static final float FACTOR_PREFIJO = 0.5f;
+
+    @Autowired
+    private CatalogoProductos catalogoProductos;
+
+    // palabra → (producto → peso); ordenado para recorrer los prefijos con subMap
+    private final TreeMap<String, Map<Integer, Float>> indice = new TreeMap<>();
+
+    // producto → palabras indexadas, para quitarlas al reindexarlo
+    private final Map<Integer, Map<String, Float>> palabrasPorProducto = new HashMap<>();
+
+    // Nombre normalizado, para desempatar resultados con igual relevancia
+    private final Map<Integer, String> nombres = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean construido = false;
+
+    /**
+     * Ids de los productos que contienen todas las palabras del término (como palabra o prefijo),
+     * de mayor a menor relevancia. Lista vacía si el término no tiene palabras
+     */
+    public List<Integer> buscar(String termino) {
+        List<String> palabras = palabras(termino);
+        if (palabras.isEmpty()) {
+            return List.of();
+        }
+        construirSiHaceFalta();
+
+        lock.readLock().lock();
+        try {
+            Map<Integer, Float> puntajes = null;
+            for (String palabra : palabras) {
+                Map<Integer, Float> coincidencias = coincidencias(palabra);
+                if (puntajes == null) {
+                    puntajes = coincidencias;
+                } else {
+                    // Intersección: el producto debe contener todas las palabras
+                    Map<Integer, Float> acumulado = puntajes;
+                    puntajes = new HashMap<>();
+                    for (Map.Entry<Integer, Float> e : coincidencias.entrySet()) {
+                        Float previo = acumulado.get(e.getKey());
+                        if (previo != null) {
+                            puntajes.put(e.getKey(), previo + e.getValue());
+                        }
+                    }
+                }
+                if (puntajes.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            Map<Integer, Float> resultado = puntajes;
+            List<Integer> ids = new ArrayList<>(resultado.keySet());
+            ids.sort(Comparator.<Integer>comparingDouble(id -> -resultado.get(id))
+                .thenComparing(id -> nombres.getOrDefault(id, ""))
+                .thenComparing(id -> id));
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indexa (o reindexa) un producto recién guardado
+     */
+    public void indexar(Producto producto) {
+        lock.writeLock().lock();
+        try {
+            // Si aún no se construyó, la construcción lo tomará del catálogo
+            if (construido) {
+                agregar(producto.getId(), producto.getNombre(), producto.getCategoria(), producto.getMaterial(),
+                    producto.getFirmeza(), producto.getDescripcion(), producto.getCaracteristicas());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void construirSiHaceFalta() {
+        if (construido) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (construido) {
+                return;
+            }
+            for (ProductoCatalogo p : catalogoProductos.obtener().productos()) {
+                agregar(p.getId(), p.getNombre(), p.getCategoria(), p.getMaterial(),
+                    p.getFirmeza(), p.getDescripcion(), p.getCaracteristicas());
+            }
+            construido = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Productos cuya palabra empieza por la buscada, con el mejor peso de cada producto
+     */
+    private Map<Integer, Float> coincidencias(String palabra) {
+        Map<Integer, Float> resultado = new HashMap<>();
+        NavigableMap<String, Map<Integer, Float>> conPrefijo = indice.subMap(palabra, true, palabra + Character.MAX_VALUE, false);
+        for (Map.Entry<String, Map<Integer, Float>> entrada : conPrefijo.entrySet()) {
+            float factor = entrada.getKey().equals(palabra) ? 1f : FACTOR_PREFIJO;
+            for (Map.Entry<Integer, Float> e : entrada.getValue().entrySet()) {
+                resultado.merge(e.getKey(), e.getValue() * factor, Math::max);
+            }
+        }
+        return resultado;
+    }
+
+    // Se llama con el lock de escritura tomado
+    private void agregar(Integer id, String nombre, String categoria, String material,
+                         String firmeza, String descripcion, String caracteristicas) {
+        quitar(id);
+
+        Map<String, Float> pesos = new HashMap<>();
+        sumar(pesos, nombre, PESO_NOMBRE);
+        sumar(pesos, categoria, PESO_CATEGORIA);
+        sumar(pesos, material, PESO_MATERIAL);
+        sumar(pesos, firmeza, PESO_FIRMEZA);
+        sumar(pesos, descripcion, PESO_DESCRIPCION);
+        sumar(pesos, caracteristicas, PESO_CARACTERISTICAS);
+
+        for (Map.Entry<String, Float> e : pesos.entrySet()) {
+            indice.computeIfAbsent(e.getKey(), k -> new HashMap<>()).put(id, e.getValue());
+        }
+        palabrasPorProducto.put(id, pesos);
+        nombres.put(id, nombre != null ? TextoNormalizado.normalizar(nombre) : "");
+    }
+
+    private void quitar(Integer id) {
+        Map<String, Float> anteriores = palabrasPorProducto.remove(id);
+        if (anteriores == null) {
+            return;
+        }
+        for (String palabra : anteriores.keySet()) {
+            Map<Integer, Float> productos = indice.get(palabra);
+            if (productos != null) {
+                productos.remove(id);
+                if (productos.isEmpty()) {
+                    indice.remove(palabra);
+                }
+            }
+        }
+        nombres.remove(id);
+    }
+
+    private static void sumar(Map<String, Float> pesos, String texto, float peso) {
+        for (String palabra : palabras(texto)) {
+            pesos.merge(palabra, peso, Float::sum);
+        }
+    }
+
+    /**
+     * Palabras normalizadas del texto (letras y números; el resto separa palabras)
+     */
+    private static List<String> palabras(String texto) {
+        String normalizado = TextoNormalizado.normalizar(texto);
+        if (normalizado == null || normalizado.isEmpty()) {
+            return List.of();
+        }
+        List<String> palabras = new ArrayList<>();
+        for (String palabra : normalizado.split("[^\\p{L}\\p{N}]+")) {
+            if (!palabra.isEmpty()) {
+                palabras.add(palabra);
+            }
+        }
+        return palabras;
+    }
+}
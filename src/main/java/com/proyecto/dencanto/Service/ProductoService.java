@@ -2,11 +2,23 @@ package com.proyecto.dencanto.Service;
 
 import com.proyecto.dencanto.Modelo.Producto;
 import com.proyecto.dencanto.Repository.ProductoRepository;
+import com.proyecto.dencanto.dto.ProductoCatalogo;
+import com.proyecto.dencanto.dto.ProductoResumen;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 @Service
 public class ProductoService {
@@ -14,12 +26,112 @@ public class ProductoService {
     @Autowired
     private ProductoRepository productoRepository;
 
-    public List<Producto> obtenerTodos() {
-        return productoRepository.findAll();
+    @Autowired
+    private ImagenService imagenService;
+
+    @Autowired
+    private ImagenCache imagenCache;
+
+    @Autowired
+    private ImagenVarianteService imagenVarianteService;
+
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    @Autowired
+    private ProductoBusqueda productoBusqueda;
+
+    @Autowired
+    private CatalogoProductos catalogoProductos;
+
+    /**
+     * Todos los productos (resumen), desde el catálogo en memoria
+     */
+    public List<ProductoResumen> obtenerTodos() {
+        return catalogoProductos.obtener().resumen();
     }
 
+    /**
+     * Productos para la página pública de catálogo (con ficha técnica, sin imágenes),
+     * desde el catálogo en memoria
+     */
+    public List<ProductoCatalogo> obtenerCatalogo() {
+        return catalogoProductos.obtener().productos();
+    }
+
+    /**
+     * Categorías distintas de los productos
+     */
+    public List<String> obtenerCategorias() {
+        return catalogoProductos.obtener().categorias();
+    }
+
+    @Transactional
     public Producto guardar(Producto producto) {
-        return productoRepository.save(producto);
+        asignarImagenes(producto);
+        Producto guardado = productoRepository.save(producto);
+
+        Integer id = guardado.getId();
+        List<String> hashes = Stream.of(guardado.getImagenPrincipalHash(),
+                guardado.getImagenTecnica1Hash(), guardado.getImagenTecnica2Hash())
+            .filter(Objects::nonNull)
+            .distinct()
+            .toList();
+        alConfirmar(() -> {
+            catalogoProductos.actualizar(guardado);
+            productoBusqueda.indexar(guardado);
+            imagenCache.invalidar(id);
+            hashes.forEach(imagenVarianteService::generarVariantes);
+        });
+        eventos.publishEvent(new DatosNegocioCambiadosEvent("producto"));
+        return guardado;
+    }
+
+    /**
+     * Ejecuta la acción una vez confirmada la transacción (invalidar la caché de imágenes y
+     * generar variantes), para que nadie vuelva a leer ni cachear la versión anterior
+     */
+    private void alConfirmar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+
+    /**
+     * Pasa las imágenes Base64 recibidas al almacén de imágenes y deja solo su hash.
+     * Si en una edición no llega imagen nueva, se conserva la que ya tenía el producto.
+     */
+    private void asignarImagenes(Producto producto) {
+        Producto existente = producto.getId() != null
+            ? productoRepository.findById(producto.getId()).orElse(null)
+            : null;
+
+        String principal = imagenService.guardarBase64(producto.getImagenPrincipal());
+        String tecnica1 = imagenService.guardarBase64(producto.getImagenTecnica1());
+        String tecnica2 = imagenService.guardarBase64(producto.getImagenTecnica2());
+
+        producto.setImagenPrincipalHash(principal != null ? principal
+            : existente != null ? existente.getImagenPrincipalHash() : producto.getImagenPrincipalHash());
+        producto.setImagenTecnica1Hash(tecnica1 != null ? tecnica1
+            : existente != null ? existente.getImagenTecnica1Hash() : producto.getImagenTecnica1Hash());
+        producto.setImagenTecnica2Hash(tecnica2 != null ? tecnica2
+            : existente != null ? existente.getImagenTecnica2Hash() : producto.getImagenTecnica2Hash());
+
+        // El formulario no envía la versión: se toma la actual para que la edición no se trate como nueva
+        if (producto.getVersion() == null && existente != null) {
+            producto.setVersion(existente.getVersion());
+        }
+
+        producto.setImagenPrincipal(null);
+        producto.setImagenTecnica1(null);
+        producto.setImagenTecnica2(null);
     }
 
     public Producto obtenerPorId(Integer id) {
@@ -38,6 +150,8 @@ public class ProductoService {
             // Esto evita problemas con referencias de ventas anteriores
             producto.setEstado("Descontinuado");
             productoRepository.save(producto);
+            alConfirmar(() -> catalogoProductos.actualizar(producto));
+            eventos.publishEvent(new DatosNegocioCambiadosEvent("producto"));
             
         } catch (Exception e) {
             throw new Exception("No se puede eliminar este producto. Hay ventas asociadas. El producto ha sido marcado como Descontinuado.");
@@ -47,65 +161,107 @@ public class ProductoService {
     /**
      * Buscar productos por nombre
      */
-    public List<Producto> buscarPorNombre(String nombre) {
+    public List<ProductoResumen> buscarPorNombre(String nombre) {
         if (nombre == null || nombre.trim().isEmpty()) {
             return obtenerTodos();
         }
-        return productoRepository.findByNombreContainingIgnoreCase(nombre);
+        String buscado = nombre.trim().toLowerCase(Locale.ROOT);
+        return filtrar(p -> p.getNombre() != null && p.getNombre().toLowerCase(Locale.ROOT).contains(buscado));
     }
     
     /**
      * Obtener productos por categoría
      */
-    public List<Producto> obtenerPorCategoria(String categoria) {
+    public List<ProductoResumen> obtenerPorCategoria(String categoria) {
         if (categoria == null || categoria.trim().isEmpty()) {
             return obtenerTodos();
         }
-        return productoRepository.findByCategoria(categoria);
+        return filtrar(p -> categoria.equals(p.getCategoria()));
     }
     
     /**
      * Obtener productos por estado
      */
-    public List<Producto> obtenerPorEstado(String estado) {
+    public List<ProductoResumen> obtenerPorEstado(String estado) {
         if (estado == null || estado.trim().isEmpty()) {
             return obtenerTodos();
         }
-        return productoRepository.findByEstado(estado);
+        return filtrar(p -> estado.equals(p.getEstado()));
     }
     
     /**
-     * Búsqueda avanzada por término
+     * Búsqueda por texto con el índice en memoria (nombre, categoría, descripción, material,
+     * firmeza y características), ordenada por relevancia
      */
-    public List<Producto> buscarPorTermino(String termino) {
+    public List<ProductoResumen> buscarPorTermino(String termino) {
         if (termino == null || termino.trim().isEmpty()) {
             return obtenerTodos();
         }
-        return productoRepository.buscarPorTermino(termino);
+        List<Integer> ids = productoBusqueda.buscar(termino);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return enOrden(ids, p -> true);
     }
     
     /**
      * Filtrar por rango de precios
      */
-    public List<Producto> filtrarPorPrecio(Double precioMin, Double precioMax) {
-        return productoRepository.filtrarPorPrecio(precioMin, precioMax);
+    public List<ProductoResumen> filtrarPorPrecio(Double precioMin, Double precioMax) {
+        return filtrar(p -> p.getPrecio() != null
+            && (precioMin == null || p.getPrecio() >= precioMin)
+            && (precioMax == null || p.getPrecio() <= precioMax));
     }
     
     /**
      * Obtener productos disponibles (stock > 0)
      */
-    public List<Producto> productosDisponibles() {
-        return productoRepository.productosDisponibles();
+    public List<ProductoResumen> productosDisponibles() {
+        return obtenerTodos().stream()
+            .filter(p -> p.getStock() != null && p.getStock() > 0)
+            .sorted(Comparator.comparing(ProductoResumen::getStock).reversed())
+            .toList();
     }
     
     /**
-     * Filtro completo: término + categoría + estado
+     * Filtro completo: término (índice de búsqueda, por relevancia) + categoría + estado
      */
-    public List<Producto> filtroCompleto(String termino, String categoria, String estado) {
-        termino = (termino == null || termino.trim().isEmpty()) ? "" : termino.trim();
-        categoria = (categoria == null || categoria.trim().isEmpty()) ? "" : categoria.trim();
-        estado = (estado == null || estado.trim().isEmpty()) ? "" : estado.trim();
+    public List<ProductoResumen> filtroCompleto(String termino, String categoria, String estado) {
+        String cat = (categoria == null || categoria.trim().isEmpty()) ? "" : categoria.trim();
+        String est = (estado == null || estado.trim().isEmpty()) ? "" : estado.trim();
+        Predicate<ProductoResumen> condicion = p ->
+            (cat.isEmpty() || cat.equals(p.getCategoria())) && (est.isEmpty() || est.equals(p.getEstado()));
         
-        return productoRepository.filtroCompleto(termino, categoria, estado);
+        if (termino == null || termino.trim().isEmpty()) {
+            return filtrar(condicion);
+        }
+        List<Integer> ids = productoBusqueda.buscar(termino);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return enOrden(ids, condicion);
+    }
+    
+    /**
+     * Productos del catálogo en memoria que cumplen la condición, ordenados por id
+     */
+    private List<ProductoResumen> filtrar(Predicate<ProductoResumen> condicion) {
+        return obtenerTodos().stream().filter(condicion).toList();
+    }
+    
+    /**
+     * Productos del catálogo en el orden de los ids del índice (los que no están o no cumplen
+     * la condición se omiten)
+     */
+    private List<ProductoResumen> enOrden(List<Integer> ids, Predicate<ProductoResumen> condicion) {
+        Map<Integer, ProductoResumen> porId = catalogoProductos.obtener().resumenPorId();
+        List<ProductoResumen> ordenados = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            ProductoResumen p = porId.get(id);
+            if (p != null && condicion.test(p)) {
+                ordenados.add(p);
+            }
+        }
+        return ordenados;
     }
 }
@@ -0,0 +1,112 @@
+package com.proyecto.dencanto.Service;
+
+import com.proyecto.dencanto.dto.CotizacionResumen;
+import com.proyecto.dencanto.dto.VentaLineaHistorial;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escribe las secciones del reporte en CSV (UTF-8 con BOM para que Excel respete las tildes,
+ * separado por comas y con punto decimal). Las filas se escriben a medida que llegan, sin
+ * guardarlas: quien llama decide de dónde salen (cursor de la BD o lista ya calculada).
+ */
+@Service
+public class ReporteCsvService {
+
+    private static final DateTimeFormatter FORMATO_FECHA_HORA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    public void escribirProductosVendidos(List<Map<String, Object>> productos, OutputStream salida) throws IOException {
+        Writer escritor = escritor(salida);
+        fila(escritor, "Producto", "Categoría", "Origen", "Cantidad", "Precio unitario", "Total");
+        for (Map<String, Object> producto : productos) {
+            fila(escritor, producto.get("nombre"), producto.get("categoria"), producto.get("origen"),
+                producto.get("cantidadVendida"), monto(producto.get("precioUnitario")), monto(producto.get("totalVentas")));
+        }
+        escritor.flush();
+    }
+
+    /**
+     * Una fila por línea de detalle; los datos de la venta se repiten en cada línea
+     */
+    public void escribirVentas(Iterator<VentaLineaHistorial> lineas, OutputStream salida) throws IOException {
+        Writer escritor = escritor(salida);
+        fila(escritor, "Venta", "Fecha", "Cliente", "Método de pago", "Estado", "Total venta", "Producto", "Cantidad");
+        while (lineas.hasNext()) {
+            VentaLineaHistorial linea = lineas.next();
+            fila(escritor, linea.getVentaId(), fecha(linea.getFechaCreacion()), linea.getClienteNombre(),
+                linea.getMetodoPago(), linea.getEstado(), monto(linea.getTotal()), linea.getProductoNombre(),
+                linea.getCantidad());
+        }
+        escritor.flush();
+    }
+
+    public void escribirCotizacionesCerradas(Iterator<CotizacionResumen> cotizaciones, OutputStream salida) throws IOException {
+        Writer escritor = escritor(salida);
+        fila(escritor, "Cotización", "Cliente", "Email", "Teléfono", "Total", "Fecha creación", "Fecha cierre");
+        while (cotizaciones.hasNext()) {
+            CotizacionResumen cotizacion = cotizaciones.next();
+            fila(escritor, cotizacion.getId(), cotizacion.getNombreCliente(), cotizacion.getEmail(),
+                cotizacion.getTelefono(), monto(cotizacion.getTotal()), fecha(cotizacion.getFechaCreacion()),
+                fecha(cotizacion.getFechaCierre()));
+        }
+        escritor.flush();
+    }
+
+    private static Writer escritor(OutputStream salida) throws IOException {
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        escritor.write('\uFEFF');
+        return escritor;
+    }
+
+    private static void fila(Writer escritor, Object... valores) throws IOException {
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) {
+                escritor.write(',');
+            }
+            escritor.write(campo(valores[i]));
+        }
+        escritor.write("\r\n");
+    }
+
+    /**
+     * Entre comillas si hace falta. Un texto que empieza con = + - @ se antepone con ' para que la
+     * hoja de cálculo no lo tome como fórmula (nombres de clientes escritos en la web)
+     */
+    private static String campo(Object valor) {
+        if (valor == null) {
+            return "";
+        }
+        String texto = valor.toString();
+        if (valor instanceof String && !texto.isEmpty() && "=+-@".indexOf(texto.charAt(0)) >= 0) {
+            texto = "'" + texto;
+        }
+        if (texto.indexOf(',') >= 0 || texto.indexOf('"') >= 0 || texto.indexOf('\n') >= 0 || texto.indexOf('\r') >= 0) {
+            return "\"" + texto.replace("\"", "\"\"") + "\"";
+        }
+        return texto;
+    }
+
+    // Con dos decimales y sin notación científica
+    private static BigDecimal monto(Object valor) {
+        return valor instanceof Number numero
+            ? BigDecimal.valueOf(numero.doubleValue()).setScale(2, RoundingMode.HALF_UP)
+            : null;
+    }
+
+    private static String fecha(LocalDateTime fecha) {
+        return fecha != null ? fecha.format(FORMATO_FECHA_HORA) : null;
+    }
+}
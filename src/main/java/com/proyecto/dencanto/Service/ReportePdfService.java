@@ -2,10 +2,11 @@ package com.proyecto.dencanto.Service;
 
 import com.lowagie.text.*;
 import com.lowagie.text.pdf.*;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.awt.Color;
-import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -13,26 +14,34 @@ import java.util.Map;
 
 @Service
 public class ReportePdfService {
-    private static final Color COLOR_PRIMARIO = new Color(212, 165, 40);    // Dorado principal #D4A528
-    private static final Color COLOR_DORADO_OSCURO = new Color(184, 148, 31); // Dorado hover #B8941F
-    private static final Color COLOR_NEGRO = new Color(26, 26, 26);         // Negro principal #1a1a1a
-    private static final Color COLOR_HEADER = new Color(26, 26, 26);        // Negro para headers
-    private static final Color COLOR_EXITO = new Color(40, 167, 69);        // Verde (para estados)
+
+    // Filas que se acumulan antes de pasar la tabla al documento y liberarlas
+    private static final int FILAS_POR_BLOQUE = 100;
+
+    private static final DateTimeFormatter FORMATO_GENERACION = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    @Autowired
+    private PdfTema tema;
 
     
-    public byte[] generarReporteVentas(
+    /**
+     * Escribe el reporte directamente en la salida (la respuesta HTTP), sin armar el PDF en memoria
+     */
+    public void escribirReporteVentas(
             Map<String, Object> resumen,
             List<Map<String, Object>> topProductos,
             List<Map<String, Object>> productosVendidos,
             List<Map<String, Object>> cotizacionesCerradas,
             String fechaInicio,
             String fechaFin,
-            String categoria) {
+            String categoria,
+            OutputStream salida) {
         
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+        try {
             Document document = new Document(PageSize.A4, 36, 36, 54, 36);
-            PdfWriter writer = PdfWriter.getInstance(document, baos);
-            writer.setPageEvent(new HeaderFooterPageEvent());
+            PdfWriter writer = PdfWriter.getInstance(document, salida);
+            writer.setCloseStream(false);
+            writer.setPageEvent(tema.piePaginaNumerado());
             
             document.open();
             agregarTitulo(document);
@@ -44,28 +53,22 @@ public class ReportePdfService {
             
             document.close();
             
-            return baos.toByteArray();
-            
         } catch (Exception e) {
             throw new RuntimeException("Error al generar PDF: " + e.getMessage(), e);
         }
     }
 
     private void agregarTitulo(Document document) throws DocumentException {
-        Font fontTitulo = new Font(Font.HELVETICA, 24, Font.BOLD, COLOR_PRIMARIO);
-        Paragraph titulo = new Paragraph("Colchones D'Encanto", fontTitulo);
-        titulo.setAlignment(Element.ALIGN_CENTER);
-        document.add(titulo);
+        document.add(tema.parrafo("Colchones D'Encanto", tema.fuente(24, Font.BOLD, PdfTema.PRIMARIO),
+            Element.ALIGN_CENTER));
         
-        Font fontSubtitulo = new Font(Font.HELVETICA, 16, Font.NORMAL, COLOR_HEADER);
-        Paragraph subtitulo = new Paragraph("Reporte de Ventas", fontSubtitulo);
-        subtitulo.setAlignment(Element.ALIGN_CENTER);
+        Paragraph subtitulo = tema.parrafo("Reporte de Ventas", tema.fuente(16, Font.NORMAL, PdfTema.NEGRO),
+            Element.ALIGN_CENTER);
         subtitulo.setSpacingAfter(10);
         document.add(subtitulo);
-        Font fontFecha = new Font(Font.HELVETICA, 10, Font.ITALIC, Color.GRAY);
-        String fechaGeneracion = LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss"));
-        Paragraph fecha = new Paragraph("Generado el: " + fechaGeneracion, fontFecha);
-        fecha.setAlignment(Element.ALIGN_CENTER);
+        String fechaGeneracion = LocalDateTime.now().format(FORMATO_GENERACION);
+        Paragraph fecha = tema.parrafo("Generado el: " + fechaGeneracion, tema.fuente(10, Font.ITALIC, Color.GRAY),
+            Element.ALIGN_CENTER);
         fecha.setSpacingAfter(20);
         document.add(fecha);
     }
@@ -76,7 +79,6 @@ public class ReportePdfService {
                             (categoria != null && !categoria.isEmpty());
         
         if (hayFiltros) {
-            Font fontFiltro = new Font(Font.HELVETICA, 10, Font.NORMAL, Color.DARK_GRAY);
             StringBuilder filtrosTexto = new StringBuilder("Filtros aplicados: ");
             
             if (fechaInicio != null && !fechaInicio.isEmpty()) {
@@ -89,67 +91,40 @@ public class ReportePdfService {
                 filtrosTexto.append("| Categoría: ").append(categoria);
             }
             
-            Paragraph filtros = new Paragraph(filtrosTexto.toString(), fontFiltro);
+            Paragraph filtros = new Paragraph(filtrosTexto.toString(), tema.fuente(10, Font.NORMAL, Color.DARK_GRAY));
             filtros.setSpacingAfter(15);
             document.add(filtros);
         }
     }
 
     private void agregarKPIs(Document document, Map<String, Object> resumen) throws DocumentException {
-        Font fontSeccion = new Font(Font.HELVETICA, 14, Font.BOLD, COLOR_HEADER);
-        Paragraph tituloSeccion = new Paragraph("Indicadores Clave (KPIs)", fontSeccion);
-        tituloSeccion.setSpacingBefore(10);
-        tituloSeccion.setSpacingAfter(10);
-        document.add(tituloSeccion);
+        document.add(tituloSeccion("Indicadores Clave (KPIs)"));
         PdfPTable tablaKPIs = new PdfPTable(4);
         tablaKPIs.setWidthPercentage(100);
         tablaKPIs.setSpacingAfter(20);
-        Font fontKPILabel = new Font(Font.HELVETICA, 9, Font.NORMAL, Color.GRAY);
-        Font fontKPIValor = new Font(Font.HELVETICA, 14, Font.BOLD, COLOR_PRIMARIO);
         agregarCeldaKPI(tablaKPIs, "Ventas Totales", 
-                       "S/ " + formatearNumero(getDouble(resumen, "ventasTotales")), 
-                       fontKPILabel, fontKPIValor);
+                       "S/ " + formatearNumero(getDouble(resumen, "ventasTotales")), PdfTema.PRIMARIO);
         agregarCeldaKPI(tablaKPIs, "Cotizaciones", 
-                       String.valueOf(resumen.getOrDefault("totalCotizaciones", 0)), 
-                       fontKPILabel, new Font(Font.HELVETICA, 14, Font.BOLD, COLOR_EXITO));
+                       String.valueOf(resumen.getOrDefault("totalCotizaciones", 0)), PdfTema.EXITO);
         agregarCeldaKPI(tablaKPIs, "Tasa de Conversión", 
-                       resumen.getOrDefault("tasaConversion", 0) + "%", 
-                       fontKPILabel, new Font(Font.HELVETICA, 14, Font.BOLD, new Color(13, 202, 240)));
+                       resumen.getOrDefault("tasaConversion", 0) + "%", PdfTema.CIAN);
         agregarCeldaKPI(tablaKPIs, "Días Promedio Cierre", 
-                       String.valueOf(resumen.getOrDefault("diasPromedioCierre", 0)), 
-                       fontKPILabel, new Font(Font.HELVETICA, 14, Font.BOLD, new Color(255, 193, 7)));
+                       String.valueOf(resumen.getOrDefault("diasPromedioCierre", 0)), PdfTema.ADVERTENCIA);
         
         document.add(tablaKPIs);
     }
 
-    private void agregarCeldaKPI(PdfPTable tabla, String label, String valor, Font fontLabel, Font fontValor) {
-        PdfPCell celda = new PdfPCell();
-        celda.setBorder(Rectangle.BOX);
-        celda.setBorderColor(new Color(222, 226, 230));
-        celda.setPadding(10);
-        celda.setBackgroundColor(new Color(248, 249, 250));
-        
-        Paragraph pValor = new Paragraph(valor, fontValor);
-        pValor.setAlignment(Element.ALIGN_CENTER);
-        celda.addElement(pValor);
-        
-        Paragraph pLabel = new Paragraph(label, fontLabel);
-        pLabel.setAlignment(Element.ALIGN_CENTER);
-        celda.addElement(pLabel);
-        
-        tabla.addCell(celda);
+    private void agregarCeldaKPI(PdfPTable tabla, String label, String valor, Color color) {
+        tabla.addCell(tema.celdaIndicador(valor, tema.fuente(14, Font.BOLD, color),
+            label, tema.fuente(9, Font.NORMAL, Color.GRAY), PdfTema.FONDO_KPI, PdfTema.BORDE, 0.5f));
     }
 
     private void agregarTopProductos(Document document, List<Map<String, Object>> topProductos) throws DocumentException {
-        Font fontSeccion = new Font(Font.HELVETICA, 14, Font.BOLD, COLOR_HEADER);
-        Paragraph tituloSeccion = new Paragraph("Top 5 Productos Más Vendidos", fontSeccion);
-        tituloSeccion.setSpacingBefore(10);
-        tituloSeccion.setSpacingAfter(10);
-        document.add(tituloSeccion);
+        document.add(tituloSeccion("Top 5 Productos Más Vendidos"));
         
         if (topProductos == null || topProductos.isEmpty()) {
-            Font fontVacio = new Font(Font.HELVETICA, 10, Font.ITALIC, Color.GRAY);
-            document.add(new Paragraph("No hay productos vendidos en el período seleccionado.", fontVacio));
+            document.add(new Paragraph("No hay productos vendidos en el período seleccionado.",
+                tema.fuente(10, Font.ITALIC, Color.GRAY)));
             return;
         }
         
@@ -161,7 +136,7 @@ public class ReportePdfService {
         agregarCeldaEncabezado(tabla, "Categoría");
         agregarCeldaEncabezado(tabla, "Unidades");
         agregarCeldaEncabezado(tabla, "Total Ventas");
-        Font fontDato = new Font(Font.HELVETICA, 9, Font.NORMAL);
+        Font fontDato = tema.fuente(9, Font.NORMAL, Color.BLACK);
         for (Map<String, Object> producto : topProductos) {
             agregarCeldaDato(tabla, getString(producto, "nombre"), fontDato);
             agregarCeldaDato(tabla, getString(producto, "categoria"), fontDato);
@@ -173,31 +148,30 @@ public class ReportePdfService {
     }
 
     private void agregarTablaProductosVendidos(Document document, List<Map<String, Object>> productos) throws DocumentException {
-        Font fontSeccion = new Font(Font.HELVETICA, 14, Font.BOLD, COLOR_HEADER);
-        Paragraph tituloSeccion = new Paragraph("Reporte Detallado de Productos Vendidos", fontSeccion);
-        tituloSeccion.setSpacingBefore(10);
-        tituloSeccion.setSpacingAfter(10);
-        document.add(tituloSeccion);
+        document.add(tituloSeccion("Reporte Detallado de Productos Vendidos"));
         
         if (productos == null || productos.isEmpty()) {
-            Font fontVacio = new Font(Font.HELVETICA, 10, Font.ITALIC, Color.GRAY);
-            document.add(new Paragraph("No hay productos vendidos en el período seleccionado.", fontVacio));
+            document.add(new Paragraph("No hay productos vendidos en el período seleccionado.",
+                tema.fuente(10, Font.ITALIC, Color.GRAY)));
             return;
         }
-        Font fontTotal = new Font(Font.HELVETICA, 10, Font.BOLD, COLOR_EXITO);
-        document.add(new Paragraph("Total: " + productos.size() + " productos", fontTotal));
+        document.add(new Paragraph("Total: " + productos.size() + " productos", tema.fuente(10, Font.BOLD, PdfTema.EXITO)));
         document.add(Chunk.NEWLINE);
         
         PdfPTable tabla = new PdfPTable(5);
         tabla.setWidthPercentage(100);
         tabla.setWidths(new float[]{3, 2, 1.5f, 1.5f, 2});
+        // Se pasa al documento por bloques: cada bloque se dibuja y sus filas se liberan
+        tabla.setComplete(false);
+        tabla.setHeaderRows(1);
         agregarCeldaEncabezado(tabla, "Producto");
         agregarCeldaEncabezado(tabla, "Categoría");
         agregarCeldaEncabezado(tabla, "Cantidad");
         agregarCeldaEncabezado(tabla, "Precio Unit.");
         agregarCeldaEncabezado(tabla, "Total");
-        Font fontDato = new Font(Font.HELVETICA, 8, Font.NORMAL);
+        Font fontDato = tema.fuente(8, Font.NORMAL, Color.BLACK);
         double totalGeneral = 0;
+        int fila = 0;
         
         for (Map<String, Object> producto : productos) {
             String nombre = getString(producto, "nombre");
@@ -214,6 +188,10 @@ public class ReportePdfService {
             double total = getDouble(producto, "totalVentas");
             totalGeneral += total;
             agregarCeldaDato(tabla, "S/ " + formatearNumero(total), fontDato);
+            
+            if (++fila % FILAS_POR_BLOQUE == 0) {
+                document.add(tabla);
+            }
         }
         PdfPCell celdaVacia = new PdfPCell(new Phrase(""));
         celdaVacia.setBorder(Rectangle.NO_BORDER);
@@ -221,51 +199,50 @@ public class ReportePdfService {
         tabla.addCell(celdaVacia);
         tabla.addCell(celdaVacia);
         
-        Font fontTotalLabel = new Font(Font.HELVETICA, 10, Font.BOLD);
-        PdfPCell celdaTotalLabel = new PdfPCell(new Phrase("TOTAL:", fontTotalLabel));
+        PdfPCell celdaTotalLabel = new PdfPCell(new Phrase("TOTAL:", tema.fuente(10, Font.BOLD, Color.BLACK)));
         celdaTotalLabel.setBorder(Rectangle.TOP);
         celdaTotalLabel.setHorizontalAlignment(Element.ALIGN_RIGHT);
         celdaTotalLabel.setPaddingTop(5);
         tabla.addCell(celdaTotalLabel);
         
-        Font fontTotalValor = new Font(Font.HELVETICA, 10, Font.BOLD, COLOR_EXITO);
-        PdfPCell celdaTotalValor = new PdfPCell(new Phrase("S/ " + formatearNumero(totalGeneral), fontTotalValor));
+        PdfPCell celdaTotalValor = new PdfPCell(new Phrase("S/ " + formatearNumero(totalGeneral),
+            tema.fuente(10, Font.BOLD, PdfTema.EXITO)));
         celdaTotalValor.setBorder(Rectangle.TOP);
         celdaTotalValor.setPaddingTop(5);
         tabla.addCell(celdaTotalValor);
         
+        tabla.setComplete(true);
         document.add(tabla);
     }
 
     private void agregarCotizacionesCerradas(Document document, List<Map<String, Object>> cotizaciones) throws DocumentException {
         document.newPage();
         
-        Font fontSeccion = new Font(Font.HELVETICA, 14, Font.BOLD, COLOR_HEADER);
-        Paragraph tituloSeccion = new Paragraph("Cotizaciones Cerradas (Convertidas a Venta)", fontSeccion);
-        tituloSeccion.setSpacingBefore(10);
-        tituloSeccion.setSpacingAfter(10);
-        document.add(tituloSeccion);
+        document.add(tituloSeccion("Cotizaciones Cerradas (Convertidas a Venta)"));
         
         if (cotizaciones == null || cotizaciones.isEmpty()) {
-            Font fontVacio = new Font(Font.HELVETICA, 10, Font.ITALIC, Color.GRAY);
-            document.add(new Paragraph("No hay cotizaciones cerradas en el período seleccionado.", fontVacio));
+            document.add(new Paragraph("No hay cotizaciones cerradas en el período seleccionado.",
+                tema.fuente(10, Font.ITALIC, Color.GRAY)));
             return;
         }
-        Font fontTotal = new Font(Font.HELVETICA, 10, Font.BOLD, COLOR_EXITO);
-        document.add(new Paragraph("Total: " + cotizaciones.size() + " cotizaciones cerradas", fontTotal));
+        document.add(new Paragraph("Total: " + cotizaciones.size() + " cotizaciones cerradas",
+            tema.fuente(10, Font.BOLD, PdfTema.EXITO)));
         document.add(Chunk.NEWLINE);
         
         PdfPTable tabla = new PdfPTable(6);
         tabla.setWidthPercentage(100);
         tabla.setWidths(new float[]{0.8f, 2.5f, 2f, 1.5f, 1.5f, 1.5f});
+        tabla.setComplete(false);
+        tabla.setHeaderRows(1);
         agregarCeldaEncabezado(tabla, "ID");
         agregarCeldaEncabezado(tabla, "Cliente");
         agregarCeldaEncabezado(tabla, "Email");
         agregarCeldaEncabezado(tabla, "Total");
         agregarCeldaEncabezado(tabla, "Fecha Creación");
         agregarCeldaEncabezado(tabla, "Fecha Cierre");
-        Font fontDato = new Font(Font.HELVETICA, 8, Font.NORMAL);
+        Font fontDato = tema.fuente(8, Font.NORMAL, Color.BLACK);
         double totalGeneral = 0;
+        int fila = 0;
         
         for (Map<String, Object> cotizacion : cotizaciones) {
             agregarCeldaDato(tabla, "#" + cotizacion.getOrDefault("id", "-"), fontDato);
@@ -278,29 +255,34 @@ public class ReportePdfService {
             
             agregarCeldaDato(tabla, getString(cotizacion, "fechaCreacion"), fontDato);
             agregarCeldaDato(tabla, getString(cotizacion, "fechaCierre"), fontDato);
+            
+            if (++fila % FILAS_POR_BLOQUE == 0) {
+                document.add(tabla);
+            }
         }
         
+        tabla.setComplete(true);
         document.add(tabla);
         document.add(Chunk.NEWLINE);
-        Font fontTotalValor = new Font(Font.HELVETICA, 12, Font.BOLD, COLOR_EXITO);
-        Paragraph totalCotizaciones = new Paragraph("Total en Cotizaciones Cerradas: S/ " + formatearNumero(totalGeneral), fontTotalValor);
-        totalCotizaciones.setAlignment(Element.ALIGN_RIGHT);
-        document.add(totalCotizaciones);
+        document.add(tema.parrafo("Total en Cotizaciones Cerradas: S/ " + formatearNumero(totalGeneral),
+            tema.fuente(12, Font.BOLD, PdfTema.EXITO), Element.ALIGN_RIGHT));
+    }
+
+    private Paragraph tituloSeccion(String texto) {
+        Paragraph tituloSeccion = new Paragraph(texto, tema.fuente(14, Font.BOLD, PdfTema.NEGRO));
+        tituloSeccion.setSpacingBefore(10);
+        tituloSeccion.setSpacingAfter(10);
+        return tituloSeccion;
     }
 
     private void agregarCeldaEncabezado(PdfPTable tabla, String texto) {
-        Font fontHeader = new Font(Font.HELVETICA, 9, Font.BOLD, Color.WHITE);
-        PdfPCell celda = new PdfPCell(new Phrase(texto, fontHeader));
-        celda.setBackgroundColor(COLOR_HEADER);
-        celda.setPadding(8);
-        celda.setHorizontalAlignment(Element.ALIGN_CENTER);
-        tabla.addCell(celda);
+        tabla.addCell(tema.celdaEncabezado(texto, 9, 8));
     }
 
     private void agregarCeldaDato(PdfPTable tabla, String texto, Font font) {
         PdfPCell celda = new PdfPCell(new Phrase(texto, font));
         celda.setPadding(6);
-        celda.setBorderColor(new Color(222, 226, 230));
+        celda.setBorderColor(PdfTema.BORDE);
         tabla.addCell(celda);
     }
 
@@ -323,19 +305,4 @@ public class ReportePdfService {
         Object value = map.get(key);
         return value != null ? value.toString() : "";
     }
-
-    
-    private static class HeaderFooterPageEvent extends PdfPageEventHelper {
-        @Override
-        public void onEndPage(PdfWriter writer, Document document) {
-            PdfContentByte cb = writer.getDirectContent();
-            Font fontPie = new Font(Font.HELVETICA, 8, Font.NORMAL, Color.GRAY);
-            Phrase pie = new Phrase("Colchones D'Encanto - Sistema de Gestión | Página " + 
-                                   writer.getPageNumber(), fontPie);
-            
-            ColumnText.showTextAligned(cb, Element.ALIGN_CENTER, pie,
-                    (document.right() - document.left()) / 2 + document.leftMargin(),
-                    document.bottom() - 10, 0);
-        }
-    }
 }
@@ -0,0 +1,390 @@
+package com.proyecto.dencanto.Service;
+
+import com.proyecto.dencanto.Modelo.Cotizacion;
+import com.proyecto.dencanto.Modelo.EstadoVenta;
+import com.proyecto.dencanto.Modelo.VentaDiaria;
+import com.proyecto.dencanto.Repository.CotizacionItemRepository;
+import com.proyecto.dencanto.Repository.CotizacionRepository;
+import com.proyecto.dencanto.Repository.VentaDiariaRepository;
+import com.proyecto.dencanto.Repository.VentaRepository;
+import com.proyecto.dencanto.dto.CotizacionItemTotal;
+import com.proyecto.dencanto.dto.CotizacionResumen;
+import com.proyecto.dencanto.dto.VentaLineaHistorial;
+import com.proyecto.dencanto.dto.VentaPeriodoTotal;
+import com.proyecto.dencanto.dto.VentaProductoTotal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.OutputStream;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Calcula las secciones del reporte de ventas (resumen, top productos, productos vendidos y
+ * cotizaciones cerradas). Para el PDF se leen los datos una sola vez y todas las secciones
+ * se arman a partir de ese mismo resultado.
+ */
+@Service
+public class ReporteService {
+
+    @Autowired
+    private VentaDiariaRepository ventaDiariaRepository;
+
+    @Autowired
+    private CotizacionRepository cotizacionRepository;
+
+    @Autowired
+    private CotizacionItemRepository cotizacionItemRepository;
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Autowired
+    private ReporteCsvService reporteCsvService;
+
+    // Límites usados cuando el reporte no filtra por fecha
+    private static final LocalDate FECHA_MINIMA = LocalDate.of(1900, 1, 1);
+    private static final LocalDate FECHA_MAXIMA = LocalDate.of(9999, 12, 31);
+
+    /**
+     * Las cuatro secciones del reporte de ventas
+     */
+    public record DatosReporte(Map<String, Object> resumen,
+                               List<Map<String, Object>> topProductos,
+                               List<Map<String, Object>> productosVendidos,
+                               List<Map<String, Object>> cotizacionesCerradas) {}
+
+    /**
+     * Agrupación de los gráficos de ventas por periodo
+     */
+    public enum Periodo { MES, SEMANA }
+
+    /**
+     * Monto y número de ventas por mes o semana ISO entre dos fechas, con una sola consulta
+     * sobre ventas_diarias. Incluye todos los periodos del rango en orden (los que no tienen
+     * ventas con 0), indexados por su primer día (día 1 o lunes).
+     * vendedorId y estado son opcionales: null = todos
+     */
+    public Map<LocalDate, VentaPeriodoTotal> totalesPorPeriodo(Periodo periodo, LocalDate inicio, LocalDate fin,
+                                                               Integer vendedorId, EstadoVenta estado) {
+        LocalDate desde = inicioPeriodo(periodo, inicio);
+        LocalDate hasta = siguientePeriodo(periodo, inicioPeriodo(periodo, fin)).minusDays(1);
+        if (periodo == Periodo.SEMANA && ChronoUnit.WEEKS.between(desde, hasta) >= 52) {
+            throw new IllegalArgumentException("El rango semanal no puede superar un año");
+        }
+
+        List<VentaPeriodoTotal> filas = periodo == Periodo.MES
+            ? ventaDiariaRepository.totalesPorMes(desde, hasta, vendedorId, estado)
+            : ventaDiariaRepository.totalesPorSemana(desde, hasta, vendedorId, estado);
+        Map<LocalDate, VentaPeriodoTotal> porInicio = new HashMap<>();
+        for (VentaPeriodoTotal fila : filas) {
+            porInicio.put(inicioPeriodo(periodo, fila.getDesde()), fila);
+        }
+
+        Map<LocalDate, VentaPeriodoTotal> totales = new LinkedHashMap<>();
+        for (LocalDate p = desde; !p.isAfter(hasta); p = siguientePeriodo(periodo, p)) {
+            VentaPeriodoTotal fila = porInicio.get(p);
+            totales.put(p, new VentaPeriodoTotal(p, fila != null ? fila.getMonto() : 0.0,
+                fila != null ? fila.getPedidos() : 0L));
+        }
+        return totales;
+    }
+
+    private static LocalDate inicioPeriodo(Periodo periodo, LocalDate fecha) {
+        return periodo == Periodo.MES
+            ? fecha.withDayOfMonth(1)
+            : fecha.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    private static LocalDate siguientePeriodo(Periodo periodo, LocalDate inicio) {
+        return periodo == Periodo.MES ? inicio.plusMonths(1) : inicio.plusWeeks(1);
+    }
+
+    /**
+     * Reporte completo (PDF): una consulta de ventas por estado, una de ventas por producto
+     * y una de cotizaciones, compartidas por todas las secciones
+     */
+    public DatosReporte generar(String fechaInicio, String fechaFin, String categoria) {
+        Filtro filtro = new Filtro(fechaInicio, fechaFin, categoria);
+        List<VentaPeriodoTotal> ventasPorEstado = ventasPorEstado(filtro);
+        List<VentaProductoTotal> productos = ventasPorProducto(filtro, Pageable.unpaged());
+        List<Cotizacion> cotizaciones = cotizacionRepository.findAll();
+
+        return new DatosReporte(
+            armarResumen(filtro, ventasPorEstado, cotizaciones),
+            armarTopProductos(productos),
+            armarProductosVendidos(productos),
+            armarCotizacionesCerradas(filtro, cotizaciones));
+    }
+
+    /**
+     * KPIs principales (ventas y conversión de cotizaciones)
+     */
+    public Map<String, Object> obtenerResumen(String fechaInicio, String fechaFin, String categoria) {
+        Filtro filtro = new Filtro(fechaInicio, fechaFin, categoria);
+        return armarResumen(filtro, ventasPorEstado(filtro), cotizacionRepository.findAll());
+    }
+
+    /**
+     * Los 5 productos con más unidades vendidas
+     */
+    public List<Map<String, Object>> obtenerTopProductos(String fechaInicio, String fechaFin, String categoria) {
+        Filtro filtro = new Filtro(fechaInicio, fechaFin, categoria);
+        return armarTopProductos(ventasPorProducto(filtro, PageRequest.of(0, 5)));
+    }
+
+    /**
+     * Productos vendidos (ventas registradas), ordenados por monto
+     */
+    public List<Map<String, Object>> obtenerProductosVendidos(String fechaInicio, String fechaFin, String categoria) {
+        Filtro filtro = new Filtro(fechaInicio, fechaFin, categoria);
+        return armarProductosVendidos(ventasPorProducto(filtro, Pageable.unpaged()));
+    }
+
+    /**
+     * Productos de cotizaciones cerradas creadas en el periodo, agregados por cotización y
+     * producto desde cotizacion_items. Las cotizaciones cuyo JSON no se pudo leer aparecen
+     * como una fila genérica con su total
+     */
+    public List<Map<String, Object>> obtenerProductosCotizados(String fechaInicio, String fechaFin, String categoria) {
+        Filtro filtro = new Filtro(fechaInicio, fechaFin, categoria);
+        LocalDateTime inicio = filtro.desde().atStartOfDay();
+        LocalDateTime fin = filtro.hasta().atTime(23, 59, 59);
+        List<Map<String, Object>> resultado = new ArrayList<>();
+
+        for (CotizacionItemTotal t : cotizacionItemRepository.totalesPorProducto("Cerrada", inicio, fin, filtro.categoria())) {
+            Map<String, Object> datos = new HashMap<>();
+            datos.put("id", t.getProductoId() != null ? t.getProductoId() : t.getCotizacionId());
+            datos.put("nombre", t.getNombre() + " (Cotización #" + t.getCotizacionId() + ")");
+            datos.put("categoria", t.getCategoria());
+            datos.put("precioUnitario", t.getPrecio());
+            datos.put("cantidadVendida", t.getCantidad().intValue());
+            datos.put("totalVentas", t.getMonto());
+            datos.put("origen", "cotizacion");
+            resultado.add(datos);
+        }
+
+        for (Cotizacion cot : cotizacionItemRepository.sinItems("Cerrada", inicio, fin)) {
+            Map<String, Object> datos = new HashMap<>();
+            datos.put("id", cot.getId());
+            datos.put("nombre", "Cotización #" + cot.getId() + " - " + cot.getNombreCliente());
+            datos.put("categoria", "Cotización");
+            datos.put("precioUnitario", cot.getTotal());
+            datos.put("cantidadVendida", 1);
+            datos.put("totalVentas", cot.getTotal() != null ? cot.getTotal() : 0.0);
+            datos.put("origen", "cotizacion");
+            resultado.add(datos);
+        }
+        return resultado;
+    }
+
+    /**
+     * Productos de ventas registradas y de cotizaciones cerradas, ordenados por monto
+     */
+    public List<Map<String, Object>> obtenerProductosVendidosYCotizados(String fechaInicio, String fechaFin, String categoria) {
+        List<Map<String, Object>> resultado = new ArrayList<>(obtenerProductosVendidos(fechaInicio, fechaFin, categoria));
+        resultado.addAll(obtenerProductosCotizados(fechaInicio, fechaFin, categoria));
+        resultado.sort(Comparator.comparing((Map<String, Object> p) -> (Double) p.get("totalVentas")).reversed());
+        return resultado;
+    }
+
+    // ========== EXPORTACIÓN CSV ==========
+
+    /**
+     * CSV del historial de ventas (una fila por línea de detalle). Las filas se leen del cursor de
+     * la BD mientras se escriben, así un año completo no ocupa más memoria que un día
+     */
+    @Transactional(readOnly = true)
+    public void exportarVentasCsv(VentaService.FiltroVentas filtro, OutputStream salida) throws Exception {
+        try (Stream<VentaLineaHistorial> lineas = ventaRepository.lineasHistorial(filtro.estado(),
+                filtro.metodoPago(), filtro.vendedorId(), filtro.desde(), filtro.hasta())) {
+            reporteCsvService.escribirVentas(lineas.iterator(), salida);
+        }
+    }
+
+    /**
+     * CSV de cotizaciones cerradas en el periodo (por fecha de cierre, o de creación si no tiene),
+     * leídas del cursor de la BD mientras se escriben
+     */
+    @Transactional(readOnly = true)
+    public void exportarCotizacionesCerradasCsv(String fechaInicio, String fechaFin, OutputStream salida) throws Exception {
+        Filtro filtro = new Filtro(fechaInicio, fechaFin, null);
+        try (Stream<CotizacionResumen> cotizaciones = cotizacionRepository.exportarCerradas(
+                filtro.desde().atStartOfDay(), filtro.hasta().atTime(23, 59, 59))) {
+            reporteCsvService.escribirCotizacionesCerradas(cotizaciones.iterator(), salida);
+        }
+    }
+
+    // ========== CONSULTAS ==========
+
+    /**
+     * Ventas del periodo por estado desde el resumen diario.
+     * Con categoría se usan las filas de ventas que incluyen productos de esa categoría
+     */
+    private List<VentaPeriodoTotal> ventasPorEstado(Filtro filtro) {
+        String categoriaVentas = filtro.categoria().isEmpty() ? VentaDiaria.TODAS : filtro.categoria();
+        return ventaDiariaRepository.totalesPorEstado(filtro.desde(), filtro.hasta(), categoriaVentas);
+    }
+
+    /**
+     * Unidades y monto por producto (todas las ventas excepto CANCELADA), ordenado por unidades
+     */
+    private List<VentaProductoTotal> ventasPorProducto(Filtro filtro, Pageable pagina) {
+        return ventaDiariaRepository.totalesPorProducto(filtro.desde(), filtro.hasta(), filtro.categoria(),
+            EstadoVenta.CANCELADA, pagina);
+    }
+
+    // ========== SECCIONES ==========
+
+    private Map<String, Object> armarResumen(Filtro filtro, List<VentaPeriodoTotal> ventasPorEstado,
+                                             List<Cotizacion> cotizaciones) {
+        LocalDate ahora = LocalDate.now();
+
+        // Cotizaciones creadas en el periodo
+        List<Cotizacion> cotizacionesPeriodo = cotizaciones.stream()
+            .filter(c -> filtro.sinFechas() || filtro.incluye(c.getFechaCreacion()))
+            .collect(Collectors.toList());
+
+        Double ventasRegistradas = ventasPorEstado.stream()
+            .mapToDouble(VentaPeriodoTotal::getMonto)
+            .sum();
+        int totalCotizaciones = cotizacionesPeriodo.size();
+
+        List<Cotizacion> cerradas = cotizacionesPeriodo.stream()
+            .filter(c -> "Cerrada".equals(c.getEstado()))
+            .collect(Collectors.toList());
+        long cotizacionesCerradas = cerradas.size();
+
+        double tasaConversion = totalCotizaciones > 0
+            ? (cotizacionesCerradas * 100.0 / totalCotizaciones)
+            : 0.0;
+
+        // Días promedio de cierre
+        double diasPromedioCierre = cerradas.stream()
+            .filter(c -> c.getFechaCreacion() != null && c.getFechaCierre() != null)
+            .mapToLong(c -> ChronoUnit.DAYS.between(
+                c.getFechaCreacion().toLocalDate(),
+                c.getFechaCierre().toLocalDate()))
+            .average()
+            .orElse(0.0);
+
+        Map<String, Object> resumen = new HashMap<>();
+        resumen.put("ventasTotales", ventasRegistradas);
+        resumen.put("ventasRegistradas", ventasRegistradas);
+        resumen.put("totalCotizaciones", totalCotizaciones);
+        resumen.put("cotizacionesCerradas", cotizacionesCerradas);
+        resumen.put("tasaConversion", Math.round(tasaConversion * 10.0) / 10.0);
+        resumen.put("diasPromedioCierre", Math.round(diasPromedioCierre * 10.0) / 10.0);
+        resumen.put("mesActual", ahora.getMonthValue());
+        resumen.put("anioActual", ahora.getYear());
+        resumen.put("totalVentas", ventasPorEstado.stream()
+            .mapToLong(VentaPeriodoTotal::getPedidos).sum());
+        resumen.put("ventasCompletadas", ventasPorEstado.stream()
+            .filter(t -> t.getEstado() == EstadoVenta.COMPLETADA)
+            .mapToLong(VentaPeriodoTotal::getPedidos).sum());
+        resumen.put("ventasPendientes", ventasPorEstado.stream()
+            .filter(t -> t.getEstado() == EstadoVenta.PENDIENTE)
+            .mapToLong(VentaPeriodoTotal::getPedidos).sum());
+        return resumen;
+    }
+
+    /**
+     * Top 5 por unidades (la lista ya viene ordenada por unidades)
+     */
+    private List<Map<String, Object>> armarTopProductos(List<VentaProductoTotal> productos) {
+        List<Map<String, Object>> topProductos = new ArrayList<>();
+        for (VentaProductoTotal t : productos.subList(0, Math.min(5, productos.size()))) {
+            Map<String, Object> datos = new HashMap<>();
+            datos.put("id", t.getProductoId());
+            datos.put("nombre", t.getNombre());
+            datos.put("categoria", t.getCategoria() != null ? t.getCategoria() : "Sin categoría");
+            datos.put("precio", t.getPrecio() != null ? t.getPrecio() : 0.0);
+            datos.put("stock", t.getStock() != null ? t.getStock() : 0);
+            datos.put("unidadesVendidas", t.getUnidades().intValue());
+            datos.put("totalVentas", t.getMonto());
+            topProductos.add(datos);
+        }
+        return topProductos;
+    }
+
+    private List<Map<String, Object>> armarProductosVendidos(List<VentaProductoTotal> productos) {
+        return productos.stream()
+            .sorted(Comparator.comparing(VentaProductoTotal::getMonto).reversed())
+            .map(t -> {
+                Map<String, Object> datos = new HashMap<>();
+                datos.put("id", t.getProductoId());
+                datos.put("nombre", t.getNombre());
+                datos.put("categoria", t.getCategoria() != null ? t.getCategoria() : "Sin categoría");
+                datos.put("precioUnitario", t.getPrecio() != null ? t.getPrecio() : 0.0);
+                datos.put("cantidadVendida", t.getUnidades().intValue());
+                datos.put("totalVentas", t.getMonto());
+                datos.put("origen", "ventas");
+                return datos;
+            })
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Cotizaciones cerradas en el periodo (por fecha de cierre, o de creación si no tiene)
+     */
+    private List<Map<String, Object>> armarCotizacionesCerradas(Filtro filtro, List<Cotizacion> cotizaciones) {
+        DateTimeFormatter formatterFechaHora = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+        List<Map<String, Object>> resultado = new ArrayList<>();
+
+        for (Cotizacion cot : cotizaciones) {
+            if (!"Cerrada".equals(cot.getEstado())) continue;
+            LocalDateTime fechaCierre = cot.getFechaCierre() != null ? cot.getFechaCierre() : cot.getFechaCreacion();
+            if (!filtro.sinFechas() && !filtro.incluye(fechaCierre)) continue;
+
+            Map<String, Object> datos = new HashMap<>();
+            datos.put("id", cot.getId());
+            datos.put("nombreCliente", cot.getNombreCliente() != null ? cot.getNombreCliente() : "Sin nombre");
+            datos.put("email", cot.getEmail() != null ? cot.getEmail() : "-");
+            datos.put("telefono", cot.getTelefono() != null ? cot.getTelefono() : "-");
+            datos.put("total", cot.getTotal() != null ? cot.getTotal() : 0.0);
+            datos.put("fechaCreacion", cot.getFechaCreacion() != null
+                ? cot.getFechaCreacion().format(formatterFechaHora) : "-");
+            datos.put("fechaCierre", cot.getFechaCierre() != null
+                ? cot.getFechaCierre().format(formatterFechaHora) : "-");
+            resultado.add(datos);
+        }
+
+        // Ordenar por fecha de cierre descendente
+        resultado.sort((a, b) -> ((String) b.get("fechaCierre")).compareTo((String) a.get("fechaCierre")));
+        return resultado;
+    }
+
+    /**
+     * Filtros del reporte ya parseados (fechas incluidas, categoría vacía = todas)
+     */
+    private record Filtro(LocalDate desde, LocalDate hasta, String categoria, boolean sinFechas) {
+
+        Filtro(String fechaInicio, String fechaFin, String categoria) {
+            this(fechaInicio != null && !fechaInicio.isEmpty() ? LocalDate.parse(fechaInicio) : FECHA_MINIMA,
+                 fechaFin != null && !fechaFin.isEmpty() ? LocalDate.parse(fechaFin) : FECHA_MAXIMA,
+                 categoria != null ? categoria : "",
+                 (fechaInicio == null || fechaInicio.isEmpty()) && (fechaFin == null || fechaFin.isEmpty()));
+        }
+
+        boolean incluye(LocalDateTime fecha) {
+            if (fecha == null) return false;
+            LocalDate dia = fecha.toLocalDate();
+            return !dia.isBefore(desde) && !dia.isAfter(hasta);
+        }
+    }
+}
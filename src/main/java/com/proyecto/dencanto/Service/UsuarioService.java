@@ -2,7 +2,9 @@ package com.proyecto.dencanto.Service;
 
 import com.proyecto.dencanto.Modelo.Usuario;
 import com.proyecto.dencanto.Repository.UsuarioRepository;
+import com.proyecto.dencanto.security.AutenticacionCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import java.util.List;
@@ -17,6 +19,12 @@ public class UsuarioService {
     @Autowired
     private BCryptPasswordEncoder passwordEncoder;
 
+    @Autowired
+    private AutenticacionCache autenticacionCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
     public List<Usuario> obtenerTodos() {
         return usuarioRepository.findAll();
     }
@@ -36,9 +44,15 @@ public class UsuarioService {
             } else {
                 usuario.setContrasenaHash(passwordEncoder.encode(usuario.getContrasenaHash()));
             }
+
+            // Sesiones con el nombre anterior (rol o nombre pueden haber cambiado)
+            autenticacionCache.invalidarUsuario(usuarioExistente.getNombreUsuario());
         }
 
-        return usuarioRepository.save(usuario);
+        Usuario guardado = usuarioRepository.save(usuario);
+        autenticacionCache.invalidarUsuario(guardado.getNombreUsuario());
+        eventos.publishEvent(new DatosNegocioCambiadosEvent("usuario"));
+        return guardado;
     }
 
     public Usuario obtenerPorId(Integer id) {
@@ -50,7 +64,12 @@ public class UsuarioService {
         if (esUltimoAdmin(id)) {
             throw new RuntimeException("No se puede eliminar el último administrador");
         }
+        Usuario usuario = obtenerPorId(id);
         usuarioRepository.deleteById(id);
+        if (usuario != null) {
+            autenticacionCache.invalidarUsuario(usuario.getNombreUsuario());
+        }
+        eventos.publishEvent(new DatosNegocioCambiadosEvent("usuario"));
     }
 
     private boolean esUltimoAdmin(Integer idUsuarioAEliminar) {
@@ -69,6 +88,7 @@ public class UsuarioService {
             String nuevaPasswordEncriptada = passwordEncoder.encode("123456");
             usuario.setContrasenaHash(nuevaPasswordEncriptada);
             usuarioRepository.save(usuario);
+            autenticacionCache.invalidarUsuario(usuario.getNombreUsuario());
         } else {
             throw new RuntimeException("Usuario no encontrado");
         }
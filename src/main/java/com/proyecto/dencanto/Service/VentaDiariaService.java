@@ -0,0 +1,79 @@
+package com.proyecto.dencanto.Service;
+
+import com.proyecto.dencanto.Modelo.DetalleVenta;
+import com.proyecto.dencanto.Modelo.EstadoVenta;
+import com.proyecto.dencanto.Modelo.Venta;
+import com.proyecto.dencanto.Modelo.VentaDiaria;
+import com.proyecto.dencanto.Repository.VentaDiariaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mantiene la tabla ventas_diarias. Se llama dentro de la transacción de VentaService,
+ * así el resumen nunca queda desfasado de las ventas.
+ */
+@Service
+public class VentaDiariaService {
+
+    @Autowired
+    private VentaDiariaRepository ventaDiariaRepository;
+
+    /**
+     * Suma una venta recién registrada en su estado actual
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(Venta venta) {
+        aplicar(venta, venta.getEstado(), 1);
+    }
+
+    /**
+     * Mueve la venta del estado anterior al estado actual
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cambiarEstado(Venta venta, EstadoVenta estadoAnterior) {
+        if (estadoAnterior == venta.getEstado()) return;
+        aplicar(venta, estadoAnterior, -1);
+        aplicar(venta, venta.getEstado(), 1);
+    }
+
+    private void aplicar(Venta venta, EstadoVenta estado, int signo) {
+        LocalDate fecha = venta.getFechaCreacion().toLocalDate();
+        Integer vendedorId = venta.getVendedor().getId();
+        double total = venta.getTotal() != null ? venta.getTotal() : 0.0;
+
+        // Un mismo producto puede venir en varias líneas: se agrupa antes de acumular
+        Map<Integer, String> categorias = new LinkedHashMap<>();
+        Map<Integer, Long> unidades = new LinkedHashMap<>();
+        Map<Integer, Double> montos = new LinkedHashMap<>();
+        for (DetalleVenta detalle : venta.getDetalles()) {
+            Integer productoId = detalle.getProducto().getId();
+            String categoria = detalle.getProducto().getCategoria() != null
+                ? detalle.getProducto().getCategoria() : "Sin categoría";
+            int cantidad = detalle.getCantidad() != null ? detalle.getCantidad() : 0;
+            categorias.putIfAbsent(productoId, categoria);
+            unidades.merge(productoId, (long) cantidad, Long::sum);
+            montos.merge(productoId, detalle.calcularSubtotal(), Double::sum);
+        }
+
+        for (Integer productoId : categorias.keySet()) {
+            ventaDiariaRepository.acumular(fecha, productoId, categorias.get(productoId), vendedorId, estado.name(),
+                signo * unidades.get(productoId), signo * montos.get(productoId), signo);
+        }
+
+        Set<String> categoriasVenta = new LinkedHashSet<>(categorias.values());
+        for (String categoria : categoriasVenta) {
+            ventaDiariaRepository.acumular(fecha, VentaDiaria.SIN_PRODUCTO, categoria, vendedorId, estado.name(),
+                0, signo * total, signo);
+        }
+        ventaDiariaRepository.acumular(fecha, VentaDiaria.SIN_PRODUCTO, VentaDiaria.TODAS, vendedorId, estado.name(),
+            0, signo * total, signo);
+    }
+}
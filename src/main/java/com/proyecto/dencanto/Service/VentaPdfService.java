@@ -3,27 +3,31 @@ package com.proyecto.dencanto.Service;
 import com.lowagie.text.*;
 import com.lowagie.text.pdf.*;
 import com.proyecto.dencanto.Modelo.*;
+import com.proyecto.dencanto.dto.VentaLineaHistorial;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.awt.Color;
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 @Service
 public class VentaPdfService {
-    private static final Color COLOR_PRIMARIO = new Color(212, 165, 40);    // Dorado principal #D4A528
-    private static final Color COLOR_DORADO_OSCURO = new Color(184, 148, 31); // Dorado hover #B8941F
-    private static final Color COLOR_NEGRO = new Color(26, 26, 26);         // Negro principal #1a1a1a
-    private static final Color COLOR_NEGRO_SECUNDARIO = new Color(45, 45, 45); // Negro secundario #2d2d2d
-    private static final Color COLOR_EXITO = new Color(40, 167, 69);        // Verde (para estados)
-    private static final Color COLOR_ADVERTENCIA = new Color(255, 193, 7);  // Amarillo (para estados)
-    private static final Color COLOR_PELIGRO = new Color(220, 53, 69);      // Rojo (para estados)
-    private static final Color COLOR_INFO = new Color(23, 162, 184);        // Cyan (para estados)
-    private static final Color COLOR_HEADER = new Color(26, 26, 26);        // Negro para headers
-    private static final Color COLOR_FONDO = new Color(245, 245, 245);      // Gris muy claro
+
+    // Filas que se acumulan antes de pasar la tabla al documento y liberarlas
+    private static final int FILAS_POR_BLOQUE = 100;
+
+    private static final DateTimeFormatter FORMATO_FECHA_HORA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final DateTimeFormatter FORMATO_FECHA_CORTA = DateTimeFormatter.ofPattern("dd/MM/yy");
+
+    @Autowired
+    private PdfTema tema;
 
     
     public byte[] generarPdfVenta(Venta venta) throws Exception {
@@ -45,71 +49,56 @@ public class VentaPdfService {
     }
 
     
-    public byte[] generarPdfHistorialVentas(
-            List<Map<String, Object>> ventas, 
+    /**
+     * Escribe el historial directamente en la salida (la respuesta HTTP) a medida que llegan las
+     * líneas: ni las ventas ni el PDF completo se guardan en memoria
+     */
+    public void escribirPdfHistorialVentas(
+            Iterator<VentaLineaHistorial> lineas,
             Map<String, Object> estadisticas,
             String vendedor,
             String fechaDesde,
-            String fechaHasta) throws Exception {
+            String fechaHasta,
+            OutputStream salida) throws Exception {
         
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
         Document document = new Document(PageSize.A4.rotate(), 40, 40, 50, 50);
-        PdfWriter writer = PdfWriter.getInstance(document, baos);
+        PdfWriter writer = PdfWriter.getInstance(document, salida);
+        writer.setCloseStream(false);
         
         document.open();
         agregarEncabezadoHistorial(document, vendedor);
         agregarFiltrosAplicados(document, fechaDesde, fechaHasta);
         agregarEstadisticas(document, estadisticas);
-        agregarTablaVentas(document, ventas);
+        agregarTablaVentas(document, lineas);
         agregarPiePaginaHistorial(document);
         
         document.close();
-        
-        return baos.toByteArray();
     }
 
     
     private void agregarEncabezadoVenta(Document document, Venta venta) throws DocumentException {
-        Font fontEmpresa = new Font(Font.HELVETICA, 22, Font.BOLD, COLOR_NEGRO);
-        Paragraph empresa = new Paragraph("COLCHONES D'ENCANTO", fontEmpresa);
-        empresa.setAlignment(Element.ALIGN_CENTER);
-        document.add(empresa);
-        Font fontSub = new Font(Font.HELVETICA, 10, Font.ITALIC, COLOR_PRIMARIO);
-        Paragraph subtitulo = new Paragraph("Tu descanso, nuestro compromiso", fontSub);
-        subtitulo.setAlignment(Element.ALIGN_CENTER);
-        document.add(subtitulo);
+        document.add(tema.parrafo("COLCHONES D'ENCANTO", tema.fuente(22, Font.BOLD, PdfTema.NEGRO), Element.ALIGN_CENTER));
+        document.add(tema.parrafo("Tu descanso, nuestro compromiso", tema.fuente(10, Font.ITALIC, PdfTema.PRIMARIO),
+            Element.ALIGN_CENTER));
         
         document.add(new Paragraph(" "));
-        agregarLineaDecorativa(document, COLOR_PRIMARIO);
+        document.add(tema.lineaDecorativa(Rectangle.BOTTOM, 2));
         
         document.add(new Paragraph(" "));
-        Font fontTitulo = new Font(Font.HELVETICA, 16, Font.BOLD, COLOR_NEGRO);
-        Paragraph titulo = new Paragraph("COMPROBANTE DE VENTA", fontTitulo);
-        titulo.setAlignment(Element.ALIGN_CENTER);
-        document.add(titulo);
-        Font fontNumero = new Font(Font.HELVETICA, 14, Font.BOLD, COLOR_PRIMARIO);
-        Paragraph numero = new Paragraph("N° " + String.format("%06d", venta.getId()), fontNumero);
-        numero.setAlignment(Element.ALIGN_CENTER);
-        document.add(numero);
-        Font fontFecha = new Font(Font.HELVETICA, 10, Font.NORMAL, Color.GRAY);
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+        document.add(tema.parrafo("COMPROBANTE DE VENTA", tema.fuente(16, Font.BOLD, PdfTema.NEGRO), Element.ALIGN_CENTER));
+        document.add(tema.parrafo("N° " + String.format("%06d", venta.getId()), tema.fuente(14, Font.BOLD, PdfTema.PRIMARIO),
+            Element.ALIGN_CENTER));
         String fechaStr = venta.getFechaCreacion() != null 
-            ? venta.getFechaCreacion().format(formatter) 
-            : LocalDateTime.now().format(formatter);
-        Paragraph fecha = new Paragraph("Fecha: " + fechaStr, fontFecha);
-        fecha.setAlignment(Element.ALIGN_CENTER);
-        document.add(fecha);
+            ? venta.getFechaCreacion().format(FORMATO_FECHA_HORA) 
+            : LocalDateTime.now().format(FORMATO_FECHA_HORA);
+        document.add(tema.parrafo("Fecha: " + fechaStr, tema.fuente(10, Font.NORMAL, Color.GRAY), Element.ALIGN_CENTER));
         
         document.add(new Paragraph(" "));
     }
 
     
     private void agregarInfoCliente(Document document, Venta venta) throws DocumentException {
-        Font fontSeccion = new Font(Font.HELVETICA, 11, Font.BOLD, COLOR_NEGRO);
-        Font fontLabel = new Font(Font.HELVETICA, 9, Font.BOLD, COLOR_PRIMARIO);
-        Font fontValor = new Font(Font.HELVETICA, 9, Font.NORMAL, Color.BLACK);
-        
-        Paragraph tituloCliente = new Paragraph("DATOS DEL CLIENTE", fontSeccion);
+        Paragraph tituloCliente = new Paragraph("DATOS DEL CLIENTE", tema.fuente(11, Font.BOLD, PdfTema.NEGRO));
         document.add(tituloCliente);
         
         document.add(new Paragraph(" "));
@@ -118,12 +107,12 @@ public class VentaPdfService {
         tablaCliente.setWidthPercentage(100);
         tablaCliente.setWidths(new float[]{1, 2, 1, 2});
         
-        agregarCampo(tablaCliente, "Nombre:", venta.getClienteNombre(), fontLabel, fontValor);
-        agregarCampo(tablaCliente, "Teléfono:", venta.getClienteTelefono(), fontLabel, fontValor);
-        agregarCampo(tablaCliente, "Email:", venta.getClienteEmail(), fontLabel, fontValor);
+        agregarCampo(tablaCliente, "Nombre:", venta.getClienteNombre());
+        agregarCampo(tablaCliente, "Teléfono:", venta.getClienteTelefono());
+        agregarCampo(tablaCliente, "Email:", venta.getClienteEmail());
         
         String direccion = venta.getDireccionEntrega() != null ? venta.getDireccionEntrega() : "Recojo en tienda";
-        agregarCampo(tablaCliente, "Dirección:", direccion, fontLabel, fontValor);
+        agregarCampo(tablaCliente, "Dirección:", direccion);
         
         document.add(tablaCliente);
         document.add(new Paragraph(" "));
@@ -131,11 +120,7 @@ public class VentaPdfService {
 
     
     private void agregarInfoVenta(Document document, Venta venta) throws DocumentException {
-        Font fontSeccion = new Font(Font.HELVETICA, 11, Font.BOLD, COLOR_NEGRO);
-        Font fontLabel = new Font(Font.HELVETICA, 9, Font.BOLD, COLOR_PRIMARIO);
-        Font fontValor = new Font(Font.HELVETICA, 9, Font.NORMAL, Color.BLACK);
-        
-        Paragraph tituloVenta = new Paragraph("INFORMACIÓN DE LA VENTA", fontSeccion);
+        Paragraph tituloVenta = new Paragraph("INFORMACIÓN DE LA VENTA", tema.fuente(11, Font.BOLD, PdfTema.NEGRO));
         document.add(tituloVenta);
         
         document.add(new Paragraph(" "));
@@ -149,10 +134,10 @@ public class VentaPdfService {
         String tipoEntrega = venta.getTipoEntrega() != null ? 
             (venta.getTipoEntrega() == TipoEntrega.DOMICILIO ? "Delivery" : "Recojo en tienda") : "N/A";
         
-        agregarCampo(tablaVenta, "Estado:", estado, fontLabel, fontValor);
-        agregarCampo(tablaVenta, "Método de Pago:", metodoPago, fontLabel, fontValor);
-        agregarCampo(tablaVenta, "Tipo de Entrega:", tipoEntrega, fontLabel, fontValor);
-        agregarCampo(tablaVenta, "Observaciones:", venta.getObservaciones() != null ? venta.getObservaciones() : "-", fontLabel, fontValor);
+        agregarCampo(tablaVenta, "Estado:", estado);
+        agregarCampo(tablaVenta, "Método de Pago:", metodoPago);
+        agregarCampo(tablaVenta, "Tipo de Entrega:", tipoEntrega);
+        agregarCampo(tablaVenta, "Observaciones:", venta.getObservaciones() != null ? venta.getObservaciones() : "-");
         
         document.add(tablaVenta);
         document.add(new Paragraph(" "));
@@ -160,11 +145,9 @@ public class VentaPdfService {
 
     
     private void agregarTablaProductos(Document document, Venta venta) throws DocumentException {
-        Font fontSeccion = new Font(Font.HELVETICA, 11, Font.BOLD, COLOR_NEGRO);
-        Font fontHeader = new Font(Font.HELVETICA, 9, Font.BOLD, Color.WHITE);
-        Font fontCelda = new Font(Font.HELVETICA, 9, Font.NORMAL, Color.BLACK);
+        Font fontCelda = tema.fuente(9, Font.NORMAL, Color.BLACK);
         
-        Paragraph tituloProductos = new Paragraph("DETALLE DE PRODUCTOS", fontSeccion);
+        Paragraph tituloProductos = new Paragraph("DETALLE DE PRODUCTOS", tema.fuente(11, Font.BOLD, PdfTema.NEGRO));
         document.add(tituloProductos);
         
         document.add(new Paragraph(" "));
@@ -174,33 +157,24 @@ public class VentaPdfService {
         tabla.setWidths(new float[]{0.5f, 3f, 1f, 1.2f, 1.2f});
         String[] headers = {"#", "Producto", "Cantidad", "P. Unitario", "Subtotal"};
         for (String header : headers) {
-            PdfPCell cell = new PdfPCell(new Phrase(header, fontHeader));
-            cell.setBackgroundColor(COLOR_HEADER);
-            cell.setHorizontalAlignment(Element.ALIGN_CENTER);
-            cell.setVerticalAlignment(Element.ALIGN_MIDDLE);
-            cell.setPadding(8);
-            tabla.addCell(cell);
+            tabla.addCell(tema.celdaEncabezado(header, 9, 8));
         }
         int numero = 1;
         if (venta.getDetalles() != null && !venta.getDetalles().isEmpty()) {
             for (DetalleVenta detalle : venta.getDetalles()) {
-                Color bgColor = numero % 2 == 0 ? COLOR_FONDO : Color.WHITE;
-                agregarCeldaTabla(tabla, String.valueOf(numero++), fontCelda, bgColor, Element.ALIGN_CENTER);
+                Color bgColor = numero % 2 == 0 ? PdfTema.FONDO : Color.WHITE;
+                tabla.addCell(tema.celdaTabla(String.valueOf(numero++), fontCelda, bgColor, Element.ALIGN_CENTER));
                 String nombreProducto = detalle.getProducto() != null ? detalle.getProducto().getNombre() : "N/A";
-                agregarCeldaTabla(tabla, nombreProducto, fontCelda, bgColor, Element.ALIGN_LEFT);
-                agregarCeldaTabla(tabla, String.valueOf(detalle.getCantidad()), fontCelda, bgColor, Element.ALIGN_CENTER);
+                tabla.addCell(tema.celdaTabla(nombreProducto, fontCelda, bgColor, Element.ALIGN_LEFT));
+                tabla.addCell(tema.celdaTabla(String.valueOf(detalle.getCantidad()), fontCelda, bgColor, Element.ALIGN_CENTER));
                 double precio = detalle.getProducto() != null && detalle.getProducto().getPrecio() != null 
                     ? detalle.getProducto().getPrecio() : 0.0;
-                agregarCeldaTabla(tabla, String.format("S/ %.2f", precio), fontCelda, bgColor, Element.ALIGN_RIGHT);
+                tabla.addCell(tema.celdaTabla(String.format("S/ %.2f", precio), fontCelda, bgColor, Element.ALIGN_RIGHT));
                 double subtotal = detalle.calcularSubtotal();
-                agregarCeldaTabla(tabla, String.format("S/ %.2f", subtotal), fontCelda, bgColor, Element.ALIGN_RIGHT);
+                tabla.addCell(tema.celdaTabla(String.format("S/ %.2f", subtotal), fontCelda, bgColor, Element.ALIGN_RIGHT));
             }
         } else {
-            PdfPCell cellVacio = new PdfPCell(new Phrase("No hay productos en esta venta", fontCelda));
-            cellVacio.setColspan(5);
-            cellVacio.setHorizontalAlignment(Element.ALIGN_CENTER);
-            cellVacio.setPadding(15);
-            tabla.addCell(cellVacio);
+            tabla.addCell(tema.celdaVacia("No hay productos en esta venta", fontCelda, 5, 15));
         }
         
         document.add(tabla);
@@ -209,44 +183,36 @@ public class VentaPdfService {
 
     
     private void agregarDesgloseMontos(Document document, Venta venta) throws DocumentException {
-        Font fontLabel = new Font(Font.HELVETICA, 10, Font.NORMAL, Color.DARK_GRAY);
-        Font fontValor = new Font(Font.HELVETICA, 10, Font.NORMAL, Color.BLACK);
-        Font fontTotal = new Font(Font.HELVETICA, 14, Font.BOLD, COLOR_NEGRO);
-        
         PdfPTable tablaMontos = new PdfPTable(2);
         tablaMontos.setWidthPercentage(40);
         tablaMontos.setHorizontalAlignment(Element.ALIGN_RIGHT);
         tablaMontos.setWidths(new float[]{1.5f, 1});
         agregarFilaMonto(tablaMontos, "Subtotal:", 
-            String.format("S/ %.2f", venta.getSubtotal() != null ? venta.getSubtotal() : 0.0), 
-            fontLabel, fontValor);
+            String.format("S/ %.2f", venta.getSubtotal() != null ? venta.getSubtotal() : 0.0));
         if (venta.getDescuento() != null && venta.getDescuento() > 0) {
             agregarFilaMonto(tablaMontos, "Descuento:", 
-                String.format("- S/ %.2f", venta.getDescuento()), 
-                fontLabel, fontValor);
+                String.format("- S/ %.2f", venta.getDescuento()));
         }
         agregarFilaMonto(tablaMontos, "IGV (18%):", 
-            String.format("S/ %.2f", venta.getIgv() != null ? venta.getIgv() : 0.0), 
-            fontLabel, fontValor);
+            String.format("S/ %.2f", venta.getIgv() != null ? venta.getIgv() : 0.0));
         if (venta.getCostoDelivery() != null && venta.getCostoDelivery() > 0) {
             agregarFilaMonto(tablaMontos, "Costo Delivery:", 
-                String.format("S/ %.2f", venta.getCostoDelivery()), 
-                fontLabel, fontValor);
+                String.format("S/ %.2f", venta.getCostoDelivery()));
         }
-        PdfPCell cellLabelTotal = new PdfPCell(new Phrase("TOTAL:", fontTotal));
+        PdfPCell cellLabelTotal = new PdfPCell(new Phrase("TOTAL:", tema.fuente(14, Font.BOLD, PdfTema.NEGRO)));
         cellLabelTotal.setBorderWidth(0);
         cellLabelTotal.setBorderWidthTop(2);
-        cellLabelTotal.setBorderColorTop(COLOR_PRIMARIO); // Línea dorada
+        cellLabelTotal.setBorderColorTop(PdfTema.PRIMARIO); // Línea dorada
         cellLabelTotal.setHorizontalAlignment(Element.ALIGN_RIGHT);
         cellLabelTotal.setPaddingTop(10);
         tablaMontos.addCell(cellLabelTotal);
         
-        Font fontTotalValor = new Font(Font.HELVETICA, 14, Font.BOLD, COLOR_PRIMARIO); // Valor en dorado
         PdfPCell cellValorTotal = new PdfPCell(new Phrase(
-            String.format("S/ %.2f", venta.getTotal() != null ? venta.getTotal() : 0.0), fontTotalValor));
+            String.format("S/ %.2f", venta.getTotal() != null ? venta.getTotal() : 0.0),
+            tema.fuente(14, Font.BOLD, PdfTema.PRIMARIO))); // Valor en dorado
         cellValorTotal.setBorderWidth(0);
         cellValorTotal.setBorderWidthTop(2);
-        cellValorTotal.setBorderColorTop(COLOR_PRIMARIO); // Línea dorada
+        cellValorTotal.setBorderColorTop(PdfTema.PRIMARIO); // Línea dorada
         cellValorTotal.setHorizontalAlignment(Element.ALIGN_RIGHT);
         cellValorTotal.setPaddingTop(10);
         tablaMontos.addCell(cellValorTotal);
@@ -257,26 +223,12 @@ public class VentaPdfService {
 
     
     private void agregarEncabezadoHistorial(Document document, String vendedor) throws DocumentException {
-        Font fontEmpresa = new Font(Font.HELVETICA, 20, Font.BOLD, COLOR_NEGRO);
-        Paragraph empresa = new Paragraph("COLCHONES D'ENCANTO", fontEmpresa);
-        empresa.setAlignment(Element.ALIGN_CENTER);
-        document.add(empresa);
-        
-        Font fontTitulo = new Font(Font.HELVETICA, 14, Font.BOLD, COLOR_PRIMARIO);
-        Paragraph titulo = new Paragraph("Historial de Ventas", fontTitulo);
-        titulo.setAlignment(Element.ALIGN_CENTER);
-        document.add(titulo);
-        
-        Font fontVendedor = new Font(Font.HELVETICA, 11, Font.NORMAL, Color.DARK_GRAY);
-        Paragraph vendedorP = new Paragraph("Vendedor: " + (vendedor != null ? vendedor : "Todos"), fontVendedor);
-        vendedorP.setAlignment(Element.ALIGN_CENTER);
-        document.add(vendedorP);
-        
-        Font fontFecha = new Font(Font.HELVETICA, 9, Font.ITALIC, Color.GRAY);
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
-        Paragraph fecha = new Paragraph("Generado el: " + LocalDateTime.now().format(formatter), fontFecha);
-        fecha.setAlignment(Element.ALIGN_CENTER);
-        document.add(fecha);
+        document.add(tema.parrafo("COLCHONES D'ENCANTO", tema.fuente(20, Font.BOLD, PdfTema.NEGRO), Element.ALIGN_CENTER));
+        document.add(tema.parrafo("Historial de Ventas", tema.fuente(14, Font.BOLD, PdfTema.PRIMARIO), Element.ALIGN_CENTER));
+        document.add(tema.parrafo("Vendedor: " + (vendedor != null ? vendedor : "Todos"),
+            tema.fuente(11, Font.NORMAL, Color.DARK_GRAY), Element.ALIGN_CENTER));
+        document.add(tema.parrafo("Generado el: " + LocalDateTime.now().format(FORMATO_FECHA_HORA),
+            tema.fuente(9, Font.ITALIC, Color.GRAY), Element.ALIGN_CENTER));
         
         document.add(new Paragraph(" "));
     }
@@ -284,7 +236,6 @@ public class VentaPdfService {
     
     private void agregarFiltrosAplicados(Document document, String fechaDesde, String fechaHasta) throws DocumentException {
         if ((fechaDesde != null && !fechaDesde.isEmpty()) || (fechaHasta != null && !fechaHasta.isEmpty())) {
-            Font fontFiltro = new Font(Font.HELVETICA, 9, Font.NORMAL, Color.DARK_GRAY);
             StringBuilder filtros = new StringBuilder("Período: ");
             if (fechaDesde != null && !fechaDesde.isEmpty()) {
                 filtros.append("Desde ").append(fechaDesde).append(" ");
@@ -292,9 +243,8 @@ public class VentaPdfService {
             if (fechaHasta != null && !fechaHasta.isEmpty()) {
                 filtros.append("Hasta ").append(fechaHasta);
             }
-            Paragraph pFiltros = new Paragraph(filtros.toString(), fontFiltro);
-            pFiltros.setAlignment(Element.ALIGN_CENTER);
-            document.add(pFiltros);
+            document.add(tema.parrafo(filtros.toString(), tema.fuente(9, Font.NORMAL, Color.DARK_GRAY),
+                Element.ALIGN_CENTER));
             document.add(new Paragraph(" "));
         }
     }
@@ -303,201 +253,134 @@ public class VentaPdfService {
     private void agregarEstadisticas(Document document, Map<String, Object> estadisticas) throws DocumentException {
         if (estadisticas == null || estadisticas.isEmpty()) return;
         
-        Font fontValor = new Font(Font.HELVETICA, 14, Font.BOLD);
-        Font fontLabel = new Font(Font.HELVETICA, 8, Font.NORMAL, Color.DARK_GRAY);
-        
         PdfPTable tablaStats = new PdfPTable(4);
         tablaStats.setWidthPercentage(100);
         tablaStats.setWidths(new float[]{1, 1, 1, 1});
         double totalVentas = estadisticas.get("totalVentas") != null 
             ? ((Number) estadisticas.get("totalVentas")).doubleValue() : 0.0;
-        agregarCeldaKPI(tablaStats, String.format("S/ %.2f", totalVentas), "Ventas Totales", COLOR_PRIMARIO, fontValor, fontLabel);
+        agregarCeldaKPI(tablaStats, String.format("S/ %.2f", totalVentas), "Ventas Totales", PdfTema.PRIMARIO);
         int cantidad = estadisticas.get("cantidadVentas") != null 
             ? ((Number) estadisticas.get("cantidadVentas")).intValue() : 0;
-        agregarCeldaKPI(tablaStats, String.valueOf(cantidad), "Ventas Realizadas", COLOR_EXITO, fontValor, fontLabel);
+        agregarCeldaKPI(tablaStats, String.valueOf(cantidad), "Ventas Realizadas", PdfTema.EXITO);
         double promedio = estadisticas.get("promedioVenta") != null 
             ? ((Number) estadisticas.get("promedioVenta")).doubleValue() : 0.0;
-        agregarCeldaKPI(tablaStats, String.format("S/ %.2f", promedio), "Promedio por Venta", COLOR_INFO, fontValor, fontLabel);
+        agregarCeldaKPI(tablaStats, String.format("S/ %.2f", promedio), "Promedio por Venta", PdfTema.INFO);
         double comisiones = estadisticas.get("comisiones") != null 
             ? ((Number) estadisticas.get("comisiones")).doubleValue() : 0.0;
-        agregarCeldaKPI(tablaStats, String.format("S/ %.2f", comisiones), "Comisiones Est.", COLOR_ADVERTENCIA, fontValor, fontLabel);
+        agregarCeldaKPI(tablaStats, String.format("S/ %.2f", comisiones), "Comisiones Est.", PdfTema.ADVERTENCIA);
         
         document.add(tablaStats);
         document.add(new Paragraph(" "));
     }
 
     
-    private void agregarTablaVentas(Document document, List<Map<String, Object>> ventas) throws DocumentException {
-        Font fontHeader = new Font(Font.HELVETICA, 8, Font.BOLD, Color.WHITE);
-        Font fontCelda = new Font(Font.HELVETICA, 8, Font.NORMAL, Color.BLACK);
+    private void agregarTablaVentas(Document document, Iterator<VentaLineaHistorial> lineas) throws DocumentException {
+        Font fontCelda = tema.fuente(8, Font.NORMAL, Color.BLACK);
         
         PdfPTable tabla = new PdfPTable(7);
         tabla.setWidthPercentage(100);
         tabla.setWidths(new float[]{0.6f, 1.8f, 2f, 1f, 1f, 0.9f, 1f});
+        // Se pasa al documento por bloques: cada bloque se dibuja y sus filas se liberan
+        tabla.setComplete(false);
+        tabla.setHeaderRows(1);
         String[] headers = {"ID", "Cliente", "Productos", "Total", "Método Pago", "Estado", "Fecha"};
         for (String header : headers) {
-            PdfPCell cell = new PdfPCell(new Phrase(header, fontHeader));
-            cell.setBackgroundColor(COLOR_HEADER);
-            cell.setHorizontalAlignment(Element.ALIGN_CENTER);
-            cell.setVerticalAlignment(Element.ALIGN_MIDDLE);
-            cell.setPadding(6);
-            tabla.addCell(cell);
+            tabla.addCell(tema.celdaEncabezado(header, 8, 6));
         }
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yy");
         int fila = 0;
         
-        if (ventas != null && !ventas.isEmpty()) {
-            for (Map<String, Object> venta : ventas) {
-                Color bgColor = fila % 2 == 0 ? Color.WHITE : COLOR_FONDO;
-                agregarCeldaTabla(tabla, "#" + venta.getOrDefault("id", "-"), fontCelda, bgColor, Element.ALIGN_CENTER);
-                agregarCeldaTabla(tabla, (String) venta.getOrDefault("cliente", "N/A"), fontCelda, bgColor, Element.ALIGN_LEFT);
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> detalles = (List<Map<String, Object>>) venta.get("detalles");
-                String productos = obtenerResumenProductos(detalles);
-                agregarCeldaTabla(tabla, productos, fontCelda, bgColor, Element.ALIGN_LEFT);
-                double total = venta.get("montoTotal") != null ? ((Number) venta.get("montoTotal")).doubleValue() : 0.0;
-                agregarCeldaTabla(tabla, String.format("S/ %.2f", total), fontCelda, bgColor, Element.ALIGN_RIGHT);
-                agregarCeldaTabla(tabla, (String) venta.getOrDefault("metodoPago", "N/A"), fontCelda, bgColor, Element.ALIGN_CENTER);
-                String estado = (String) venta.getOrDefault("estado", "PENDIENTE");
-                Color colorEstado = obtenerColorEstado(estado);
-                Font fontEstado = new Font(Font.HELVETICA, 8, Font.BOLD, colorEstado);
-                PdfPCell cellEstado = new PdfPCell(new Phrase(estado, fontEstado));
-                cellEstado.setBackgroundColor(bgColor);
-                cellEstado.setHorizontalAlignment(Element.ALIGN_CENTER);
-                cellEstado.setVerticalAlignment(Element.ALIGN_MIDDLE);
-                cellEstado.setPadding(5);
-                tabla.addCell(cellEstado);
-                Object fechaObj = venta.get("fechaCreacion");
-                String fechaStr = "-";
-                if (fechaObj != null) {
-                    if (fechaObj instanceof LocalDateTime) {
-                        fechaStr = ((LocalDateTime) fechaObj).format(formatter);
-                    } else if (fechaObj instanceof String) {
-                        fechaStr = ((String) fechaObj).substring(0, Math.min(10, ((String) fechaObj).length()));
-                    }
-                }
-                agregarCeldaTabla(tabla, fechaStr, fontCelda, bgColor, Element.ALIGN_CENTER);
-                
-                fila++;
+        // Las líneas de una venta llegan seguidas: se juntan y se escribe una fila por venta
+        List<VentaLineaHistorial> lineasVenta = new ArrayList<>();
+        while (lineas.hasNext() || !lineasVenta.isEmpty()) {
+            VentaLineaHistorial linea = lineas.hasNext() ? lineas.next() : null;
+            if (linea != null && (lineasVenta.isEmpty()
+                    || lineasVenta.get(0).getVentaId().equals(linea.getVentaId()))) {
+                lineasVenta.add(linea);
+                continue;
+            }
+            
+            VentaLineaHistorial venta = lineasVenta.get(0);
+            Color bgColor = fila % 2 == 0 ? Color.WHITE : PdfTema.FONDO;
+            tabla.addCell(tema.celdaTabla("#" + venta.getVentaId(), fontCelda, bgColor, Element.ALIGN_CENTER));
+            tabla.addCell(tema.celdaTabla(venta.getClienteNombre() != null ? venta.getClienteNombre() : "N/A",
+                fontCelda, bgColor, Element.ALIGN_LEFT));
+            tabla.addCell(tema.celdaTabla(obtenerResumenProductos(lineasVenta), fontCelda, bgColor, Element.ALIGN_LEFT));
+            double total = venta.getTotal() != null ? venta.getTotal() : 0.0;
+            tabla.addCell(tema.celdaTabla(String.format("S/ %.2f", total), fontCelda, bgColor, Element.ALIGN_RIGHT));
+            tabla.addCell(tema.celdaTabla(venta.getMetodoPago() != null ? venta.getMetodoPago().name() : "N/A",
+                fontCelda, bgColor, Element.ALIGN_CENTER));
+            String estado = venta.getEstado() != null ? venta.getEstado().name() : "PENDIENTE";
+            Font fontEstado = tema.fuente(8, Font.BOLD, obtenerColorEstado(estado));
+            tabla.addCell(tema.celdaTabla(estado, fontEstado, bgColor, Element.ALIGN_CENTER));
+            String fechaStr = venta.getFechaCreacion() != null ? venta.getFechaCreacion().format(FORMATO_FECHA_CORTA) : "-";
+            tabla.addCell(tema.celdaTabla(fechaStr, fontCelda, bgColor, Element.ALIGN_CENTER));
+            
+            fila++;
+            if (fila % FILAS_POR_BLOQUE == 0) {
+                document.add(tabla);
+            }
+            lineasVenta.clear();
+            if (linea != null) {
+                lineasVenta.add(linea);
             }
-        } else {
-            PdfPCell cellVacio = new PdfPCell(new Phrase("No hay ventas en el período seleccionado", fontCelda));
-            cellVacio.setColspan(7);
-            cellVacio.setHorizontalAlignment(Element.ALIGN_CENTER);
-            cellVacio.setPadding(20);
-            tabla.addCell(cellVacio);
         }
         
+        if (fila == 0) {
+            tabla.addCell(tema.celdaVacia("No hay ventas en el período seleccionado", fontCelda, 7, 20));
+        }
+        
+        tabla.setComplete(true);
         document.add(tabla);
     }
 
     
     private void agregarPiePagina(Document document) throws DocumentException {
         document.add(new Paragraph(" "));
-        agregarLineaDecorativa(document, COLOR_PRIMARIO); // Línea dorada
+        document.add(tema.lineaDecorativa(Rectangle.BOTTOM, 2)); // Línea dorada
         document.add(new Paragraph(" "));
         
-        Font fontGracias = new Font(Font.HELVETICA, 12, Font.BOLD, COLOR_NEGRO);
-        Paragraph gracias = new Paragraph("¡Gracias por su compra!", fontGracias);
-        gracias.setAlignment(Element.ALIGN_CENTER);
-        document.add(gracias);
-        
-        Font fontContacto = new Font(Font.HELVETICA, 9, Font.NORMAL, Color.GRAY);
-        Paragraph contacto = new Paragraph(
-            "📞 (01) 234-5678  |  ✉ ventas@dencanto.pe  |  📍 Av. Principal 123, Lima", fontContacto);
-        contacto.setAlignment(Element.ALIGN_CENTER);
-        document.add(contacto);
+        document.add(tema.parrafo("¡Gracias por su compra!", tema.fuente(12, Font.BOLD, PdfTema.NEGRO), Element.ALIGN_CENTER));
+        document.add(tema.parrafo("📞 (01) 234-5678  |  ✉ ventas@dencanto.pe  |  📍 Av. Principal 123, Lima",
+            tema.fuente(9, Font.NORMAL, Color.GRAY), Element.ALIGN_CENTER));
     }
 
     
     private void agregarPiePaginaHistorial(Document document) throws DocumentException {
         document.add(new Paragraph(" "));
-        
-        Font fontPie = new Font(Font.HELVETICA, 8, Font.NORMAL, Color.GRAY);
-        Paragraph pie = new Paragraph("Colchones D'Encanto - Sistema de Gestión de Ventas", fontPie);
-        pie.setAlignment(Element.ALIGN_CENTER);
-        document.add(pie);
-    }
-
-    private void agregarLineaDecorativa(Document document, Color color) throws DocumentException {
-        PdfPTable linea = new PdfPTable(1);
-        linea.setWidthPercentage(100);
-        PdfPCell celdaLinea = new PdfPCell();
-        celdaLinea.setBorderWidth(0);
-        celdaLinea.setBorderWidthBottom(2);
-        celdaLinea.setBorderColorBottom(color);
-        celdaLinea.setFixedHeight(5);
-        linea.addCell(celdaLinea);
-        document.add(linea);
-    }
-
-    private void agregarCampo(PdfPTable tabla, String label, String valor, Font fontLabel, Font fontValor) {
-        PdfPCell cellLabel = new PdfPCell(new Phrase(label, fontLabel));
-        cellLabel.setBorderWidth(0);
-        cellLabel.setPadding(5);
-        tabla.addCell(cellLabel);
-        
-        PdfPCell cellValor = new PdfPCell(new Phrase(valor != null ? valor : "-", fontValor));
-        cellValor.setBorderWidth(0);
-        cellValor.setPadding(5);
-        tabla.addCell(cellValor);
+        document.add(tema.parrafo("Colchones D'Encanto - Sistema de Gestión de Ventas",
+            tema.fuente(8, Font.NORMAL, Color.GRAY), Element.ALIGN_CENTER));
     }
 
-    private void agregarCeldaTabla(PdfPTable tabla, String texto, Font font, Color bgColor, int alineacion) {
-        PdfPCell cell = new PdfPCell(new Phrase(texto, font));
-        cell.setBackgroundColor(bgColor);
-        cell.setHorizontalAlignment(alineacion);
-        cell.setVerticalAlignment(Element.ALIGN_MIDDLE);
-        cell.setPadding(5);
-        tabla.addCell(cell);
+    private void agregarCampo(PdfPTable tabla, String label, String valor) {
+        tabla.addCell(tema.celdaCampo(label, tema.fuente(9, Font.BOLD, PdfTema.PRIMARIO), Element.ALIGN_LEFT));
+        tabla.addCell(tema.celdaCampo(valor != null ? valor : "-", tema.fuente(9, Font.NORMAL, Color.BLACK),
+            Element.ALIGN_LEFT));
     }
 
-    private void agregarFilaMonto(PdfPTable tabla, String label, String valor, Font fontLabel, Font fontValor) {
-        PdfPCell cellLabel = new PdfPCell(new Phrase(label, fontLabel));
-        cellLabel.setBorderWidth(0);
-        cellLabel.setHorizontalAlignment(Element.ALIGN_RIGHT);
-        cellLabel.setPadding(5);
-        tabla.addCell(cellLabel);
-        
-        PdfPCell cellValor = new PdfPCell(new Phrase(valor, fontValor));
-        cellValor.setBorderWidth(0);
-        cellValor.setHorizontalAlignment(Element.ALIGN_RIGHT);
-        cellValor.setPadding(5);
-        tabla.addCell(cellValor);
+    private void agregarFilaMonto(PdfPTable tabla, String label, String valor) {
+        tabla.addCell(tema.celdaCampo(label, tema.fuente(10, Font.NORMAL, Color.DARK_GRAY), Element.ALIGN_RIGHT));
+        tabla.addCell(tema.celdaCampo(valor, tema.fuente(10, Font.NORMAL, Color.BLACK), Element.ALIGN_RIGHT));
     }
 
-    private void agregarCeldaKPI(PdfPTable tabla, String valor, String label, Color color, Font fontValor, Font fontLabel) {
-        PdfPCell cell = new PdfPCell();
-        cell.setBackgroundColor(COLOR_FONDO);
-        cell.setBorderWidth(1);
-        cell.setBorderColor(color);
-        cell.setHorizontalAlignment(Element.ALIGN_CENTER);
-        cell.setPadding(10);
-        
-        fontValor.setColor(color);
-        Paragraph pValor = new Paragraph(valor, fontValor);
-        pValor.setAlignment(Element.ALIGN_CENTER);
-        cell.addElement(pValor);
-        
-        Paragraph pLabel = new Paragraph(label, fontLabel);
-        pLabel.setAlignment(Element.ALIGN_CENTER);
-        cell.addElement(pLabel);
-        
-        tabla.addCell(cell);
+    private void agregarCeldaKPI(PdfPTable tabla, String valor, String label, Color color) {
+        tabla.addCell(tema.celdaIndicador(valor, tema.fuente(14, Font.BOLD, color),
+            label, tema.fuente(8, Font.NORMAL, Color.DARK_GRAY), PdfTema.FONDO, color, 1));
     }
 
-    private String obtenerResumenProductos(List<Map<String, Object>> detalles) {
-        if (detalles == null || detalles.isEmpty()) return "-";
+    private String obtenerResumenProductos(List<VentaLineaHistorial> lineasVenta) {
+        // Una venta sin detalles llega como una sola línea sin cantidad
+        List<VentaLineaHistorial> detalles = lineasVenta.stream()
+            .filter(l -> l.getCantidad() != null)
+            .toList();
+        if (detalles.isEmpty()) return "-";
         
         StringBuilder sb = new StringBuilder();
         int count = 0;
-        for (Map<String, Object> detalle : detalles) {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> producto = (Map<String, Object>) detalle.get("producto");
-            if (producto != null) {
+        for (VentaLineaHistorial detalle : detalles) {
+            if (detalle.getProductoNombre() != null) {
                 if (count > 0) sb.append(", ");
-                sb.append(producto.getOrDefault("nombre", "N/A"));
-                sb.append(" x").append(detalle.getOrDefault("cantidad", 1));
+                sb.append(detalle.getProductoNombre());
+                sb.append(" x").append(detalle.getCantidad());
                 count++;
                 if (count >= 2 && detalles.size() > 2) {
                     sb.append(" (+").append(detalles.size() - 2).append(" más)");
@@ -511,10 +394,10 @@ public class VentaPdfService {
     private Color obtenerColorEstado(String estado) {
         if (estado == null) return Color.GRAY;
         switch (estado.toUpperCase()) {
-            case "COMPLETADA": return COLOR_EXITO;
-            case "PENDIENTE": return COLOR_ADVERTENCIA;
-            case "CANCELADA": return COLOR_PELIGRO;
-            case "ENTREGADA": return new Color(111, 66, 193);
+            case "COMPLETADA": return PdfTema.EXITO;
+            case "PENDIENTE": return PdfTema.ADVERTENCIA;
+            case "CANCELADA": return PdfTema.PELIGRO;
+            case "ENTREGADA": return PdfTema.MORADO;
             default: return Color.GRAY;
         }
     }
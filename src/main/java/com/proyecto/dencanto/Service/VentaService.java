@@ -3,11 +3,27 @@ package com.proyecto.dencanto.Service;
 import com.proyecto.dencanto.Modelo.*;
 import com.proyecto.dencanto.Repository.VentaRepository;
 import com.proyecto.dencanto.Repository.ProductoRepository;
+import com.proyecto.dencanto.dto.VentaLineaHistorial;
+import com.proyecto.dencanto.dto.VentaPeriodoTotal;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 /**
  * Servicio para la gestión de Ventas con lógica 100% Java
@@ -21,10 +37,27 @@ public class VentaService {
     @Autowired
     private ProductoRepository productoRepository;
 
+    @Autowired
+    private VentaDiariaService ventaDiariaService;
+
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    @Autowired
+    private VentaPdfService ventaPdfService;
+
+    @Autowired
+    private PdfDocumentoCache pdfDocumentoCache;
+
+    @Autowired
+    @Qualifier("comprobantesExecutor")
+    private Executor comprobantesExecutor;
+
     /**
-     * Registra una nueva venta con todas las validaciones
+     * Registra una nueva venta con todas las validaciones.
+     * Cualquier error (incluido stock insuficiente) revierte también el stock ya descontado
      */
-    @Transactional
+    @Transactional(rollbackFor = Exception.class)
     public Venta registrarVenta(Venta venta) throws Exception {
         // 1. Validar datos del cliente
         validarCliente(venta);
@@ -88,23 +121,14 @@ public class VentaService {
             venta.setEstado(EstadoVenta.PENDIENTE);
         }
         
-        // 13. DESCONTAR STOCK de cada producto vendido
-        for (DetalleVenta detalle : venta.getDetalles()) {
-            Producto producto = detalle.getProducto();
-            int nuevoStock = producto.getStock() - detalle.getCantidad();
-            producto.setStock(nuevoStock);
-            
-            // Actualizar estado del producto según stock
-            if (nuevoStock == 0) {
-                producto.setEstado("Agotado");
-            } else if (nuevoStock < 5) {
-                producto.setEstado("Stock Bajo");
-            }
-            productoRepository.save(producto);
-        }
+        // 13. DESCONTAR STOCK de cada producto vendido (condicional, sin sobreventa)
+        descontarStock(venta);
         
-        // 14. Guardar venta
-        return ventaRepository.save(venta);
+        // 14. Guardar venta y sumarla al resumen diario (misma transacción)
+        Venta guardada = ventaRepository.save(venta);
+        ventaDiariaService.registrar(guardada);
+        eventos.publishEvent(new DatosNegocioCambiadosEvent("venta"));
+        return guardada;
     }
 
     /**
@@ -152,35 +176,47 @@ public class VentaService {
     }
 
     /**
-     * Valida stock y calcula el subtotal total
+     * Valida stock y calcula el subtotal total.
+     * Todos los productos se leen con una sola consulta
      */
     private Double validarYCalcularSubtotal(Venta venta) throws Exception {
         Double subtotal = 0.0;
         
+        Set<Integer> ids = new HashSet<>();
         for (DetalleVenta detalle : venta.getDetalles()) {
             // Validar que exista el producto
             if (detalle.getProducto() == null || detalle.getProducto().getId() == null) {
                 throw new Exception("El producto es requerido en cada detalle");
             }
-            
-            // Obtener producto de BD
-            Optional<Producto> productoOpt = productoRepository.findById(detalle.getProducto().getId());
-            if (!productoOpt.isPresent()) {
+            ids.add(detalle.getProducto().getId());
+        }
+        
+        // Obtener productos de BD
+        Map<Integer, Producto> productos = new HashMap<>();
+        for (Producto producto : productoRepository.findAllById(ids)) {
+            productos.put(producto.getId(), producto);
+        }
+        
+        // Cantidad total pedida por producto (puede repetirse en varias líneas)
+        Map<Integer, Integer> solicitado = new HashMap<>();
+        
+        for (DetalleVenta detalle : venta.getDetalles()) {
+            Producto producto = productos.get(detalle.getProducto().getId());
+            if (producto == null) {
                 throw new Exception("El producto " + detalle.getProducto().getNombre() + " no existe");
             }
             
-            Producto producto = productoOpt.get();
-            
             // Validar cantidad
             if (detalle.getCantidad() == null || detalle.getCantidad() < 1) {
                 throw new Exception("La cantidad debe ser mínimo 1");
             }
             
-            // VALIDAR STOCK
-            if (producto.getStock() < detalle.getCantidad()) {
+            // VALIDAR STOCK (verificación temprana; el descuento real es condicional)
+            int cantidad = solicitado.merge(producto.getId(), detalle.getCantidad(), Integer::sum);
+            if (producto.getStock() < cantidad) {
                 throw new Exception("Stock insuficiente para " + producto.getNombre() + 
                     ". Disponible: " + producto.getStock() + 
-                    ", Solicitado: " + detalle.getCantidad());
+                    ", Solicitado: " + cantidad);
             }
             
             // Validar precio unitario
@@ -198,10 +234,33 @@ public class VentaService {
         return subtotal;
     }
 
+    /**
+     * Descuenta el stock con un UPDATE condicional por producto (WHERE stock >= cantidad),
+     * en orden de id para que dos ventas concurrentes bloqueen las filas en el mismo orden.
+     * Si otra venta se llevó el stock entre la validación y el descuento, la venta falla
+     */
+    private void descontarStock(Venta venta) throws Exception {
+        Map<Integer, Integer> cantidades = new TreeMap<>();
+        Map<Integer, Producto> productos = new HashMap<>();
+        for (DetalleVenta detalle : venta.getDetalles()) {
+            Producto producto = detalle.getProducto();
+            cantidades.merge(producto.getId(), detalle.getCantidad(), Integer::sum);
+            productos.put(producto.getId(), producto);
+        }
+        
+        for (Map.Entry<Integer, Integer> entrada : cantidades.entrySet()) {
+            if (productoRepository.descontarStock(entrada.getKey(), entrada.getValue()) == 0) {
+                Producto producto = productos.get(entrada.getKey());
+                throw new Exception("Stock insuficiente para " + producto.getNombre() +
+                    ". Otra venta reservó las unidades disponibles");
+            }
+        }
+    }
+
     /**
      * Actualiza el estado de una venta
      */
-    @Transactional
+    @Transactional(rollbackFor = Exception.class)
     public Venta actualizarEstado(Long ventaId, EstadoVenta nuevoEstado) throws Exception {
         Optional<Venta> ventaOpt = ventaRepository.findById(ventaId);
         if (!ventaOpt.isPresent()) {
@@ -221,26 +280,185 @@ public class VentaService {
         if (nuevoEstado == EstadoVenta.COMPLETADA && estadoActual == EstadoVenta.PENDIENTE) {
             venta.setFechaPago(LocalDateTime.now());
         } else if (nuevoEstado == EstadoVenta.CANCELADA) {
-            // Restaurar stock de productos al cancelar
+            // Restaurar stock de productos al cancelar (UPDATE atómico, en orden de id)
+            Map<Integer, Integer> cantidades = new TreeMap<>();
             for (DetalleVenta detalle : venta.getDetalles()) {
-                Producto producto = detalle.getProducto();
-                int nuevoStock = producto.getStock() + detalle.getCantidad();
-                producto.setStock(nuevoStock);
-                
-                // Actualizar estado del producto según stock restaurado
-                if (nuevoStock > 0 && (producto.getEstado().equals("Agotado") || producto.getEstado().equals("Stock Bajo"))) {
-                    if (nuevoStock >= 5) {
-                        producto.setEstado("Disponible");
-                    } else {
-                        producto.setEstado("Stock Bajo");
-                    }
-                }
-                productoRepository.save(producto);
+                cantidades.merge(detalle.getProducto().getId(), detalle.getCantidad(), Integer::sum);
+            }
+            for (Map.Entry<Integer, Integer> entrada : cantidades.entrySet()) {
+                productoRepository.reponerStock(entrada.getKey(), entrada.getValue());
             }
         }
         
         venta.setEstado(nuevoEstado);
-        return ventaRepository.save(venta);
+        Venta guardada = ventaRepository.save(venta);
+        ventaDiariaService.cambiarEstado(guardada, estadoActual);
+        pdfDocumentoCache.invalidar("venta", ventaId);
+        eventos.publishEvent(new DatosNegocioCambiadosEvent("venta"));
+        return guardada;
+    }
+
+    /**
+     * Filtros del listado de ventas (null = sin filtro). hasta es exclusivo
+     */
+    public record FiltroVentas(EstadoVenta estado, MetodoPago metodoPago, Integer vendedorId,
+                               LocalDateTime desde, LocalDateTime hasta) {}
+
+    /**
+     * Una página del listado. siguienteCursor es null en la última página
+     */
+    public record PaginaVentas(List<Venta> ventas, String siguienteCursor) {}
+
+    // Máximo de ids por consulta IN al cargar los detalles
+    private static final int LOTE_DETALLES = 500;
+
+    /**
+     * Listado paginado por keyset sobre (fechaCreacion, id): los filtros y el corte se hacen en
+     * SQL y cada página cuesta dos consultas (ids de la página y ventas con detalles).
+     * limite null = todas las ventas que cumplen el filtro
+     */
+    @Transactional(readOnly = true)
+    public PaginaVentas listar(FiltroVentas filtro, String cursor, Integer limite, boolean ascendente) throws Exception {
+        LocalDateTime cursorFecha = null;
+        Long cursorId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                cursorFecha = LocalDateTime.parse(partes[0]);
+                cursorId = Long.valueOf(partes[1]);
+            } catch (RuntimeException e) {
+                throw new Exception("Cursor de paginación inválido");
+            }
+        }
+
+        // Se pide un registro más para saber si hay otra página
+        Pageable pagina = limite != null ? PageRequest.of(0, limite + 1) : Pageable.unpaged();
+        List<Long> ids = ascendente
+            ? ventaRepository.idsListadoAntiguas(filtro.estado(), filtro.metodoPago(), filtro.vendedorId(),
+                filtro.desde(), filtro.hasta(), cursorFecha, cursorId, pagina)
+            : ventaRepository.idsListadoRecientes(filtro.estado(), filtro.metodoPago(), filtro.vendedorId(),
+                filtro.desde(), filtro.hasta(), cursorFecha, cursorId, pagina);
+        boolean hayMas = limite != null && ids.size() > limite;
+        if (hayMas) {
+            ids = ids.subList(0, limite);
+        }
+
+        Map<Long, Venta> porId = new HashMap<>();
+        for (int i = 0; i < ids.size(); i += LOTE_DETALLES) {
+            for (Venta venta : ventaRepository.conDetalles(ids.subList(i, Math.min(i + LOTE_DETALLES, ids.size())))) {
+                porId.put(venta.getId(), venta);
+            }
+        }
+        List<Venta> ventas = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Venta venta = porId.get(id);
+            if (venta != null) {
+                ventas.add(venta);
+            }
+        }
+
+        String siguiente = null;
+        if (hayMas && !ventas.isEmpty()) {
+            Venta ultima = ventas.get(ventas.size() - 1);
+            siguiente = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                (ultima.getFechaCreacion() + "|" + ultima.getId()).getBytes(StandardCharsets.UTF_8));
+        }
+        return new PaginaVentas(ventas, siguiente);
+    }
+
+    /**
+     * Escribe en la salida el PDF del historial con los filtros dados. Las estadísticas salen de
+     * una consulta agregada y las filas se leen del cursor de la BD mientras se escribe el PDF,
+     * así la memoria no crece con el número de ventas
+     */
+    @Transactional(readOnly = true)
+    public void exportarHistorialPdf(FiltroVentas filtro, String vendedor, String fechaDesde, String fechaHasta,
+                                     OutputStream salida) throws Exception {
+        exportarHistorialPdf(filtro, vendedor, fechaDesde, fechaHasta, salida, porcentaje -> {});
+    }
+
+    /**
+     * Igual que la anterior, informando el porcentaje de ventas escritas (exportación en segundo plano)
+     */
+    @Transactional(readOnly = true)
+    public void exportarHistorialPdf(FiltroVentas filtro, String vendedor, String fechaDesde, String fechaHasta,
+                                     OutputStream salida, IntConsumer progreso) throws Exception {
+        double totalVentas = 0;
+        long cantidadVentas = 0;
+        for (VentaPeriodoTotal t : ventaRepository.totalesListado(filtro.estado(), filtro.metodoPago(),
+                filtro.vendedorId(), filtro.desde(), filtro.hasta())) {
+            totalVentas += t.getMonto();
+            cantidadVentas += t.getPedidos();
+        }
+        Map<String, Object> estadisticas = new HashMap<>();
+        estadisticas.put("totalVentas", totalVentas);
+        estadisticas.put("cantidadVentas", cantidadVentas);
+        estadisticas.put("promedioVenta", cantidadVentas > 0 ? totalVentas / cantidadVentas : 0);
+        estadisticas.put("comisiones", totalVentas * 0.10); // 10% de comisión
+
+        try (Stream<VentaLineaHistorial> lineas = ventaRepository.lineasHistorial(filtro.estado(),
+                filtro.metodoPago(), filtro.vendedorId(), filtro.desde(), filtro.hasta())) {
+            ventaPdfService.escribirPdfHistorialVentas(
+                new IteradorConProgreso<>(lineas.iterator(), cantidadVentas, VentaLineaHistorial::getVentaId, progreso),
+                estadisticas, vendedor, fechaDesde, fechaHasta, salida);
+        }
+    }
+
+    // Comprobantes del ZIP en proceso a la vez (ventas cargadas o PDFs esperando entrar al ZIP)
+    private static final int LOTE_COMPROBANTES = 16;
+
+    private record Comprobante(String nombreArchivo, byte[] pdf) {}
+
+    /**
+     * Ids de las ventas del filtro, más antiguas primero, hasta maximo + 1 (para que quien llama
+     * pueda rechazar un rango demasiado grande)
+     */
+    public List<Long> idsComprobantes(FiltroVentas filtro, int maximo) {
+        return ventaRepository.idsListadoAntiguas(filtro.estado(), filtro.metodoPago(), filtro.vendedorId(),
+            filtro.desde(), filtro.hasta(), null, null, PageRequest.of(0, maximo + 1));
+    }
+
+    /**
+     * Escribe en la salida un ZIP con el comprobante de cada venta (los ids que no existen se
+     * omiten). Los PDFs se generan en paralelo en comprobantesExecutor y cada uno entra al ZIP en
+     * cuanto termina, en el orden en que terminan; nunca hay más de LOTE_COMPROBANTES en memoria
+     */
+    public void exportarComprobantesZip(Collection<Long> ids, OutputStream salida) throws Exception {
+        List<Long> pendientes = new ArrayList<>(new LinkedHashSet<>(ids));
+        CompletionService<Comprobante> completados = new ExecutorCompletionService<>(comprobantesExecutor);
+        int enCurso = 0;
+
+        ZipOutputStream zip = new ZipOutputStream(salida);
+        for (int i = 0; i < pendientes.size(); i += LOTE_COMPROBANTES) {
+            List<Long> lote = pendientes.subList(i, Math.min(i + LOTE_COMPROBANTES, pendientes.size()));
+            for (Venta venta : ventaRepository.conDetalles(lote)) {
+                if (enCurso == LOTE_COMPROBANTES) {
+                    agregarAlZip(zip, completados);
+                    enCurso--;
+                }
+                completados.submit(() -> new Comprobante(
+                    String.format("Comprobante_Venta_%06d.pdf", venta.getId()), comprobantePdf(venta)));
+                enCurso++;
+            }
+        }
+        for (; enCurso > 0; enCurso--) {
+            agregarAlZip(zip, completados);
+        }
+        // El índice del ZIP se escribe solo si entraron todos: ante un error la descarga queda
+        // incompleta en vez de parecer un ZIP válido al que le faltan comprobantes
+        zip.close();
+    }
+
+    private static void agregarAlZip(ZipOutputStream zip, CompletionService<Comprobante> completados) throws Exception {
+        Comprobante comprobante;
+        try {
+            comprobante = completados.take().get();
+        } catch (ExecutionException e) {
+            throw new Exception("Error al generar un comprobante: " + e.getCause().getMessage(), e.getCause());
+        }
+        zip.putNextEntry(new ZipEntry(comprobante.nombreArchivo()));
+        zip.write(comprobante.pdf());
+        zip.closeEntry();
     }
 
     /**
@@ -264,6 +482,26 @@ public class VentaService {
         return ventaRepository.findById(id);
     }
 
+    /**
+     * ETag del comprobante en su versión actual
+     */
+    public String etagComprobante(Venta venta) {
+        return pdfDocumentoCache.etag("venta", venta.getId(), versionComprobante(venta));
+    }
+
+    /**
+     * PDF del comprobante, desde la caché en disco mientras la venta no cambie
+     */
+    public byte[] comprobantePdf(Venta venta) throws Exception {
+        return pdfDocumentoCache.obtener("venta", venta.getId(), versionComprobante(venta),
+            () -> ventaPdfService.generarPdfVenta(venta));
+    }
+
+    // Una venta registrada solo cambia de estado (y fecha de pago) con actualizarEstado
+    private static String versionComprobante(Venta venta) {
+        return venta.getEstado() + "|" + venta.getFechaPago() + "|" + venta.getTotal();
+    }
+
     /**
      * Obtiene ventas por estado
      */
@@ -284,25 +522,31 @@ public class VentaService {
      * Obtiene reporte general del día
      */
     public Map<String, Object> obtenerReporteDelDia() {
-        List<Venta> ventasDelDia = obtenerVentasDelDia();
+        LocalDateTime inicioHoy = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0);
+        LocalDateTime finHoy = LocalDateTime.now().withHour(23).withMinute(59).withSecond(59);
+        Map<EstadoVenta, VentaPeriodoTotal> porEstado = new EnumMap<>(EstadoVenta.class);
+        for (VentaPeriodoTotal t : ventaRepository.totalesPorEstado(inicioHoy, finHoy)) {
+            porEstado.put(t.getEstado(), t);
+        }
         
         Map<String, Object> reporte = new HashMap<>();
-        reporte.put("totalVentas", ventasDelDia.size());
-        reporte.put("ventasCompletadas", ventasDelDia.stream()
-            .filter(v -> v.getEstado() == EstadoVenta.COMPLETADA).count());
-        reporte.put("ventasPendientes", ventasDelDia.stream()
-            .filter(v -> v.getEstado() == EstadoVenta.PENDIENTE).count());
-        reporte.put("ventasCanceladas", ventasDelDia.stream()
-            .filter(v -> v.getEstado() == EstadoVenta.CANCELADA).count());
-        reporte.put("ventasEntregadas", ventasDelDia.stream()
-            .filter(v -> v.getEstado() == EstadoVenta.ENTREGADA).count());
+        reporte.put("totalVentas", porEstado.values().stream().mapToLong(VentaPeriodoTotal::getPedidos).sum());
+        reporte.put("ventasCompletadas", pedidos(porEstado, EstadoVenta.COMPLETADA));
+        reporte.put("ventasPendientes", pedidos(porEstado, EstadoVenta.PENDIENTE));
+        reporte.put("ventasCanceladas", pedidos(porEstado, EstadoVenta.CANCELADA));
+        reporte.put("ventasEntregadas", pedidos(porEstado, EstadoVenta.ENTREGADA));
         
-        Double ingresoTotal = ventasDelDia.stream()
-            .filter(v -> v.getEstado() == EstadoVenta.COMPLETADA)
-            .mapToDouble(Venta::getTotal)
-            .sum();
-        reporte.put("ingresoTotal", ingresoTotal);
+        VentaPeriodoTotal completadas = porEstado.get(EstadoVenta.COMPLETADA);
+        reporte.put("ingresoTotal", completadas != null ? completadas.getMonto() : 0.0);
         
         return reporte;
     }
+
+    /**
+     * Número de ventas en un estado (0 si no hay)
+     */
+    private long pedidos(Map<EstadoVenta, VentaPeriodoTotal> porEstado, EstadoVenta estado) {
+        VentaPeriodoTotal total = porEstado.get(estado);
+        return total != null ? total.getPedidos() : 0L;
+    }
 }
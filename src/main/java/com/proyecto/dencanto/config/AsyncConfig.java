@@ -0,0 +1,118 @@
+package com.proyecto.dencanto.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class AsyncConfig {
+
+    /**
+     * Pool pequeño para redimensionar imágenes fuera de los hilos de Tomcat
+     */
+    @Bean(name = "imagenesExecutor")
+    public Executor imagenesExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("imagenes-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Un solo hilo para las migraciones de datos que se lanzan al arrancar
+     */
+    @Bean(name = "migracionesExecutor")
+    public Executor migracionesExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(10);
+        executor.setThreadNamePrefix("migraciones-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Un solo hilo para reconstruir las estadísticas del dashboard tras cada cambio
+     */
+    @Bean(name = "dashboardExecutor")
+    public Executor dashboardExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(10);
+        executor.setThreadNamePrefix("dashboard-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Un solo hilo para reconstruir el catálogo en memoria cuando cambian los productos
+     */
+    @Bean(name = "catalogoExecutor")
+    public Executor catalogoExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(10);
+        executor.setThreadNamePrefix("catalogo-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Hilos que escriben las exportaciones (PDF) directamente en la respuesta, fuera de los hilos de Tomcat
+     */
+    @Bean(name = "exportacionesExecutor")
+    public AsyncTaskExecutor exportacionesExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(50);
+        executor.setThreadNamePrefix("exportaciones-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pocos hilos y cola acotada para los trabajos de exportación en segundo plano: si la cola se
+     * llena, el trabajo se rechaza en vez de acumular PDFs pendientes
+     */
+    @Bean(name = "trabajosExportacionExecutor")
+    public Executor trabajosExportacionExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(20);
+        executor.setThreadNamePrefix("trabajos-exportacion-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Hilos que generan los comprobantes del ZIP de ventas en paralelo. Con la cola llena el
+     * PDF lo genera el mismo hilo que escribe el ZIP, que así deja de pedir más
+     */
+    @Bean(name = "comprobantesExecutor")
+    public Executor comprobantesExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(32);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("comprobantes-");
+        executor.initialize();
+        return executor;
+    }
+}
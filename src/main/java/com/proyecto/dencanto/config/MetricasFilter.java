@@ -0,0 +1,55 @@
+package com.proyecto.dencanto.config;
+
+import com.proyecto.dencanto.Service.MetricasPeticiones;
+import com.proyecto.dencanto.security.ResultadoAutenticacion;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Mide cada petición (incluida la seguridad, por eso va antes que Spring Security)
+ * y la registra en MetricasPeticiones con la ruta del controlador y el resultado de JwtFilter
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MetricasFilter extends OncePerRequestFilter {
+
+    // Peticiones rechazadas antes de llegar a un controlador (p. ej. 403 de seguridad)
+    private static final String SIN_RUTA = "(sin ruta)";
+
+    @Autowired
+    private MetricasPeticiones metricasPeticiones;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        long inicio = System.nanoTime();
+        boolean fallo = false;
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            fallo = true;
+            throw e;
+        } finally {
+            Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            Object autenticacion = request.getAttribute(ResultadoAutenticacion.ATRIBUTO);
+            metricasPeticiones.registrar(
+                request.getMethod(),
+                patron != null ? patron.toString() : SIN_RUTA,
+                autenticacion != null ? autenticacion.toString() : ResultadoAutenticacion.PUBLICA.name(),
+                fallo ? 500 : response.getStatus(),
+                System.nanoTime() - inicio);
+        }
+    }
+}
@@ -1,14 +1,37 @@
 package com.proyecto.dencanto.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
-public class WebConfig {
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    @Qualifier("exportacionesExecutor")
+    private AsyncTaskExecutor exportacionesExecutor;
+
+    // Tiempo máximo de una respuesta escrita en segundo plano (exportaciones grandes)
+    @Value("${exportaciones.timeout-segundos:600}")
+    private long timeoutSegundos;
     
     @Bean
     public BCryptPasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
     }
-}
\ No newline at end of file
+
+    /**
+     * Las respuestas StreamingResponseBody se escriben con exportacionesExecutor
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(exportacionesExecutor);
+        configurer.setDefaultTimeout(timeoutSegundos * 1000);
+    }
+}
@@ -2,16 +2,28 @@ package com.proyecto.dencanto.controller;
 
 import com.proyecto.dencanto.Modelo.Cotizacion;
 import com.proyecto.dencanto.Service.CotizacionService;
-import com.proyecto.dencanto.Service.CotizacionPdfService;
+import com.proyecto.dencanto.Service.ExportacionService;
+import com.proyecto.dencanto.dto.CotizacionResumen;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -27,20 +39,54 @@ public class CotizacionesApiController {
     private CotizacionService cotizacionService;
     
     @Autowired
-    private CotizacionPdfService cotizacionPdfService;
+    private ExportacionService exportacionService;
+    
+    // Tamaño máximo de página del listado
+    private static final int TAMANO_MAXIMO = 200;
     
     /**
-     * Obtener todas las cotizaciones
+     * Listado de cotizaciones (sin el JSON de productos salvo incluirProductos=true).
+     * Filtros opcionales: estado, fechaDesde/fechaHasta (yyyy-MM-dd) y termino (inicio del nombre
+     * o email). Con pagina/tamano devuelve esa página; sin ellos, todas
      */
     @GetMapping
-    public ResponseEntity<?> obtenerTodas() {
+    public ResponseEntity<?> obtenerTodas(
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) String fechaDesde,
+            @RequestParam(required = false) String fechaHasta,
+            @RequestParam(required = false) String termino,
+            @RequestParam(required = false) Integer pagina,
+            @RequestParam(required = false) Integer tamano,
+            @RequestParam(defaultValue = "false") boolean incluirProductos) {
         try {
-            List<Cotizacion> cotizaciones = cotizacionService.obtenerTodas();
-            return ResponseEntity.ok(Map.of(
-                "success", true,
-                "data", cotizaciones,
-                "total", cotizaciones.size()
-            ));
+            LocalDateTime desde;
+            LocalDateTime hasta;
+            try {
+                desde = fechaDesde != null && !fechaDesde.isBlank() ? LocalDate.parse(fechaDesde).atStartOfDay() : null;
+                hasta = fechaHasta != null && !fechaHasta.isBlank() ? LocalDate.parse(fechaHasta).plusDays(1).atStartOfDay() : null;
+            } catch (DateTimeParseException e) {
+                return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "error", "Fecha inválida, use el formato yyyy-MM-dd"
+                ));
+            }
+            
+            Pageable paginacion = pagina != null || tamano != null
+                ? PageRequest.of(Math.max(0, pagina != null ? pagina : 0),
+                    Math.max(1, Math.min(tamano != null ? tamano : 20, TAMANO_MAXIMO)))
+                : Pageable.unpaged();
+            Page<CotizacionResumen> cotizaciones = cotizacionService.listar(
+                estado, desde, hasta, termino, paginacion, incluirProductos);
+            
+            Map<String, Object> respuesta = new HashMap<>();
+            respuesta.put("success", true);
+            respuesta.put("data", cotizaciones.getContent());
+            respuesta.put("total", cotizaciones.getTotalElements());
+            if (paginacion.isPaged()) {
+                respuesta.put("pagina", cotizaciones.getNumber());
+                respuesta.put("totalPaginas", cotizaciones.getTotalPages());
+            }
+            return ResponseEntity.ok(respuesta);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body(Map.of(
                 "success", false,
@@ -154,12 +200,12 @@ public class CotizacionesApiController {
     }
     
     /**
-     * Buscar cotizaciones por nombre o email
+     * Buscar cotizaciones por inicio del nombre o email
      */
     @GetMapping("/buscar")
     public ResponseEntity<?> buscar(@RequestParam String termino) {
         try {
-            List<Cotizacion> cotizaciones = cotizacionService.buscar(termino);
+            List<CotizacionResumen> cotizaciones = cotizacionService.buscar(termino);
             return ResponseEntity.ok(Map.of(
                 "success", true,
                 "data", cotizaciones,
@@ -174,10 +220,11 @@ public class CotizacionesApiController {
     }
 
     /**
-     * Exportar PDF de una cotización individual
+     * Exportar PDF de una cotización individual. Se guarda en disco hasta que la cotización
+     * cambie; si If-None-Match coincide con el ETag se responde 304
      */
     @GetMapping("/{id}/pdf")
-    public ResponseEntity<?> exportarPdfCotizacion(@PathVariable Integer id) {
+    public ResponseEntity<?> exportarPdfCotizacion(@PathVariable Integer id, WebRequest request) {
         try {
             Optional<Cotizacion> cotizacionOpt = cotizacionService.obtenerPorId(id);
             
@@ -190,20 +237,16 @@ public class CotizacionesApiController {
             
             Cotizacion cotizacion = cotizacionOpt.get();
             
-            // Parsear productos del JSON
-            List<Map<String, Object>> productos = new ArrayList<>();
-            if (cotizacion.getProductosJson() != null && !cotizacion.getProductosJson().isEmpty()) {
-                try {
-                    com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-                    productos = mapper.readValue(cotizacion.getProductosJson(), 
-                        new com.fasterxml.jackson.core.type.TypeReference<List<Map<String, Object>>>() {});
-                } catch (Exception e) {
-                    // Si falla el parseo, usar lista vacía
-                }
+            String etag = cotizacionService.etagPdf(cotizacion);
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .eTag(etag)
+                    .build();
             }
             
-            // Generar PDF
-            byte[] pdfBytes = cotizacionPdfService.generarPdfCotizacion(cotizacion, productos);
+            // Generar PDF (o leerlo de la caché)
+            byte[] pdfBytes = cotizacionService.cotizacionPdf(cotizacion);
             
             // Nombre del archivo
             String nombreArchivo = String.format("Cotizacion_%d_%s.pdf", 
@@ -217,6 +260,8 @@ public class CotizacionesApiController {
             
             return ResponseEntity.ok()
                 .headers(headers)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(etag)
                 .body(pdfBytes);
                 
         } catch (Exception e) {
@@ -228,50 +273,54 @@ public class CotizacionesApiController {
     }
 
     /**
-     * Exportar PDF con listado de todas las cotizaciones
+     * Exportar PDF con listado de todas las cotizaciones. Se escribe directamente en la
+     * respuesta mientras se leen las cotizaciones, sin armar el archivo en memoria
      */
     @GetMapping("/exportar-pdf")
-    public ResponseEntity<?> exportarPdfListado(
+    public ResponseEntity<StreamingResponseBody> exportarPdfListado(
             @RequestParam(required = false) String estado) {
-        try {
-            List<Cotizacion> cotizaciones;
-            
-            // Filtrar por estado si se proporciona
-            if (estado != null && !estado.isEmpty()) {
-                cotizaciones = cotizacionService.obtenerPorEstado(estado);
-            } else {
-                cotizaciones = cotizacionService.obtenerTodas();
+        // Nombre del archivo
+        String nombreArchivo = String.format("Listado_Cotizaciones_%s.pdf", 
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmm")));
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", nombreArchivo);
+        
+        StreamingResponseBody cuerpo = salida -> {
+            try {
+                cotizacionService.exportarListadoPdf(estado, salida);
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Error al generar PDF del listado: " + e.getMessage(), e);
             }
-            
-            // Calcular estadísticas
-            Map<String, Object> estadisticas = new HashMap<>();
-            estadisticas.put("total", cotizaciones.size());
-            estadisticas.put("pendientes", cotizaciones.stream().filter(c -> "Pendiente".equals(c.getEstado())).count());
-            estadisticas.put("enProceso", cotizaciones.stream().filter(c -> "En Proceso".equals(c.getEstado())).count());
-            estadisticas.put("contactadas", cotizaciones.stream().filter(c -> "Contactado".equals(c.getEstado())).count());
-            estadisticas.put("cerradas", cotizaciones.stream().filter(c -> "Cerrada".equals(c.getEstado())).count());
-            
-            // Generar PDF
-            byte[] pdfBytes = cotizacionPdfService.generarPdfListadoCotizaciones(cotizaciones, estadisticas);
-            
-            // Nombre del archivo
-            String nombreArchivo = String.format("Listado_Cotizaciones_%s.pdf", 
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmm")));
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", nombreArchivo);
-            headers.setContentLength(pdfBytes.length);
-            
-            return ResponseEntity.ok()
-                .headers(headers)
-                .body(pdfBytes);
-                
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().body(Map.of(
-                "success", false,
-                "error", "Error al generar PDF del listado: " + e.getMessage()
-            ));
+        };
+        return ResponseEntity.ok()
+            .headers(headers)
+            .body(cuerpo);
+    }
+
+    /**
+     * Encola el listado en segundo plano y responde 202 con el trabajo; su avance y el archivo
+     * se consultan en /intranet/api/exportaciones/{id}. Con el mismo filtro, mientras no venza,
+     * devuelve el trabajo ya generado
+     */
+    @PostMapping("/exportar-pdf")
+    public ResponseEntity<?> encolarPdfListado(@RequestParam(required = false) String estado) {
+        Map<String, String> parametros = new HashMap<>();
+        parametros.put("estado", estado != null && !estado.isEmpty() ? estado : null);
+        String nombreArchivo = String.format("Listado_Cotizaciones_%s.pdf", 
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmm")));
+        
+        try {
+            ExportacionService.Trabajo trabajo = exportacionService.encolar("listado-cotizaciones", parametros,
+                SecurityContextHolder.getContext().getAuthentication().getName(), nombreArchivo,
+                (salida, progreso) -> cotizacionService.exportarListadoPdf(estado, salida, progreso));
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("success", true, "data", trabajo.resumen()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("success", false, "error", e.getMessage()));
         }
     }
 }
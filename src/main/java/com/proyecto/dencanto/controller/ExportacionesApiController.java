@@ -0,0 +1,70 @@
+package com.proyecto.dencanto.controller;
+
+import com.proyecto.dencanto.Service.ExportacionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Controlador API para los trabajos de exportación en segundo plano (encolados con POST en
+ * /intranet/api/reportes, /ventas y /cotizaciones/exportar-pdf). Cada usuario solo ve los
+ * trabajos que pidió
+ */
+@RestController
+@RequestMapping("/intranet/api/exportaciones")
+@PreAuthorize("hasAnyRole('ADMIN', 'VENDEDOR')")
+public class ExportacionesApiController {
+
+    @Autowired
+    private ExportacionService exportacionService;
+
+    /**
+     * GET /intranet/api/exportaciones/{id}
+     * Estado y porcentaje de avance del trabajo
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<?> obtenerEstado(@PathVariable String id) {
+        ExportacionService.Trabajo trabajo = obtenerTrabajo(id);
+        if (trabajo == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("success", false, "error", "Exportación no encontrada o vencida"));
+        }
+        return ResponseEntity.ok(Map.of("success", true, "data", trabajo.resumen()));
+    }
+
+    /**
+     * GET /intranet/api/exportaciones/{id}/archivo
+     * Descarga el PDF generado. 409 si el trabajo aún no termina o falló
+     */
+    @GetMapping("/{id}/archivo")
+    public ResponseEntity<?> descargarArchivo(@PathVariable String id) {
+        ExportacionService.Trabajo trabajo = obtenerTrabajo(id);
+        if (trabajo == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("success", false, "error", "Exportación no encontrada o vencida"));
+        }
+        if (trabajo.getEstado() != ExportacionService.EstadoTrabajo.COMPLETADO) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("success", false, "error", "La exportación no está lista", "data", trabajo.resumen()));
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", trabajo.getNombreArchivo());
+        return ResponseEntity.ok()
+            .headers(headers)
+            .body(new FileSystemResource(trabajo.getArchivo()));
+    }
+
+    private ExportacionService.Trabajo obtenerTrabajo(String id) {
+        return exportacionService.obtener(id, SecurityContextHolder.getContext().getAuthentication().getName());
+    }
+}
@@ -4,15 +4,23 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 
+import java.util.List;
 
-import com.proyecto.dencanto.Repository.ProductoRepository;
+
+import com.proyecto.dencanto.Service.ProductoBusqueda;
+import com.proyecto.dencanto.Service.ProductoService;
 
 @Controller
 public class Homecontroller {
 
     @Autowired
-    private ProductoRepository productoRepository;
+    private ProductoService productoService;
+
+    @Autowired
+    private ProductoBusqueda productoBusqueda;
 
     
 
@@ -25,11 +33,21 @@ public class Homecontroller {
     @GetMapping("/productos")
     public String mostrarProductos(Model model) {
         model.addAttribute("titulo", "Productos - Fábrica de Colchones");
-        model.addAttribute("productos", productoRepository.findAll());
+        model.addAttribute("productos", productoService.obtenerCatalogo());
         
         return "productos";
     }
 
+    /**
+     * Búsqueda del catálogo público: ids de los productos que coinciden, por relevancia
+     * (la página ya tiene los productos y solo los filtra y reordena)
+     */
+    @GetMapping("/productos/buscar")
+    @ResponseBody
+    public List<Integer> buscarProductos(@RequestParam(required = false) String termino) {
+        return productoBusqueda.buscar(termino);
+    }
+
     @GetMapping("/nosotros")
     public String mostrarNosotros(Model model){
         model.addAttribute("titulo", "Nosotros - Colchones D' Encanto");
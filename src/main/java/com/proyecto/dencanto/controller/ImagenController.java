@@ -1,17 +1,27 @@
 package com.proyecto.dencanto.controller;
 
+import com.proyecto.dencanto.Modelo.Imagen;
 import com.proyecto.dencanto.Modelo.Producto;
+import com.proyecto.dencanto.Modelo.VarianteImagen;
 import com.proyecto.dencanto.Repository.ProductoRepository;
+import com.proyecto.dencanto.Service.ImagenCache;
+import com.proyecto.dencanto.Service.ImagenService;
+import com.proyecto.dencanto.Service.ImagenVarianteService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import java.util.Base64;
+import org.springframework.web.context.request.WebRequest;
+import java.time.ZoneId;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/imagen")
@@ -20,70 +30,116 @@ public class ImagenController {
     @Autowired
     private ProductoRepository productoRepository;
 
+    @Autowired
+    private ImagenService imagenService;
+
+    @Autowired
+    private ImagenCache imagenCache;
+
+    @Autowired
+    private ImagenVarianteService imagenVarianteService;
+
+    // Tiempo de caché del navegador cuando la URL no lleva versión (?v=hash)
+    @Value("${imagenes.cache.max-age:3600}")
+    private long maxAgeSegundos;
+
     @GetMapping("/principal/{id}")
-    public ResponseEntity<?> obtenerImagenPrincipal(@PathVariable Integer id) {
-        Optional<Producto> opt = productoRepository.findById(id);
-        if (opt.isEmpty()) return ResponseEntity.notFound().build();
-        
-        Producto p = opt.get();
-        if (p.getImagenPrincipal() == null || p.getImagenPrincipal().isEmpty()) {
-            return ResponseEntity.notFound().build();
-        }
-        
-        try {
-            byte[] bytes = Base64.getDecoder().decode(p.getImagenPrincipal());
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_TYPE, MediaType.IMAGE_JPEG_VALUE)
-                    .body(bytes);
-        } catch (Exception e) {
-            return ResponseEntity.ok().header(HttpHeaders.CONTENT_TYPE, MediaType.IMAGE_JPEG_VALUE)
-                    .body(p.getImagenPrincipal().getBytes());
-        }
+    public ResponseEntity<?> obtenerImagenPrincipal(@PathVariable Integer id,
+                                                    @RequestParam(required = false) String v,
+                                                    @RequestParam(required = false) String size,
+                                                    WebRequest request) {
+        return servirImagen(id, "principal", Producto::getImagenPrincipalHash, size, v, request);
     }
 
     @GetMapping("/tecnica1/{id}")
-    public ResponseEntity<?> obtenerImagenTecnica1(@PathVariable Integer id) {
-        Optional<Producto> opt = productoRepository.findById(id);
-        if (opt.isEmpty()) return ResponseEntity.notFound().build();
-        
-        Producto p = opt.get();
-        String img = p.getImagenTecnica1() != null ? p.getImagenTecnica1() : p.getImagenPrincipal();
-        
-        if (img == null || img.isEmpty()) {
-            return ResponseEntity.notFound().build();
-        }
-        
-        try {
-            byte[] bytes = Base64.getDecoder().decode(img);
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_TYPE, MediaType.IMAGE_JPEG_VALUE)
-                    .body(bytes);
-        } catch (Exception e) {
-            return ResponseEntity.ok().header(HttpHeaders.CONTENT_TYPE, MediaType.IMAGE_JPEG_VALUE)
-                    .body(img.getBytes());
-        }
+    public ResponseEntity<?> obtenerImagenTecnica1(@PathVariable Integer id,
+                                                   @RequestParam(required = false) String v,
+                                                   @RequestParam(required = false) String size,
+                                                   WebRequest request) {
+        return servirImagen(id, "tecnica1",
+                p -> p.getImagenTecnica1Hash() != null ? p.getImagenTecnica1Hash() : p.getImagenPrincipalHash(), size, v, request);
     }
 
     @GetMapping("/tecnica2/{id}")
-    public ResponseEntity<?> obtenerImagenTecnica2(@PathVariable Integer id) {
-        Optional<Producto> opt = productoRepository.findById(id);
-        if (opt.isEmpty()) return ResponseEntity.notFound().build();
-        
-        Producto p = opt.get();
-        String img = p.getImagenTecnica2() != null ? p.getImagenTecnica2() : p.getImagenPrincipal();
-        
-        if (img == null || img.isEmpty()) {
+    public ResponseEntity<?> obtenerImagenTecnica2(@PathVariable Integer id,
+                                                   @RequestParam(required = false) String v,
+                                                   @RequestParam(required = false) String size,
+                                                   WebRequest request) {
+        return servirImagen(id, "tecnica2",
+                p -> p.getImagenTecnica2Hash() != null ? p.getImagenTecnica2Hash() : p.getImagenPrincipalHash(), size, v, request);
+    }
+
+    /**
+     * Sirve la imagen desde la caché en memoria (o la carga una vez de BD).
+     * Con ?size=thumbnail|card|detail se entrega la variante redimensionada si ya fue generada.
+     * El ETag es el hash del contenido; si coincide con If-None-Match se responde 304.
+     */
+    private ResponseEntity<?> servirImagen(Integer id, String posicion, Function<Producto, String> selectorHash,
+                                           String size, String version, WebRequest request) {
+        VarianteImagen variante = VarianteImagen.desde(size);
+        String clave = variante != null ? posicion + ":" + variante.name() : posicion;
+
+        ImagenCache.Entrada entrada = imagenCache.obtener(id, clave);
+        boolean provisional = false;
+        if (entrada == null) {
+            // Antes de leer: si el producto se invalida durante la lectura, no se guarda en caché
+            long generacion = imagenCache.generacion(id);
+            Optional<Producto> opt = productoRepository.findById(id);
+            if (opt.isEmpty()) return ResponseEntity.notFound().build();
+
+            Producto p = opt.get();
+            long ultimaModificacion = p.getFechaActualizacion() != null
+                    ? p.getFechaActualizacion().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                    : -1;
+            String hashOriginal = selectorHash.apply(p);
+
+            String hashServido = hashOriginal;
+            if (variante != null && hashOriginal != null) {
+                Optional<String> hashVariante = imagenVarianteService.obtenerHashVariante(hashOriginal, variante);
+                if (hashVariante.isPresent()) {
+                    hashServido = hashVariante.get();
+                } else {
+                    // Imagen sin variantes todavía (p. ej. migrada): se sirve la original y se generan
+                    imagenVarianteService.generarVariantes(hashOriginal);
+                    provisional = true;
+                }
+            }
+
+            Optional<Imagen> imagen = imagenService.obtener(hashServido);
+            entrada = imagen
+                    .map(img -> new ImagenCache.Entrada(img.getHash(), hashOriginal, img.getTipoContenido(), img.getDatos(), ultimaModificacion))
+                    .orElseGet(() -> new ImagenCache.Entrada(null, null, null, null, ultimaModificacion));
+            if (!provisional) {
+                imagenCache.guardar(id, clave, entrada, generacion);
+            }
+        }
+
+        if (entrada.vacia()) {
             return ResponseEntity.notFound().build();
         }
-        
-        try {
-            byte[] bytes = Base64.getDecoder().decode(img);
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_TYPE, MediaType.IMAGE_JPEG_VALUE)
-                    .body(bytes);
-        } catch (Exception e) {
-            return ResponseEntity.ok().header(HttpHeaders.CONTENT_TYPE, MediaType.IMAGE_JPEG_VALUE)
-                    .body(img.getBytes());
+
+        // URL versionada con el hash actual: el contenido nunca cambia para esa URL.
+        // Una respuesta provisional (original en lugar de variante) no debe quedar en caché.
+        CacheControl cacheControl = provisional
+                ? CacheControl.noCache()
+                : entrada.version().equals(version)
+                    ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable()
+                    : CacheControl.maxAge(maxAgeSegundos, TimeUnit.SECONDS).cachePublic();
+
+        if (request.checkNotModified(entrada.etag(), entrada.ultimaModificacion())) {
+            return ResponseEntity.status(304)
+                    .cacheControl(cacheControl)
+                    .eTag(entrada.etag())
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, entrada.tipoContenido())
+                .cacheControl(cacheControl)
+                .eTag(entrada.etag());
+        if (entrada.ultimaModificacion() > 0) {
+            respuesta.lastModified(entrada.ultimaModificacion());
         }
+        return respuesta.body(entrada.datos());
     }
 }
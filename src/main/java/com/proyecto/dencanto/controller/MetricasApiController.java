@@ -0,0 +1,40 @@
+package com.proyecto.dencanto.controller;
+
+import com.proyecto.dencanto.Service.MetricasPeticiones;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Controlador API para las métricas de peticiones (contadores y latencia por ruta y autenticación)
+ */
+@RestController
+@RequestMapping("/intranet/api/metrics")
+@PreAuthorize("hasRole('ADMIN')")
+public class MetricasApiController {
+
+    @Autowired
+    private MetricasPeticiones metricasPeticiones;
+
+    /**
+     * GET /intranet/api/metrics
+     * Series de métricas acumuladas desde el arranque o el último reinicio
+     */
+    @GetMapping
+    public ResponseEntity<?> obtenerMetricas() {
+        return ResponseEntity.ok(Map.of("success", true, "data", metricasPeticiones.resumen()));
+    }
+
+    /**
+     * DELETE /intranet/api/metrics
+     * Reinicia los contadores
+     */
+    @DeleteMapping
+    public ResponseEntity<?> reiniciarMetricas() {
+        metricasPeticiones.reiniciar();
+        return ResponseEntity.ok(Map.of("success", true, "message", "Métricas reiniciadas"));
+    }
+}
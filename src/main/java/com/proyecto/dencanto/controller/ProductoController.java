@@ -2,6 +2,7 @@ package com.proyecto.dencanto.controller;
 
 import com.proyecto.dencanto.Modelo.Producto;
 import com.proyecto.dencanto.Service.ProductoService;
+import com.proyecto.dencanto.dto.ProductoResumen;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -52,7 +53,7 @@ public class ProductoController {
                                  Model model,
                                  RedirectAttributes redirectAttributes) {
         if (result.hasErrors()) {
-            List<Producto> productos = productoService.obtenerTodos();
+            List<ProductoResumen> productos = productoService.obtenerTodos();
             model.addAttribute("productos", productos);
             return "intranet/productos";
         }
@@ -65,7 +66,7 @@ public class ProductoController {
     @GetMapping("/editar/{id}")
     public String mostrarFormularioEditar(@PathVariable("id") Integer id, Model model) {
         Producto producto = productoService.obtenerPorId(id);
-        List<Producto> productos = productoService.obtenerTodos();
+        List<ProductoResumen> productos = productoService.obtenerTodos();
         
         model.addAttribute("producto", producto);
         model.addAttribute("productos", productos);
@@ -81,7 +82,7 @@ public class ProductoController {
                                 Model model,
                                 RedirectAttributes redirectAttributes) {
         if (result.hasErrors()) {
-            List<Producto> productos = productoService.obtenerTodos();
+            List<ProductoResumen> productos = productoService.obtenerTodos();
             model.addAttribute("productos", productos);
             return "intranet/productos";
         }
@@ -112,7 +113,7 @@ public class ProductoController {
     @ResponseBody
     @PreAuthorize("hasRole('ADMIN') or hasRole('VENDEDOR')")
     public ResponseEntity<?> buscar(@RequestParam(required = false) String termino) {
-        List<Producto> productos = productoService.buscarPorTermino(termino);
+        List<ProductoResumen> productos = productoService.buscarPorTermino(termino);
         return ResponseEntity.ok(productos);
     }
     
@@ -128,7 +129,7 @@ public class ProductoController {
             @RequestParam(required = false, defaultValue = "") String categoria,
             @RequestParam(required = false, defaultValue = "") String estado) {
         
-        List<Producto> productos = productoService.filtroCompleto(termino, categoria, estado);
+        List<ProductoResumen> productos = productoService.filtroCompleto(termino, categoria, estado);
         return ResponseEntity.ok(productos);
     }
     
@@ -139,13 +140,7 @@ public class ProductoController {
     @GetMapping("/api/categorias")
     @ResponseBody
     public ResponseEntity<?> obtenerCategorias() {
-        List<Producto> todos = productoService.obtenerTodos();
-        List<String> categorias = todos.stream()
-            .map(Producto::getCategoria)
-            .distinct()
-            .sorted()
-            .toList();
-        return ResponseEntity.ok(categorias);
+        return ResponseEntity.ok(productoService.obtenerCategorias());
     }
     
     /**
@@ -1,12 +1,14 @@
 package com.proyecto.dencanto.controller;
 
 import com.proyecto.dencanto.Modelo.*;
+import com.proyecto.dencanto.Service.ExportacionService;
 import com.proyecto.dencanto.Service.VentaService;
-import com.proyecto.dencanto.Service.VentaPdfService;
 import com.proyecto.dencanto.Service.ProductoService;
 import com.proyecto.dencanto.Repository.UsuarioRepository;
 import com.proyecto.dencanto.security.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -15,9 +17,11 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 
@@ -38,7 +42,10 @@ public class VentaController {
     private UsuarioRepository usuarioRepository;
 
     @Autowired
-    private VentaPdfService ventaPdfService;
+    private ExportacionService exportacionService;
+
+    @Value("${comprobantes.zip.maximo:500}")
+    private int maximoComprobantesZip;
 
     /**
      * Obtiene el usuario autenticado actual
@@ -99,12 +106,27 @@ public class VentaController {
         }
     }
 
+    // Tamaño de página por defecto y máximo del listado paginado
+    private static final int LIMITE_POR_DEFECTO = 50;
+    private static final int LIMITE_MAXIMO = 200;
+
     /**
      * GET /intranet/api/ventas
-     * Obtiene las ventas - ADMIN ve todas, VENDEDOR ve solo las suyas
+     * Obtiene las ventas - ADMIN ve todas (o las de vendedorId), VENDEDOR ve solo las suyas.
+     * Filtros opcionales: estado, metodoPago, fechaDesde y fechaHasta (yyyy-MM-dd) y orden
+     * (reciente | antiguo). Si se envía limite o cursor la respuesta es paginada por keyset:
+     * { success, data, siguienteCursor }; sin ellos devuelve la lista completa como antes.
      */
     @GetMapping
-    public ResponseEntity<?> obtenerVentas() {
+    public ResponseEntity<?> obtenerVentas(
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) String metodoPago,
+            @RequestParam(required = false) String fechaDesde,
+            @RequestParam(required = false) String fechaHasta,
+            @RequestParam(required = false) Integer vendedorId,
+            @RequestParam(required = false, defaultValue = "reciente") String orden,
+            @RequestParam(required = false) Integer limite,
+            @RequestParam(required = false) String cursor) {
         try {
             Usuario usuario = getCurrentUser();
             if (usuario == null) {
@@ -112,66 +134,49 @@ public class VentaController {
                     .body(Map.of("error", "Usuario no autenticado"));
             }
 
-            List<Venta> ventas;
-            
-            // Si es ADMIN, obtener TODAS las ventas
-            if (usuario.getRol() != null && "ADMIN".equalsIgnoreCase(usuario.getRol().getNombre())) {
-                ventas = ventaService.obtenerTodas();
-            } else {
-                // VENDEDOR solo ve sus ventas
-                ventas = ventaService.obtenerPorVendedor(usuario);
+            // Si es ADMIN puede ver TODAS las ventas; VENDEDOR solo ve las suyas
+            boolean esAdmin = usuario.getRol() != null && "ADMIN".equalsIgnoreCase(usuario.getRol().getNombre());
+            Integer vendedorFiltro = esAdmin ? vendedorId : usuario.getId();
+
+            VentaService.FiltroVentas filtro;
+            try {
+                filtro = new VentaService.FiltroVentas(
+                    estado != null && !estado.isBlank() ? EstadoVenta.valueOf(estado.toUpperCase()) : null,
+                    metodoPago != null && !metodoPago.isBlank() ? MetodoPago.valueOf(metodoPago.toUpperCase()) : null,
+                    vendedorFiltro,
+                    fechaDesde != null && !fechaDesde.isBlank() ? LocalDate.parse(fechaDesde).atStartOfDay() : null,
+                    fechaHasta != null && !fechaHasta.isBlank() ? LocalDate.parse(fechaHasta).plusDays(1).atStartOfDay() : null);
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("success", false, "error", "Filtro inválido: " + e.getMessage()));
             }
-            
-            if (ventas == null) {
-                ventas = new ArrayList<>();
+
+            boolean paginado = limite != null || cursor != null;
+            Integer tamano = paginado
+                ? Math.max(1, Math.min(limite != null ? limite : LIMITE_POR_DEFECTO, LIMITE_MAXIMO))
+                : null;
+            VentaService.PaginaVentas pagina;
+            try {
+                pagina = ventaService.listar(filtro, cursor, tamano, "antiguo".equalsIgnoreCase(orden));
+            } catch (Exception e) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("success", false, "error", e.getMessage()));
             }
-            
+
             // Convertir a Map para evitar problemas de lazy loading
             List<Map<String, Object>> ventasMap = new ArrayList<>();
-            for (Venta venta : ventas) {
-                Map<String, Object> ventaData = new HashMap<>();
-                ventaData.put("id", venta.getId());
-                ventaData.put("cliente", venta.getClienteNombre());
-                ventaData.put("clienteTelefono", venta.getClienteTelefono());
-                ventaData.put("clienteEmail", venta.getClienteEmail());
-                ventaData.put("montoTotal", venta.getTotal());
-                ventaData.put("metodoPago", venta.getMetodoPago() != null ? venta.getMetodoPago().name() : "N/A");
-                ventaData.put("estado", venta.getEstado().name());
-                ventaData.put("fechaCreacion", venta.getFechaCreacion());
-                
-                // Agregar información del vendedor
-                if (venta.getVendedor() != null) {
-                    ventaData.put("vendedor", venta.getVendedor().getNombreCompleto() != null 
-                        ? venta.getVendedor().getNombreCompleto() 
-                        : venta.getVendedor().getNombreUsuario());
-                    ventaData.put("vendedorId", venta.getVendedor().getId());
-                } else {
-                    ventaData.put("vendedor", "Sin asignar");
-                    ventaData.put("vendedorId", null);
-                }
-                
-                // Detalles de productos
-                List<Map<String, Object>> detalles = new ArrayList<>();
-                if (venta.getDetalles() != null) {
-                    for (DetalleVenta detalle : venta.getDetalles()) {
-                        Map<String, Object> detalleData = new HashMap<>();
-                        detalleData.put("cantidad", detalle.getCantidad());
-                        if (detalle.getProducto() != null) {
-                            Map<String, Object> productoData = new HashMap<>();
-                            productoData.put("id", detalle.getProducto().getId());
-                            productoData.put("nombre", detalle.getProducto().getNombre());
-                            productoData.put("precio", detalle.getProducto().getPrecio());
-                            detalleData.put("producto", productoData);
-                        }
-                        detalles.add(detalleData);
-                    }
-                }
-                ventaData.put("detalles", detalles);
-                
-                ventasMap.add(ventaData);
+            for (Venta venta : pagina.ventas()) {
+                ventasMap.add(resumenVenta(venta));
             }
-            
-            return ResponseEntity.ok(ventasMap);
+
+            if (!paginado) {
+                return ResponseEntity.ok(ventasMap);
+            }
+            Map<String, Object> respuesta = new HashMap<>();
+            respuesta.put("success", true);
+            respuesta.put("data", ventasMap);
+            respuesta.put("siguienteCursor", pagina.siguienteCursor());
+            return ResponseEntity.ok(respuesta);
 
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -179,6 +184,51 @@ public class VentaController {
         }
     }
 
+    /**
+     * Datos de una venta para el historial (con vendedor y productos)
+     */
+    private Map<String, Object> resumenVenta(Venta venta) {
+        Map<String, Object> ventaData = new HashMap<>();
+        ventaData.put("id", venta.getId());
+        ventaData.put("cliente", venta.getClienteNombre());
+        ventaData.put("clienteTelefono", venta.getClienteTelefono());
+        ventaData.put("clienteEmail", venta.getClienteEmail());
+        ventaData.put("montoTotal", venta.getTotal());
+        ventaData.put("metodoPago", venta.getMetodoPago() != null ? venta.getMetodoPago().name() : "N/A");
+        ventaData.put("estado", venta.getEstado().name());
+        ventaData.put("fechaCreacion", venta.getFechaCreacion());
+        
+        // Agregar información del vendedor
+        if (venta.getVendedor() != null) {
+            ventaData.put("vendedor", venta.getVendedor().getNombreCompleto() != null 
+                ? venta.getVendedor().getNombreCompleto() 
+                : venta.getVendedor().getNombreUsuario());
+            ventaData.put("vendedorId", venta.getVendedor().getId());
+        } else {
+            ventaData.put("vendedor", "Sin asignar");
+            ventaData.put("vendedorId", null);
+        }
+        
+        // Detalles de productos
+        List<Map<String, Object>> detalles = new ArrayList<>();
+        if (venta.getDetalles() != null) {
+            for (DetalleVenta detalle : venta.getDetalles()) {
+                Map<String, Object> detalleData = new HashMap<>();
+                detalleData.put("cantidad", detalle.getCantidad());
+                if (detalle.getProducto() != null) {
+                    Map<String, Object> productoData = new HashMap<>();
+                    productoData.put("id", detalle.getProducto().getId());
+                    productoData.put("nombre", detalle.getProducto().getNombre());
+                    productoData.put("precio", detalle.getProducto().getPrecio());
+                    detalleData.put("producto", productoData);
+                }
+                detalles.add(detalleData);
+            }
+        }
+        ventaData.put("detalles", detalles);
+        return ventaData;
+    }
+
     /**
      * GET /intranet/api/ventas/{id}
      * Obtiene detalle de una venta específica (serializada como Map para evitar lazy loading)
@@ -336,10 +386,11 @@ public class VentaController {
 
     /**
      * GET /intranet/api/ventas/{id}/pdf
-     * Genera PDF de comprobante de una venta específica
+     * Genera PDF de comprobante de una venta específica. Se guarda en disco hasta que la venta
+     * cambie de estado; si If-None-Match coincide con el ETag se responde 304
      */
     @GetMapping("/{id}/pdf")
-    public ResponseEntity<?> generarPdfVenta(@PathVariable Long id) {
+    public ResponseEntity<?> generarPdfVenta(@PathVariable Long id, WebRequest request) {
         try {
             Optional<Venta> ventaOpt = ventaService.obtenerPorId(id);
             
@@ -349,8 +400,16 @@ public class VentaController {
             
             Venta venta = ventaOpt.get();
             
-            // Generar PDF
-            byte[] pdfBytes = ventaPdfService.generarPdfVenta(venta);
+            String etag = ventaService.etagComprobante(venta);
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .eTag(etag)
+                    .build();
+            }
+            
+            // Generar PDF (o leerlo de la caché)
+            byte[] pdfBytes = ventaService.comprobantePdf(venta);
             
             // Nombre del archivo
             String nombreArchivo = String.format("Comprobante_Venta_%06d.pdf", venta.getId());
@@ -362,6 +421,8 @@ public class VentaController {
             
             return ResponseEntity.ok()
                 .headers(headers)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(etag)
                 .body(pdfBytes);
                 
         } catch (Exception e) {
@@ -372,123 +433,162 @@ public class VentaController {
 
     /**
      * GET /intranet/api/ventas/exportar-pdf
-     * Genera PDF del historial de ventas del vendedor
+     * Genera PDF del historial de ventas del vendedor. Se escribe directamente en la respuesta
+     * mientras se leen las ventas, sin armar el archivo en memoria. Un filtro inválido devuelve 400
      */
     @GetMapping("/exportar-pdf")
-    public ResponseEntity<?> exportarHistorialPdf(
+    public ResponseEntity<StreamingResponseBody> exportarHistorialPdf(
             @RequestParam(required = false) String fechaDesde,
             @RequestParam(required = false) String fechaHasta,
             @RequestParam(required = false) String estado,
             @RequestParam(required = false) String metodoPago) {
+        Usuario vendedor = getCurrentUser();
+        if (vendedor == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        VentaService.FiltroVentas filtro;
         try {
-            Usuario vendedor = getCurrentUser();
-            if (vendedor == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(Map.of("error", "Usuario no autenticado"));
-            }
-            
-            // Obtener ventas del vendedor
-            List<Venta> ventasOriginales = ventaService.obtenerPorVendedor(vendedor);
-            if (ventasOriginales == null) {
-                ventasOriginales = new ArrayList<>();
+            filtro = filtroExportacion(vendedor, fechaDesde, fechaHasta, estado, metodoPago);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        // Nombre del archivo
+        String nombreArchivo = String.format("Historial_Ventas_%s.pdf", 
+            LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")));
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", nombreArchivo);
+        
+        String nombreVendedor = vendedor.getNombreCompleto();
+        StreamingResponseBody cuerpo = salida -> {
+            try {
+                ventaService.exportarHistorialPdf(filtro, nombreVendedor, fechaDesde, fechaHasta, salida);
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Error al generar PDF: " + e.getMessage(), e);
             }
-            
-            // Aplicar filtros
-            List<Venta> ventasFiltradas = new ArrayList<>();
-            for (Venta v : ventasOriginales) {
-                // Filtro por fecha desde
-                if (fechaDesde != null && !fechaDesde.isEmpty()) {
-                    LocalDateTime desde = LocalDate.parse(fechaDesde).atStartOfDay();
-                    if (v.getFechaCreacion() != null && v.getFechaCreacion().isBefore(desde)) {
-                        continue;
-                    }
-                }
-                
-                // Filtro por fecha hasta
-                if (fechaHasta != null && !fechaHasta.isEmpty()) {
-                    LocalDateTime hasta = LocalDate.parse(fechaHasta).atTime(23, 59, 59);
-                    if (v.getFechaCreacion() != null && v.getFechaCreacion().isAfter(hasta)) {
-                        continue;
-                    }
-                }
-                
-                // Filtro por estado
-                if (estado != null && !estado.isEmpty()) {
-                    if (v.getEstado() == null || !v.getEstado().name().equals(estado)) {
-                        continue;
-                    }
-                }
-                
-                // Filtro por método de pago
-                if (metodoPago != null && !metodoPago.isEmpty()) {
-                    if (v.getMetodoPago() == null || !v.getMetodoPago().name().equals(metodoPago)) {
-                        continue;
-                    }
-                }
-                
-                ventasFiltradas.add(v);
+        };
+        return ResponseEntity.ok()
+            .headers(headers)
+            .body(cuerpo);
+    }
+
+    /**
+     * POST /intranet/api/ventas/exportar-pdf
+     * Encola el historial en segundo plano y responde 202 con el trabajo; su avance y el archivo
+     * se consultan en /intranet/api/exportaciones/{id}. Con los mismos filtros, mientras no
+     * venza, devuelve el trabajo ya generado
+     */
+    @PostMapping("/exportar-pdf")
+    public ResponseEntity<?> encolarHistorialPdf(
+            @RequestParam(required = false) String fechaDesde,
+            @RequestParam(required = false) String fechaHasta,
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) String metodoPago) {
+        Usuario vendedor = getCurrentUser();
+        if (vendedor == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(Map.of("success", false, "error", "Usuario no autenticado"));
+        }
+        
+        VentaService.FiltroVentas filtro;
+        try {
+            filtro = filtroExportacion(vendedor, fechaDesde, fechaHasta, estado, metodoPago);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("success", false, "error", "Filtro inválido: " + e.getMessage()));
+        }
+        
+        Map<String, String> parametros = new HashMap<>();
+        parametros.put("vendedorId", String.valueOf(vendedor.getId()));
+        parametros.put("fechaDesde", fechaDesde);
+        parametros.put("fechaHasta", fechaHasta);
+        parametros.put("estado", estado);
+        parametros.put("metodoPago", metodoPago);
+        String nombreArchivo = String.format("Historial_Ventas_%s.pdf", 
+            LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")));
+        
+        String nombreVendedor = vendedor.getNombreCompleto();
+        try {
+            ExportacionService.Trabajo trabajo = exportacionService.encolar("historial-ventas", parametros,
+                vendedor.getNombreUsuario(), nombreArchivo, (salida, progreso) ->
+                    ventaService.exportarHistorialPdf(filtro, nombreVendedor, fechaDesde, fechaHasta, salida, progreso));
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("success", true, "data", trabajo.resumen()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("success", false, "error", e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /intranet/api/ventas/comprobantes-zip
+     * ZIP con los comprobantes de las ventas indicadas (?ids=1,2,3) o, sin ids, de las ventas del
+     * vendedor en el rango de fechas (con los mismos filtros que exportar-pdf). Los PDFs se generan
+     * en paralelo y se escriben en la respuesta a medida que terminan. Sin ids ni fechas, o con más
+     * de comprobantes.zip.maximo ventas, devuelve 400
+     */
+    @GetMapping("/comprobantes-zip")
+    public ResponseEntity<StreamingResponseBody> exportarComprobantesZip(
+            @RequestParam(required = false) List<Long> ids,
+            @RequestParam(required = false) String fechaDesde,
+            @RequestParam(required = false) String fechaHasta,
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) String metodoPago) {
+        Usuario vendedor = getCurrentUser();
+        if (vendedor == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        List<Long> ventas;
+        if (ids != null && !ids.isEmpty()) {
+            ventas = ids;
+        } else {
+            if ((fechaDesde == null || fechaDesde.isEmpty()) && (fechaHasta == null || fechaHasta.isEmpty())) {
+                return ResponseEntity.badRequest().build();
             }
-            
-            // Convertir a Map para el PDF
-            List<Map<String, Object>> ventasMap = new ArrayList<>();
-            double totalVentas = 0;
-            
-            for (Venta venta : ventasFiltradas) {
-                Map<String, Object> ventaData = new HashMap<>();
-                ventaData.put("id", venta.getId());
-                ventaData.put("cliente", venta.getClienteNombre());
-                ventaData.put("montoTotal", venta.getTotal());
-                ventaData.put("metodoPago", venta.getMetodoPago() != null ? venta.getMetodoPago().name() : "N/A");
-                ventaData.put("estado", venta.getEstado() != null ? venta.getEstado().name() : "PENDIENTE");
-                ventaData.put("fechaCreacion", venta.getFechaCreacion());
-                
-                // Detalles de productos
-                List<Map<String, Object>> detalles = new ArrayList<>();
-                if (venta.getDetalles() != null) {
-                    for (DetalleVenta detalle : venta.getDetalles()) {
-                        Map<String, Object> detalleData = new HashMap<>();
-                        detalleData.put("cantidad", detalle.getCantidad());
-                        if (detalle.getProducto() != null) {
-                            Map<String, Object> productoData = new HashMap<>();
-                            productoData.put("nombre", detalle.getProducto().getNombre());
-                            detalleData.put("producto", productoData);
-                        }
-                        detalles.add(detalleData);
-                    }
-                }
-                ventaData.put("detalles", detalles);
-                
-                ventasMap.add(ventaData);
-                totalVentas += venta.getTotal() != null ? venta.getTotal() : 0;
+            try {
+                ventas = ventaService.idsComprobantes(
+                    filtroExportacion(vendedor, fechaDesde, fechaHasta, estado, metodoPago), maximoComprobantesZip);
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().build();
             }
-            
-            // Calcular estadísticas
-            Map<String, Object> estadisticas = new HashMap<>();
-            estadisticas.put("totalVentas", totalVentas);
-            estadisticas.put("cantidadVentas", ventasFiltradas.size());
-            estadisticas.put("promedioVenta", ventasFiltradas.size() > 0 ? totalVentas / ventasFiltradas.size() : 0);
-            estadisticas.put("comisiones", totalVentas * 0.10); // 10% de comisión
-            
-            // Generar PDF
-            byte[] pdfBytes = ventaPdfService.generarPdfHistorialVentas(
-                ventasMap, estadisticas, vendedor.getNombreCompleto(), fechaDesde, fechaHasta);
-            
-            // Nombre del archivo
-            String nombreArchivo = String.format("Historial_Ventas_%s.pdf", 
-                LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")));
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", nombreArchivo);
-            headers.setContentLength(pdfBytes.length);
-            
-            return ResponseEntity.ok()
-                .headers(headers)
-                .body(pdfBytes);
-                
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Error al generar PDF: " + e.getMessage()));
         }
+        if (ventas.size() > maximoComprobantesZip) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        String nombreArchivo = String.format("Comprobantes_Ventas_%s.zip", 
+            LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")));
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.setContentDispositionFormData("attachment", nombreArchivo);
+        
+        StreamingResponseBody cuerpo = salida -> {
+            try {
+                ventaService.exportarComprobantesZip(ventas, salida);
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Error al generar comprobantes: " + e.getMessage(), e);
+            }
+        };
+        return ResponseEntity.ok()
+            .headers(headers)
+            .body(cuerpo);
+    }
+
+    private VentaService.FiltroVentas filtroExportacion(Usuario vendedor, String fechaDesde, String fechaHasta,
+                                                         String estado, String metodoPago) {
+        return new VentaService.FiltroVentas(
+            estado != null && !estado.isEmpty() ? EstadoVenta.valueOf(estado) : null,
+            metodoPago != null && !metodoPago.isEmpty() ? MetodoPago.valueOf(metodoPago) : null,
+            vendedor.getId(),
+            fechaDesde != null && !fechaDesde.isEmpty() ? LocalDate.parse(fechaDesde).atStartOfDay() : null,
+            fechaHasta != null && !fechaHasta.isEmpty() ? LocalDate.parse(fechaHasta).plusDays(1).atStartOfDay() : null);
     }
 }
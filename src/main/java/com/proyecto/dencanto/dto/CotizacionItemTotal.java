@@ -0,0 +1,35 @@
+package com.proyecto.dencanto.dto;
+
+/**
+ * Cantidad y monto de un producto dentro de una cotización (agregado en la consulta)
+ */
+public class CotizacionItemTotal {
+
+    private final Integer cotizacionId;
+    private final Integer productoId;
+    private final String nombre;
+    private final String categoria;
+    private final Double precio;
+    private final Long cantidad;
+    private final Double monto;
+
+    public CotizacionItemTotal(Integer cotizacionId, Integer productoId, String nombre, String categoria,
+                               Double precio, Long cantidad, Double monto) {
+        this.cotizacionId = cotizacionId;
+        this.productoId = productoId;
+        this.nombre = nombre;
+        this.categoria = categoria;
+        this.precio = precio;
+        this.cantidad = cantidad;
+        this.monto = monto;
+    }
+
+    // Getters
+    public Integer getCotizacionId() { return cotizacionId; }
+    public Integer getProductoId() { return productoId; }
+    public String getNombre() { return nombre; }
+    public String getCategoria() { return categoria; }
+    public Double getPrecio() { return precio; }
+    public Long getCantidad() { return cantidad; }
+    public Double getMonto() { return monto; }
+}
@@ -0,0 +1,57 @@
+package com.proyecto.dencanto.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Vista ligera de una cotización para el listado de la intranet.
+ * Se llena con una consulta de proyección: no carga dirección ni el JSON de productos
+ * (productosJson solo se completa si el listado lo pide).
+ */
+public class CotizacionResumen {
+
+    private final Integer id;
+    private final String nombreCliente;
+    private final String email;
+    private final String telefono;
+    private final Double total;
+    private final String estado;
+    private final LocalDate fechaDeseada;
+    private final LocalDateTime fechaCreacion;
+    private final LocalDateTime fechaActualizacion;
+    private final LocalDateTime fechaCierre;
+    private String productosJson;
+
+    public CotizacionResumen(Integer id, String nombreCliente, String email, String telefono, Double total,
+                             String estado, LocalDate fechaDeseada, LocalDateTime fechaCreacion,
+                             LocalDateTime fechaActualizacion, LocalDateTime fechaCierre) {
+        this.id = id;
+        this.nombreCliente = nombreCliente;
+        this.email = email;
+        this.telefono = telefono;
+        this.total = total;
+        this.estado = estado;
+        this.fechaDeseada = fechaDeseada;
+        this.fechaCreacion = fechaCreacion;
+        this.fechaActualizacion = fechaActualizacion;
+        this.fechaCierre = fechaCierre;
+    }
+
+    // Getters
+    public Integer getId() { return id; }
+    public String getNombreCliente() { return nombreCliente; }
+    public String getEmail() { return email; }
+    public String getTelefono() { return telefono; }
+    public Double getTotal() { return total; }
+    public String getEstado() { return estado; }
+    public LocalDate getFechaDeseada() { return fechaDeseada; }
+    public LocalDateTime getFechaCreacion() { return fechaCreacion; }
+    public LocalDateTime getFechaActualizacion() { return fechaActualizacion; }
+    public LocalDateTime getFechaCierre() { return fechaCierre; }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getProductosJson() { return productosJson; }
+    public void setProductosJson(String productosJson) { this.productosJson = productosJson; }
+}
@@ -0,0 +1,41 @@
+package com.proyecto.dencanto.dto;
+
+/**
+ * Producto para la página pública de catálogo: el resumen más la descripción y la ficha
+ * técnica que muestra el modal de detalle. Tampoco incluye imágenes.
+ */
+public class ProductoCatalogo extends ProductoResumen {
+
+    private final String descripcion;
+    private final String material;
+    private final String dimensiones;
+    private final String peso;
+    private final String firmeza;
+    private final String garantia;
+    private final String caracteristicas;
+
+    public ProductoCatalogo(Integer id, String codigo, String nombre, String categoria, Double precio,
+                            Integer stock, String estado, String imagenPrincipalHash,
+                            String imagenTecnica1Hash, String imagenTecnica2Hash,
+                            String descripcion, String material, String dimensiones, String peso,
+                            String firmeza, String garantia, String caracteristicas) {
+        super(id, codigo, nombre, categoria, precio, stock, estado,
+              imagenPrincipalHash, imagenTecnica1Hash, imagenTecnica2Hash);
+        this.descripcion = descripcion;
+        this.material = material;
+        this.dimensiones = dimensiones;
+        this.peso = peso;
+        this.firmeza = firmeza;
+        this.garantia = garantia;
+        this.caracteristicas = caracteristicas;
+    }
+
+    // Getters
+    public String getDescripcion() { return descripcion; }
+    public String getMaterial() { return material; }
+    public String getDimensiones() { return dimensiones; }
+    public String getPeso() { return peso; }
+    public String getFirmeza() { return firmeza; }
+    public String getGarantia() { return garantia; }
+    public String getCaracteristicas() { return caracteristicas; }
+}
@@ -0,0 +1,47 @@
+package com.proyecto.dencanto.dto;
+
+/**
+ * Vista ligera de un producto para listados (catálogo, intranet, dashboard).
+ * Se llena con una consulta de proyección: no carga descripción, ficha técnica ni imágenes.
+ * Los hashes de imagen sirven de indicador (null = sin imagen) y de versión para la URL.
+ */
+public class ProductoResumen {
+
+    private final Integer id;
+    private final String codigo;
+    private final String nombre;
+    private final String categoria;
+    private final Double precio;
+    private final Integer stock;
+    private final String estado;
+    private final String imagenPrincipalHash;
+    private final String imagenTecnica1Hash;
+    private final String imagenTecnica2Hash;
+
+    public ProductoResumen(Integer id, String codigo, String nombre, String categoria, Double precio,
+                           Integer stock, String estado, String imagenPrincipalHash,
+                           String imagenTecnica1Hash, String imagenTecnica2Hash) {
+        this.id = id;
+        this.codigo = codigo;
+        this.nombre = nombre;
+        this.categoria = categoria;
+        this.precio = precio;
+        this.stock = stock;
+        this.estado = estado;
+        this.imagenPrincipalHash = imagenPrincipalHash;
+        this.imagenTecnica1Hash = imagenTecnica1Hash;
+        this.imagenTecnica2Hash = imagenTecnica2Hash;
+    }
+
+    // Getters
+    public Integer getId() { return id; }
+    public String getCodigo() { return codigo; }
+    public String getNombre() { return nombre; }
+    public String getCategoria() { return categoria; }
+    public Double getPrecio() { return precio; }
+    public Integer getStock() { return stock; }
+    public String getEstado() { return estado; }
+    public String getImagenPrincipalHash() { return imagenPrincipalHash; }
+    public String getImagenTecnica1Hash() { return imagenTecnica1Hash; }
+    public String getImagenTecnica2Hash() { return imagenTecnica2Hash; }
+}
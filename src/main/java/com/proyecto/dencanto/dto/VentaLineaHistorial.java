@@ -0,0 +1,46 @@
+package com.proyecto.dencanto.dto;
+
+import com.proyecto.dencanto.Modelo.EstadoVenta;
+import com.proyecto.dencanto.Modelo.MetodoPago;
+
+import java.time.LocalDateTime;
+
+/**
+ * Una fila del historial de ventas para exportar: los datos de la venta repetidos en cada
+ * línea de detalle (producto y cantidad). Una venta sin detalles llega con producto y
+ * cantidad en null. Las líneas de una misma venta vienen seguidas.
+ */
+public class VentaLineaHistorial {
+
+    private final Long ventaId;
+    private final String clienteNombre;
+    private final Double total;
+    private final MetodoPago metodoPago;
+    private final EstadoVenta estado;
+    private final LocalDateTime fechaCreacion;
+    private final String productoNombre;
+    private final Integer cantidad;
+
+    public VentaLineaHistorial(Long ventaId, String clienteNombre, Double total, MetodoPago metodoPago,
+                               EstadoVenta estado, LocalDateTime fechaCreacion, String productoNombre,
+                               Integer cantidad) {
+        this.ventaId = ventaId;
+        this.clienteNombre = clienteNombre;
+        this.total = total;
+        this.metodoPago = metodoPago;
+        this.estado = estado;
+        this.fechaCreacion = fechaCreacion;
+        this.productoNombre = productoNombre;
+        this.cantidad = cantidad;
+    }
+
+    // Getters
+    public Long getVentaId() { return ventaId; }
+    public String getClienteNombre() { return clienteNombre; }
+    public Double getTotal() { return total; }
+    public MetodoPago getMetodoPago() { return metodoPago; }
+    public EstadoVenta getEstado() { return estado; }
+    public LocalDateTime getFechaCreacion() { return fechaCreacion; }
+    public String getProductoNombre() { return productoNombre; }
+    public Integer getCantidad() { return cantidad; }
+}
@@ -0,0 +1,37 @@
+package com.proyecto.dencanto.dto;
+
+import com.proyecto.dencanto.Modelo.EstadoVenta;
+
+import java.time.LocalDate;
+
+/**
+ * Monto y número de ventas agregados por estado, o por periodo (mes o semana)
+ */
+public class VentaPeriodoTotal {
+
+    private final EstadoVenta estado;
+    private final LocalDate desde;
+    private final Double monto;
+    private final Long pedidos;
+
+    public VentaPeriodoTotal(EstadoVenta estado, Double monto, Long pedidos) {
+        this(estado, null, monto, pedidos);
+    }
+
+    public VentaPeriodoTotal(LocalDate desde, Double monto, Long pedidos) {
+        this(null, desde, monto, pedidos);
+    }
+
+    private VentaPeriodoTotal(EstadoVenta estado, LocalDate desde, Double monto, Long pedidos) {
+        this.estado = estado;
+        this.desde = desde;
+        this.monto = monto != null ? monto : 0.0;
+        this.pedidos = pedidos != null ? pedidos : 0L;
+    }
+
+    // Getters
+    public EstadoVenta getEstado() { return estado; }
+    public LocalDate getDesde() { return desde; }
+    public Double getMonto() { return monto; }
+    public Long getPedidos() { return pedidos; }
+}
@@ -0,0 +1,35 @@
+package com.proyecto.dencanto.dto;
+
+/**
+ * Unidades y monto vendidos de un producto en un periodo (agregado en la consulta)
+ */
+public class VentaProductoTotal {
+
+    private final Integer productoId;
+    private final String nombre;
+    private final String categoria;
+    private final Double precio;
+    private final Integer stock;
+    private final Long unidades;
+    private final Double monto;
+
+    public VentaProductoTotal(Integer productoId, String nombre, String categoria, Double precio,
+                              Integer stock, Long unidades, Double monto) {
+        this.productoId = productoId;
+        this.nombre = nombre;
+        this.categoria = categoria;
+        this.precio = precio;
+        this.stock = stock;
+        this.unidades = unidades;
+        this.monto = monto;
+    }
+
+    // Getters
+    public Integer getProductoId() { return productoId; }
+    public String getNombre() { return nombre; }
+    public String getCategoria() { return categoria; }
+    public Double getPrecio() { return precio; }
+    public Integer getStock() { return stock; }
+    public Long getUnidades() { return unidades; }
+    public Double getMonto() { return monto; }
+}
@@ -0,0 +1,36 @@
+package com.proyecto.dencanto.dto;
+
+/**
+ * Monto y número de ventas de un vendedor (agregado en la consulta)
+ */
+public class VentaVendedorTotal {
+
+    private final Integer vendedorId;
+    private final String nombreCompleto;
+    private final String nombreUsuario;
+    private final Double monto;
+    private final Long pedidos;
+
+    public VentaVendedorTotal(Integer vendedorId, String nombreCompleto, String nombreUsuario,
+                              Double monto, Long pedidos) {
+        this.vendedorId = vendedorId;
+        this.nombreCompleto = nombreCompleto;
+        this.nombreUsuario = nombreUsuario;
+        this.monto = monto != null ? monto : 0.0;
+        this.pedidos = pedidos != null ? pedidos : 0L;
+    }
+
+    /**
+     * Nombre a mostrar: nombre completo o, si no tiene, el usuario
+     */
+    public String getNombre() {
+        return nombreCompleto != null ? nombreCompleto : nombreUsuario;
+    }
+
+    // Getters
+    public Integer getVendedorId() { return vendedorId; }
+    public String getNombreCompleto() { return nombreCompleto; }
+    public String getNombreUsuario() { return nombreUsuario; }
+    public Double getMonto() { return monto; }
+    public Long getPedidos() { return pedidos; }
+}
@@ -0,0 +1,102 @@
+package com.proyecto.dencanto.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caché en memoria (LRU, acotada y con TTL) de los tokens ya validados: hash SHA-256 del token
+ * → usuario cargado. Con ella JwtFilter no vuelve a parsear el JWT ni a consultar "usuarios"
+ * en cada petición. UsuarioService la invalida cuando cambia o se elimina un usuario.
+ */
+@Component
+public class AutenticacionCache {
+
+    private record Entrada(UserDetails usuario, long expiraEn) {}
+
+    private final int maxEntradas;
+    private final long ttlMs;
+    private final LinkedHashMap<String, Entrada> entradas;
+
+    // Aumenta en cada invalidación: una carga iniciada antes no debe guardarse después
+    private long generacion = 0;
+
+    public AutenticacionCache(@Value("${seguridad.cache.max-entradas:1000}") int maxEntradas,
+                              @Value("${seguridad.cache.ttl-segundos:300}") long ttlSegundos) {
+        this.maxEntradas = maxEntradas;
+        this.ttlMs = ttlSegundos * 1000;
+        this.entradas = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> eldest) {
+                return size() > AutenticacionCache.this.maxEntradas;
+            }
+        };
+    }
+
+    /**
+     * Usuario del token si está en caché y no venció (ni el TTL ni el propio token)
+     */
+    public UserDetails obtener(String token) {
+        String clave = hash(token);
+        synchronized (this) {
+            Entrada entrada = entradas.get(clave);
+            if (entrada == null) {
+                return null;
+            }
+            if (entrada.expiraEn() <= System.currentTimeMillis()) {
+                entradas.remove(clave);
+                return null;
+            }
+            return entrada.usuario();
+        }
+    }
+
+    public synchronized long generacion() {
+        return generacion;
+    }
+
+    /**
+     * Guarda el usuario de un token recién validado. Se descarta si hubo una invalidación
+     * desde que se leyó generacionLeida (el usuario cargado podría estar desactualizado)
+     */
+    public void guardar(String token, UserDetails usuario, Date expiracionToken, long generacionLeida) {
+        String clave = hash(token);
+        long expiraEn = System.currentTimeMillis() + ttlMs;
+        if (expiracionToken != null) {
+            expiraEn = Math.min(expiraEn, expiracionToken.getTime());
+        }
+        synchronized (this) {
+            if (generacionLeida == generacion) {
+                entradas.put(clave, new Entrada(usuario, expiraEn));
+            }
+        }
+    }
+
+    /**
+     * Descarta los tokens de un usuario (al editarlo, eliminarlo o resetear su contraseña)
+     */
+    public synchronized void invalidarUsuario(String nombreUsuario) {
+        generacion++;
+        if (nombreUsuario == null) {
+            return;
+        }
+        entradas.values().removeIf(e -> nombreUsuario.equals(e.usuario().getUsername()));
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.proyecto.dencanto.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -10,6 +12,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -24,6 +27,18 @@ public class JwtFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private AutenticacionCache autenticacionCache;
+
+    /**
+     * Las rutas públicas tienen su propia cadena sin este filtro; esto lo garantiza
+     * aunque el filtro se registre en otra cadena
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return SecurityConfig.RUTAS_PUBLICAS.matches(request);
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
@@ -31,17 +46,11 @@ public class JwtFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
 
         String token = null;
-        String username = null;
-
-        // DEBUG: Log de la petición
-        String path = request.getRequestURI();
-        logger.info("🔍 Procesando petición: " + path);
 
         // Intentar obtener el token del header Authorization
         final String header = request.getHeader("Authorization");
         if (header != null && header.startsWith("Bearer ")) {
             token = header.substring(7);
-            logger.info("Token encontrado en header Authorization");
         }
 
         // Si no hay token en el header, intentar obtener de la cookie
@@ -51,43 +60,50 @@ public class JwtFilter extends OncePerRequestFilter {
                 for (Cookie cookie : cookies) {
                     if ("jwt_token".equals(cookie.getName())) {
                         token = cookie.getValue();
-                        logger.info("Token encontrado en cookie jwt_token");
                         break;
                     }
                 }
-            } else {
-                logger.warn("No hay cookies en la petición");
             }
         }
 
-        // Validar el token si existe
-        if (token != null) {
-            try {
-                username = jwtUtil.extractUsername(token);
-                logger.info("Token válido para usuario: " + username);
-            } catch (Exception e) {
-                logger.warn("JWT inválido: " + e.getMessage());
-            }
+        ResultadoAutenticacion resultado;
+        if (token == null) {
+            resultado = ResultadoAutenticacion.SIN_TOKEN;
+        } else if (SecurityContextHolder.getContext().getAuthentication() != null) {
+            resultado = ResultadoAutenticacion.YA_AUTENTICADO;
         } else {
-            logger.warn("No se encontró token en header ni en cookie");
-        }
-
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            try {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-                if (jwtUtil.validateToken(token, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken =
-                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                    logger.info("Autenticación establecida para: " + username);
-                } else {
-                    logger.warn("Validación de token falló");
+            UserDetails userDetails = autenticacionCache.obtener(token);
+            resultado = ResultadoAutenticacion.CACHE;
+            if (userDetails == null) {
+                // No está en caché: se parsea el token una sola vez y se carga el usuario
+                long generacion = autenticacionCache.generacion();
+                try {
+                    Claims claims = jwtUtil.parseClaims(token);
+                    userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+                    autenticacionCache.guardar(token, userDetails, claims.getExpiration(), generacion);
+                    resultado = ResultadoAutenticacion.TOKEN;
+                } catch (JwtException | IllegalArgumentException e) {
+                    resultado = ResultadoAutenticacion.TOKEN_INVALIDO;
+                } catch (UsernameNotFoundException e) {
+                    resultado = ResultadoAutenticacion.USUARIO_DESCONOCIDO;
+                } catch (Exception e) {
+                    resultado = ResultadoAutenticacion.ERROR;
+                    logger.error("Error al procesar usuario del token", e);
                 }
-            } catch (Exception e) {
-                logger.error("Error al procesar usuario: " + e.getMessage(), e);
             }
+
+            if (userDetails != null) {
+                UsernamePasswordAuthenticationToken authToken =
+                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
+            }
+        }
+
+        // El resultado lo registra MetricasFilter; el log queda en DEBUG y sin datos del token
+        request.setAttribute(ResultadoAutenticacion.ATRIBUTO, resultado);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Autenticación " + resultado + " para " + request.getMethod() + " " + request.getRequestURI());
         }
 
         filterChain.doFilter(request, response);
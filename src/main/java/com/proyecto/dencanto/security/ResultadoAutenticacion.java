@@ -0,0 +1,23 @@
+package com.proyecto.dencanto.security;
+
+/**
+ * Resultado de JwtFilter para una petición (se usa como etiqueta en las métricas)
+ */
+public enum ResultadoAutenticacion {
+    // Ruta pública: no pasa por JwtFilter
+    PUBLICA,
+    SIN_TOKEN,
+    YA_AUTENTICADO,
+    // Usuario tomado de AutenticacionCache (sin parsear ni consultar la BD)
+    CACHE,
+    // Token parseado y usuario cargado de la BD
+    TOKEN,
+    TOKEN_INVALIDO,
+    USUARIO_DESCONOCIDO,
+    ERROR;
+
+    /**
+     * Atributo de la petición donde JwtFilter deja el resultado
+     */
+    public static final String ATRIBUTO = "dencanto.autenticacion";
+}
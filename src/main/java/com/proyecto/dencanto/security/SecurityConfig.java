@@ -1,8 +1,11 @@
 package com.proyecto.dencanto.security;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.core.annotation.Order;
 
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
@@ -13,11 +16,33 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.util.Arrays;
 
 @Configuration
 @EnableMethodSecurity(prePostEnabled = true)
 public class SecurityConfig {
 
+    /**
+     * Recursos estáticos y páginas públicas: no pasan por JwtFilter ni por el contexto de seguridad
+     */
+    static final RequestMatcher RUTAS_PUBLICAS = new OrRequestMatcher(Arrays.stream(new String[] {
+            "/css/**", "/js/**", "/img/**", "/favicon.ico",
+            // API de imágenes de productos (público - para página de productos)
+            "/api/imagen/**",
+            // Carrito público (para clientes sin cuenta)
+            "/carrito/**", "/api/carrito/**",
+            "/", "/index", "/index.html",
+            "/FAQ", "/FAQ.html",
+            "/productos", "/productos.html", "/productos/buscar",
+            "/nosotros", "/nosotros.html",
+            "/ubicanos", "/ubicanos.html",
+            "/intranet/login"
+        }).map(AntPathRequestMatcher::antMatcher).toArray(RequestMatcher[]::new));
+
     @Autowired
     private JwtFilter jwtFilter;
 
@@ -27,28 +52,44 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
 
+    // JwtFilter es un @Component: sin esto Spring Boot también lo registraría como filtro
+    // del contenedor y correría en todas las peticiones, incluidas las públicas
+    @Bean
+    public FilterRegistrationBean<JwtFilter> jwtFilterRegistration(JwtFilter filtro) {
+        FilterRegistrationBean<JwtFilter> registro = new FilterRegistrationBean<>(filtro);
+        registro.setEnabled(false);
+        return registro;
+    }
+
+    /**
+     * Cadena para rutas públicas: sin JWT, sin sesión, sin caché de petición ni usuario anónimo
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain publicFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher(RUTAS_PUBLICAS)
+            .csrf(csrf -> csrf.disable())
+            .securityContext(ctx -> ctx.disable())
+            .requestCache(cache -> cache.disable())
+            .anonymous(anon -> anon.disable())
+            .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .authorizeHttpRequests(auth -> auth.anyRequest().permitAll());
+
+        return http.build();
+    }
+
     @Bean
+    @Order(2)
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(auth -> auth
-                // Rutas públicas - autenticación y páginas públicas
+                // Fin de una respuesta escrita en segundo plano (exportaciones): ya se autorizó al pedirla
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                // Rutas públicas que sí leen el token (p. ej. /auth/me)
                 .requestMatchers("/auth/**").permitAll()
                 .requestMatchers("/admin/**").permitAll()
-                .requestMatchers("/favicon.ico").permitAll()
-                .requestMatchers("/", "/index", "/index.html").permitAll()
-                .requestMatchers("/FAQ", "/FAQ.html").permitAll()
-                .requestMatchers("/productos", "/productos.html").permitAll()
-                .requestMatchers("/nosotros", "/nosotros.html").permitAll()
-                .requestMatchers("/ubicanos", "/ubicanos.html").permitAll()
-                .requestMatchers("/intranet/login").permitAll()
-                // Carrito público (para clientes sin cuenta)
-                .requestMatchers("/carrito/**").permitAll()
-                .requestMatchers("/api/carrito/**").permitAll()
-                // Recursos estáticos públicos (CSS, JS, imágenes)
-                .requestMatchers("/css/**", "/js/**", "/img/**").permitAll()
-                // API de imágenes de productos (público - para página de productos)
-                .requestMatchers("/api/imagen/**").permitAll()
                 // API endpoints protegidos - requieren JWT
                 .requestMatchers("/intranet/api/**").authenticated()
                 // Rutas intranet protegidas
@@ -0,0 +1,44 @@
+-- =====================================================================
+-- Almacén de imágenes direccionado por contenido
+-- Mueve las imágenes Base64 de "productos" (LONGTEXT) a la tabla "imagenes"
+-- (LONGBLOB, clave = SHA-256 del contenido). Ejecutar una sola vez (MySQL 8).
+-- =====================================================================
+
+CREATE TABLE IF NOT EXISTS imagenes (
+    hash            CHAR(64)     NOT NULL PRIMARY KEY,
+    datos           LONGBLOB     NOT NULL,
+    tipo_contenido  VARCHAR(100),
+    tamano          BIGINT,
+    fecha_creacion  DATETIME
+);
+
+ALTER TABLE productos
+    ADD COLUMN imagen_principal_hash CHAR(64) NULL,
+    ADD COLUMN imagen_tecnica_1_hash CHAR(64) NULL,
+    ADD COLUMN imagen_tecnica_2_hash CHAR(64) NULL;
+
+-- Copiar los bytes decodificados (una fila por imagen distinta)
+INSERT IGNORE INTO imagenes (hash, datos, tipo_contenido, tamano, fecha_creacion)
+SELECT SHA2(b.datos, 256), b.datos,
+       CASE WHEN HEX(LEFT(b.datos, 4)) = '89504E47' THEN 'image/png'
+            WHEN HEX(LEFT(b.datos, 3)) = '474946' THEN 'image/gif'
+            ELSE 'image/jpeg' END,
+       LENGTH(b.datos), NOW()
+FROM (
+    SELECT FROM_BASE64(imagen_principal) AS datos FROM productos WHERE imagen_principal <> ''
+    UNION ALL
+    SELECT FROM_BASE64(imagen_tecnica_1) FROM productos WHERE imagen_tecnica_1 <> ''
+    UNION ALL
+    SELECT FROM_BASE64(imagen_tecnica_2) FROM productos WHERE imagen_tecnica_2 <> ''
+) b
+WHERE b.datos IS NOT NULL;
+
+UPDATE productos SET
+    imagen_principal_hash = CASE WHEN imagen_principal <> '' THEN SHA2(FROM_BASE64(imagen_principal), 256) END,
+    imagen_tecnica_1_hash = CASE WHEN imagen_tecnica_1 <> '' THEN SHA2(FROM_BASE64(imagen_tecnica_1), 256) END,
+    imagen_tecnica_2_hash = CASE WHEN imagen_tecnica_2 <> '' THEN SHA2(FROM_BASE64(imagen_tecnica_2), 256) END;
+
+ALTER TABLE productos
+    DROP COLUMN imagen_principal,
+    DROP COLUMN imagen_tecnica_1,
+    DROP COLUMN imagen_tecnica_2;
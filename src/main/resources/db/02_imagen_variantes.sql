@@ -0,0 +1,12 @@
+-- =====================================================================
+-- Variantes redimensionadas de las imágenes (thumbnail, card, detail)
+-- Las imágenes existentes generan sus variantes la primera vez que se piden.
+-- =====================================================================
+
+CREATE TABLE IF NOT EXISTS imagen_variantes (
+    id             BIGINT       NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    hash_original  CHAR(64)     NOT NULL,
+    variante       VARCHAR(20)  NOT NULL,
+    hash_variante  CHAR(64)     NOT NULL,
+    UNIQUE KEY uk_imagen_variante (hash_original, variante)
+);
@@ -0,0 +1,50 @@
+-- =====================================================================
+-- Resumen diario de ventas (lo mantiene VentaService en cada venta y
+-- cambio de estado). Este script crea la tabla y carga el histórico.
+--   producto_id > 0           : unidades/subtotal del producto
+--   producto_id = 0, categoria: ventas que incluyen esa categoría
+--   producto_id = 0, '*'      : todas las ventas
+-- =====================================================================
+
+CREATE TABLE IF NOT EXISTS ventas_diarias (
+    id           BIGINT         NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    fecha        DATE           NOT NULL,
+    producto_id  INT            NOT NULL,
+    categoria    VARCHAR(100)   NOT NULL,
+    vendedor_id  INT            NOT NULL,
+    estado       VARCHAR(20)    NOT NULL,
+    unidades     BIGINT         NOT NULL DEFAULT 0,
+    monto        DECIMAL(14,2)  NOT NULL DEFAULT 0,
+    pedidos      BIGINT         NOT NULL DEFAULT 0,
+    UNIQUE KEY uk_venta_diaria (fecha, producto_id, categoria, vendedor_id, estado),
+    KEY idx_venta_diaria_producto (producto_id, fecha)
+);
+
+DELETE FROM ventas_diarias;
+
+-- Filas por producto
+INSERT INTO ventas_diarias (fecha, producto_id, categoria, vendedor_id, estado, unidades, monto, pedidos)
+SELECT DATE(v.fecha_creacion), d.producto_id, COALESCE(p.categoria, 'Sin categoría'), v.vendedor_id, v.estado,
+       SUM(d.cantidad), SUM(d.cantidad * d.precio_unitario), COUNT(DISTINCT v.id)
+FROM detalle_venta d
+JOIN ventas v ON v.id = d.venta_id
+JOIN productos p ON p.id = d.producto_id
+GROUP BY DATE(v.fecha_creacion), d.producto_id, COALESCE(p.categoria, 'Sin categoría'), v.vendedor_id, v.estado;
+
+-- Filas por categoría (total de las ventas que incluyen la categoría)
+INSERT INTO ventas_diarias (fecha, producto_id, categoria, vendedor_id, estado, unidades, monto, pedidos)
+SELECT DATE(vc.fecha_creacion), 0, vc.categoria, vc.vendedor_id, vc.estado, 0, SUM(vc.total), COUNT(*)
+FROM (
+    SELECT DISTINCT v.id, v.fecha_creacion, v.vendedor_id, v.estado, v.total,
+           COALESCE(p.categoria, 'Sin categoría') AS categoria
+    FROM ventas v
+    JOIN detalle_venta d ON d.venta_id = v.id
+    JOIN productos p ON p.id = d.producto_id
+) vc
+GROUP BY DATE(vc.fecha_creacion), vc.categoria, vc.vendedor_id, vc.estado;
+
+-- Filas de todas las ventas
+INSERT INTO ventas_diarias (fecha, producto_id, categoria, vendedor_id, estado, unidades, monto, pedidos)
+SELECT DATE(v.fecha_creacion), 0, '*', v.vendedor_id, v.estado, 0, SUM(v.total), COUNT(*)
+FROM ventas v
+GROUP BY DATE(v.fecha_creacion), v.vendedor_id, v.estado;
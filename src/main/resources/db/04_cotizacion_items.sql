@@ -0,0 +1,20 @@
+-- =====================================================================
+-- Líneas de cotización: el JSON productos_json se convierte una sola vez
+-- en filas para que los reportes agreguen con SQL. CotizacionService las
+-- genera al guardar; las cotizaciones antiguas las completa la migración
+-- que corre al iniciar la aplicación (cotizaciones.items.migrar-al-iniciar).
+-- =====================================================================
+
+CREATE TABLE IF NOT EXISTS cotizacion_items (
+    id             BIGINT         NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    cotizacion_id  INT            NOT NULL,
+    producto_id    INT            NULL,
+    nombre         VARCHAR(200)   NULL,
+    categoria      VARCHAR(100)   NOT NULL,
+    cantidad       INT            NOT NULL,
+    precio         DECIMAL(10,2)  NOT NULL,
+    KEY idx_cotizacion_item_cotizacion (cotizacion_id),
+    KEY idx_cotizacion_item_categoria (categoria),
+    CONSTRAINT fk_cotizacion_item_cotizacion FOREIGN KEY (cotizacion_id)
+        REFERENCES cotizaciones (id) ON DELETE CASCADE
+);
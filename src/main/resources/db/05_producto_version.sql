@@ -0,0 +1,7 @@
+-- =====================================================================
+-- Columna de versión para el bloqueo optimista de productos (@Version).
+-- Las ventas descuentan stock con un UPDATE condicional que la incrementa.
+-- =====================================================================
+
+ALTER TABLE productos
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,7 @@
+-- =====================================================================
+-- Índices del listado paginado de ventas (keyset sobre fecha_creacion, id),
+-- general y por vendedor.
+-- =====================================================================
+
+CREATE INDEX idx_ventas_fecha_id ON ventas (fecha_creacion, id);
+CREATE INDEX idx_ventas_vendedor_fecha_id ON ventas (vendedor_id, fecha_creacion, id);
@@ -0,0 +1,17 @@
+-- =====================================================================
+-- Búsqueda y listado de cotizaciones sin LIKE '%texto%':
+--   nombre_normalizado: nombre en minúsculas y sin tildes (lo mantiene la
+--   aplicación al guardar) para buscar por prefijo con índice.
+-- Las filas existentes se cargan con LOWER(nombre_cliente); la collation
+-- por defecto de MySQL 8 (utf8mb4_0900_ai_ci) ya ignora tildes al comparar.
+-- =====================================================================
+
+ALTER TABLE cotizaciones
+    ADD COLUMN nombre_normalizado VARCHAR(100) NULL;
+
+UPDATE cotizaciones SET nombre_normalizado = LOWER(TRIM(nombre_cliente));
+
+CREATE INDEX idx_cotizaciones_nombre_normalizado ON cotizaciones (nombre_normalizado);
+CREATE INDEX idx_cotizaciones_email ON cotizaciones (email);
+CREATE INDEX idx_cotizaciones_estado_fecha ON cotizaciones (estado, fecha_creacion);
+CREATE INDEX idx_cotizaciones_fecha ON cotizaciones (fecha_creacion);
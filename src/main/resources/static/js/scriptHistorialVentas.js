@@ -3,7 +3,10 @@ const toggler = document.querySelector("#icon");
 
 // Variables globales
 let ventaIdSeleccionada = null;
-let ventasCache = [];  // Caché de ventas para filtrado
+let ventasCache = [];  // Ventas cargadas (páginas ya pedidas)
+let siguienteCursor = null; // Cursor de la siguiente página; null si no hay más
+let solicitudVentas = 0; // Descarta respuestas de cargas anteriores
+const LIMITE_VENTAS = 50; // Ventas por página
 let detalleVentaActual = null;
 let chartInstances = {}; // Guardar instancias de gráficos para destruir después
 
@@ -42,6 +45,7 @@ function configurarFiltros() {
     
     const btnAplicar = document.getElementById('btnAplicarFiltros');
     const btnLimpiar = document.getElementById('btnLimpiarFiltros');
+    const btnCargarMas = document.getElementById('btnCargarMas');
     
     if (btnAplicar) {
         btnAplicar.addEventListener('click', aplicarFiltros);
@@ -51,6 +55,10 @@ function configurarFiltros() {
         btnLimpiar.addEventListener('click', limpiarFiltros);
     }
     
+    if (btnCargarMas) {
+        btnCargarMas.addEventListener('click', () => cargarVentas(true));
+    }
+    
     // También aplicar filtros al presionar Enter en los campos de fecha
     const filtroFechaDesde = document.getElementById('filtroFechaDesde');
     const filtroFechaHasta = document.getElementById('filtroFechaHasta');
@@ -64,67 +72,33 @@ function configurarFiltros() {
 }
 
 function aplicarFiltros() {
-    
-    // Obtener valores de filtros con IDs específicos
-    const fechaDesde = document.getElementById('filtroFechaDesde')?.value;
-    const fechaHasta = document.getElementById('filtroFechaHasta')?.value;
-    const estado = document.getElementById('filtroEstado')?.value;
-    const metodoPago = document.getElementById('filtroMetodoPago')?.value;
+    // Fechas, estado y método de pago se filtran en el servidor
+    cargarVentas();
+}
+
+// Ordena las ventas ya cargadas y actualiza tabla, KPIs y gráficos
+function mostrarVentas() {
     const ordenar = document.getElementById('filtroOrdenamiento')?.value || 'reciente';
+    const ventas = [...ventasCache];
     
-    // Filtrar ventas
-    let ventasFiltradas = [...ventasCache];
-    
-    // Filtrar por rango de fechas
-    if (fechaDesde || fechaHasta) {
-        ventasFiltradas = ventasFiltradas.filter(v => {
-            const fecha = new Date(v.fechaCreacion);
-            
-            if (fechaDesde) {
-                const desde = new Date(fechaDesde);
-                if (fecha < desde) return false;
-            }
-            
-            if (fechaHasta) {
-                const hasta = new Date(fechaHasta);
-                // Agregar un día para incluir hasta el final del día
-                hasta.setDate(hasta.getDate() + 1);
-                if (fecha >= hasta) return false;
-            }
-            
-            return true;
-        });
-    }
-    
-    // Filtrar por estado
-    if (estado && estado.trim() !== '') {
-        ventasFiltradas = ventasFiltradas.filter(v => v.estado === estado);
-    }
-    
-    // Filtrar por método de pago
-    if (metodoPago && metodoPago.trim() !== '') {
-        ventasFiltradas = ventasFiltradas.filter(v => v.metodoPago === metodoPago);
-    }
-    
-    // Ordenar
     switch(ordenar) {
         case 'mayor':
-            ventasFiltradas.sort((a, b) => b.montoTotal - a.montoTotal);
+            ventas.sort((a, b) => b.montoTotal - a.montoTotal);
             break;
         case 'menor':
-            ventasFiltradas.sort((a, b) => a.montoTotal - b.montoTotal);
+            ventas.sort((a, b) => a.montoTotal - b.montoTotal);
             break;
         case 'cliente':
-            ventasFiltradas.sort((a, b) => (a.cliente || '').localeCompare(b.cliente || ''));
+            ventas.sort((a, b) => (a.cliente || '').localeCompare(b.cliente || ''));
             break;
         case 'reciente':
         default:
-            ventasFiltradas.sort((a, b) => new Date(b.fechaCreacion) - new Date(a.fechaCreacion));
+            ventas.sort((a, b) => new Date(b.fechaCreacion) - new Date(a.fechaCreacion));
     }
-    llenarTablaVentas(ventasFiltradas);
-    actualizarKPIs(ventasFiltradas);
-    actualizarGraficoBarras(ventasFiltradas);
-    actualizarGraficos(ventasFiltradas);
+    llenarTablaVentas(ventas);
+    actualizarKPIs(ventas);
+    actualizarGraficoBarras(ventas);
+    actualizarGraficos(ventas);
 }
 
 function limpiarFiltros() {
@@ -137,10 +111,7 @@ function limpiarFiltros() {
     document.getElementById('filtroOrdenamiento').value = 'reciente';
     
     // Recargar todas las ventas
-    llenarTablaVentas(ventasCache);
-    actualizarKPIs(ventasCache);
-    actualizarGraficoBarras(ventasCache);
-    actualizarGraficos(ventasCache);
+    cargarVentas();
 }
 
 // ============ ACTUALIZAR KPIs ============
@@ -205,7 +176,10 @@ function actualizarGraficos(ventas) {
 }
 
 // ============ CARGAR VENTAS ============
-async function cargarVentas() {
+// Carga la primera página con los filtros actuales; con agregar=true trae la siguiente página
+async function cargarVentas(agregar = false) {
+    const solicitud = ++solicitudVentas;
+    const btnCargarMas = document.getElementById('btnCargarMas');
     try {
         const token = getToken();
         
@@ -215,7 +189,22 @@ async function cargarVentas() {
             return;
         }
         
-        const response = await fetch('/intranet/api/ventas', {
+        const params = new URLSearchParams();
+        const fechaDesde = document.getElementById('filtroFechaDesde')?.value;
+        const fechaHasta = document.getElementById('filtroFechaHasta')?.value;
+        const estado = document.getElementById('filtroEstado')?.value;
+        const metodoPago = document.getElementById('filtroMetodoPago')?.value;
+        
+        if (fechaDesde) params.append('fechaDesde', fechaDesde);
+        if (fechaHasta) params.append('fechaHasta', fechaHasta);
+        if (estado) params.append('estado', estado);
+        if (metodoPago) params.append('metodoPago', metodoPago);
+        params.append('limite', LIMITE_VENTAS);
+        if (agregar && siguienteCursor) params.append('cursor', siguienteCursor);
+        
+        if (btnCargarMas) btnCargarMas.disabled = true;
+        
+        const response = await fetch('/intranet/api/ventas?' + params.toString(), {
             method: 'GET',
             headers: {
                 'Authorization': `Bearer ${token}`,
@@ -231,23 +220,25 @@ async function cargarVentas() {
             throw new Error(`HTTP ${response.status}: ${errorText}`);
         }
 
-        const ventas = await response.json();
-        
-        // Guardar en caché
-        ventasCache = ventas;
+        const pagina = await response.json();
         
-        // Llenar tabla
-        llenarTablaVentas(ventas);
+        // Los filtros cambiaron mientras llegaba esta página
+        if (solicitud !== solicitudVentas) return;
         
-        // Actualizar KPIs
-        actualizarKPIs(ventas);
+        // Guardar en caché
+        ventasCache = agregar ? ventasCache.concat(pagina.data) : pagina.data;
+        siguienteCursor = pagina.siguienteCursor;
         
-        // Actualizar gráficos
-        actualizarGraficoBarras(ventas);
-        actualizarGraficos(ventas);
+        // Llenar tabla, KPIs y gráficos
+        mostrarVentas();
     } catch (error) {
         console.error("❌ Error al cargar ventas:", error);
         mostrarAlertaError('Error', 'Error al cargar ventas: ' + error.message);
+    } finally {
+        if (btnCargarMas && solicitud === solicitudVentas) {
+            btnCargarMas.disabled = false;
+            btnCargarMas.classList.toggle('d-none', !siguienteCursor);
+        }
     }
 }
 
@@ -1,8 +1,9 @@
 ﻿// ========== INICIALIZACIÓN ========== 
 document.addEventListener('DOMContentLoaded', function () {
     
-    // Caché de todos los productos
-    const allProducts = Array.from(document.querySelectorAll('[data-product-id]'));
+    // Caché de las tarjetas de producto (solo .product-item: dentro de cada tarjeta el modal también
+    // tiene nodos con data-product-id que no deben moverse ni ocultarse)
+    const allProducts = Array.from(document.querySelectorAll('#productsContainer .product-item'));
     
     // Referencias a elementos del DOM
     const searchInput = document.getElementById('searchInput');
@@ -22,6 +23,36 @@ document.addEventListener('DOMContentLoaded', function () {
         });
     }
     
+    // ========== BÚSQUEDA EN EL SERVIDOR ========== 
+    // El servidor devuelve los ids que coinciden (sin tildes, por prefijo) ordenados por relevancia
+    let resultadoBusqueda = null;   // null = sin término; array de ids en orden de relevancia
+    let temporizadorBusqueda = null;
+    let busquedaActual = 0;
+    
+    function buscarEnServidor() {
+        clearTimeout(temporizadorBusqueda);
+        temporizadorBusqueda = setTimeout(async function () {
+            const termino = searchInput?.value.trim() || '';
+            const numero = ++busquedaActual;
+            if (!termino) {
+                resultadoBusqueda = null;
+                applyFilters();
+                return;
+            }
+            try {
+                const response = await fetch(`/productos/buscar?termino=${encodeURIComponent(termino)}`);
+                if (!response.ok) throw new Error(`HTTP ${response.status}`);
+                const ids = await response.json();
+                if (numero !== busquedaActual) return; // llegó una búsqueda más reciente
+                resultadoBusqueda = ids.map(String);
+            } catch (error) {
+                console.error('Error en la búsqueda:', error);
+                resultadoBusqueda = null; // se filtra solo por nombre en el navegador
+            }
+            applyFilters();
+        }, 200);
+    }
+    
     // ========== APLICAR FILTROS ========== 
     function applyFilters() {
         
@@ -29,6 +60,9 @@ document.addEventListener('DOMContentLoaded', function () {
         const selectedCategory = categoryFilter?.value || '';
         const maxPrice = parseInt(priceFilter?.value) || 5000;
         const selectedStatus = statusFilter?.value || '';
+        const posiciones = resultadoBusqueda
+            ? new Map(resultadoBusqueda.map((id, i) => [id, i]))
+            : null;
         
         let visibleCount = 0;
         
@@ -40,7 +74,9 @@ document.addEventListener('DOMContentLoaded', function () {
             const status = product.getAttribute('data-status') || '';
             
             // Aplicar criterios de filtro
-            const matchesSearch = name.includes(searchTerm);
+            const matchesSearch = posiciones
+                ? posiciones.has(product.getAttribute('data-product-id'))
+                : name.includes(searchTerm);
             const matchesCategory = !selectedCategory || category === selectedCategory;
             const matchesPrice = price <= maxPrice;
             const matchesStatus = !selectedStatus || status === selectedStatus;
@@ -55,6 +91,14 @@ document.addEventListener('DOMContentLoaded', function () {
             }
         });
         
+        // Ordenar por relevancia cuando hay búsqueda (si no, el orden original)
+        const ordenados = [...allProducts];
+        if (posiciones) {
+            const posicion = p => posiciones.get(p.getAttribute('data-product-id')) ?? Number.MAX_SAFE_INTEGER;
+            ordenados.sort((a, b) => posicion(a) - posicion(b));
+        }
+        ordenados.forEach(product => productsGrid.appendChild(product));
+        
         // Mostrar/ocultar estado vacío
         if (visibleCount === 0) {
             emptyState.style.display = 'block';
@@ -69,7 +113,7 @@ document.addEventListener('DOMContentLoaded', function () {
     }
     
     if (searchInput) {
-        searchInput.addEventListener('input', applyFilters);
+        searchInput.addEventListener('input', buscarEnServidor);
     }
     
     if (categoryFilter) {
@@ -89,6 +133,9 @@ document.addEventListener('DOMContentLoaded', function () {
         clearFiltersBtn.addEventListener('click', function () {
             
             if (searchInput) searchInput.value = '';
+            clearTimeout(temporizadorBusqueda);
+            resultadoBusqueda = null;
+            busquedaActual++;
             if (categoryFilter) categoryFilter.value = '';
             if (priceFilter) {
                 priceFilter.value = 5000;
@@ -100,6 +147,7 @@ document.addEventListener('DOMContentLoaded', function () {
             
             allProducts.forEach(product => {
                 product.style.display = '';
+                productsGrid.appendChild(product);
             });
         });
     }
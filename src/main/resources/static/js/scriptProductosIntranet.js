@@ -616,7 +616,7 @@ function mostrarProductos(productos) {
         <tr>
             <td>${p.id}</td>
             <td>
-                ${p.imagenPrincipal ? `<img src="data:image/jpeg;base64,${p.imagenPrincipal}" style="width: 50px; height: 50px; object-fit: cover; border-radius: 4px;">` : '<span class="badge bg-secondary">Sin imagen</span>'}
+                ${p.imagenPrincipalHash ? `<img src="/api/imagen/principal/${p.id}?size=thumbnail&v=${p.imagenPrincipalHash}" style="width: 50px; height: 50px; object-fit: cover; border-radius: 4px;">` : '<span class="badge bg-secondary">Sin imagen</span>'}
             </td>
             <td>${p.nombre}</td>
             <td>${p.categoria}</td>
@@ -672,10 +672,10 @@ function cargarProductoEnModal(button) {
             document.getElementById('editStock').value = producto.stock || '';
 
             // Imagen Principal
-            document.getElementById('editImagenPrincipal').value = producto.imagenPrincipal || '';
-            if (producto.imagenPrincipal) {
+            document.getElementById('editImagenPrincipal').value = '';
+            if (producto.imagenPrincipalHash) {
                 const previewEdit = document.getElementById('previewImagenPrincipalEdit');
-                previewEdit.src = 'data:image/jpeg;base64,' + producto.imagenPrincipal;
+                previewEdit.src = '/api/imagen/principal/' + producto.id + '?size=card&v=' + producto.imagenPrincipalHash;
                 previewEdit.style.display = 'block';
             }
 
@@ -688,17 +688,17 @@ function cargarProductoEnModal(button) {
             document.getElementById('editCaracteristicas').value = producto.caracteristicas || '';
 
             // Imágenes Técnicas
-            document.getElementById('editImagenTecnica1').value = producto.imagenTecnica1 || '';
-            if (producto.imagenTecnica1) {
+            document.getElementById('editImagenTecnica1').value = '';
+            if (producto.imagenTecnica1Hash) {
                 const previewTec1 = document.getElementById('previewImagenTecnica1Edit');
-                previewTec1.src = 'data:image/jpeg;base64,' + producto.imagenTecnica1;
+                previewTec1.src = '/api/imagen/tecnica1/' + producto.id + '?size=card&v=' + producto.imagenTecnica1Hash;
                 previewTec1.style.display = 'block';
             }
 
-            document.getElementById('editImagenTecnica2').value = producto.imagenTecnica2 || '';
-            if (producto.imagenTecnica2) {
+            document.getElementById('editImagenTecnica2').value = '';
+            if (producto.imagenTecnica2Hash) {
                 const previewTec2 = document.getElementById('previewImagenTecnica2Edit');
-                previewTec2.src = 'data:image/jpeg;base64,' + producto.imagenTecnica2;
+                previewTec2.src = '/api/imagen/tecnica2/' + producto.id + '?size=card&v=' + producto.imagenTecnica2Hash;
                 previewTec2.style.display = 'block';
             }
         })
@@ -0,0 +1,105 @@
+package com.proyecto.dencanto.Service;
+
+import com.proyecto.dencanto.Modelo.*;
+import com.proyecto.dencanto.Repository.ProductoRepository;
+import com.proyecto.dencanto.Repository.RolRepository;
+import com.proyecto.dencanto.Repository.UsuarioRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Ventas en paralelo sobre el mismo producto: no debe venderse más stock del que hay
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class VentaServiceConcurrenciaTest {
+
+	private static final int STOCK_INICIAL = 10;
+	private static final int VENTAS_PARALELAS = 25;
+
+	@Autowired
+	private VentaService ventaService;
+
+	@Autowired
+	private ProductoRepository productoRepository;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private RolRepository rolRepository;
+
+	@Test
+	void ventasParalelasNoSobrevendenElStock() throws Exception {
+		Rol rol = new Rol();
+		rol.setNombre("VENDEDOR_TEST");
+		rol = rolRepository.save(rol);
+
+		Producto producto = new Producto("Colchón Concurrencia", "Colchones", 500.0, STOCK_INICIAL, null, "Disponible");
+		producto.setCodigo("TEST-CONC-1");
+		Integer productoId = productoRepository.save(producto).getId();
+
+		// Un vendedor por hilo (dos vendedores vendiendo el mismo colchón)
+		List<Usuario> vendedores = new ArrayList<>();
+		for (int i = 0; i < VENTAS_PARALELAS; i++) {
+			vendedores.add(usuarioRepository.save(
+				new Usuario("vendedor_conc_" + i, "hash", "Vendedor " + i, null, null, rol)));
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(VENTAS_PARALELAS);
+		CountDownLatch salida = new CountDownLatch(1);
+		List<Future<Boolean>> resultados = new ArrayList<>();
+		for (Usuario vendedor : vendedores) {
+			resultados.add(pool.submit(() -> {
+				salida.await();
+				try {
+					ventaService.registrarVenta(nuevaVenta(vendedor, productoId));
+					return true;
+				} catch (Exception e) {
+					return false;
+				}
+			}));
+		}
+		salida.countDown();
+
+		int exitosas = 0;
+		for (Future<Boolean> resultado : resultados) {
+			if (resultado.get(60, TimeUnit.SECONDS)) exitosas++;
+		}
+		pool.shutdown();
+
+		Producto finalProducto = productoRepository.findById(productoId).orElseThrow();
+		assertEquals(STOCK_INICIAL, exitosas);
+		assertEquals(0, finalProducto.getStock());
+		assertEquals("Agotado", finalProducto.getEstado());
+		// Cada venta confirmada incrementa la versión una vez
+		assertEquals(STOCK_INICIAL, finalProducto.getVersion().intValue());
+	}
+
+	private Venta nuevaVenta(Usuario vendedor, Integer productoId) {
+		Venta venta = new Venta("Cliente Prueba", "987654321", "cliente@prueba.com");
+		venta.setTipoEntrega(TipoEntrega.RECOJO);
+		venta.setMetodoPago(MetodoPago.EFECTIVO);
+		venta.setVendedor(vendedor);
+
+		Producto referencia = new Producto();
+		referencia.setId(productoId);
+		DetalleVenta detalle = new DetalleVenta(venta, referencia, 1, 500.0);
+		List<DetalleVenta> detalles = new ArrayList<>();
+		detalles.add(detalle);
+		venta.setDetalles(detalles);
+		return venta;
+	}
+}